@@ -3,21 +3,27 @@ package za.co.mtn.ppm.bpm.ia;
 import org.json.JSONException;
 import za.co.mtn.ppm.bpm.ismpo.project.IspmoItProjectProcessor;
 import za.co.mtn.ppm.bpm.ismpo.project.ProjectMilestoneValues;
+import za.co.mtn.ppm.bpm.rest.CallMetrics;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+import za.co.mtn.ppm.bpm.rest.RunDeadline;
 
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * Class that create IS PMO Feature Requests from the Impacted System Domains in the IS PMO Impact Assessment.
+ * The Feature creation is written ahead to the Feature creation journal of the IS PMO Impact Assessment, and the next run
+ * resumes a failed run from the journal without duplicate IS PMO Features and without reading the journaled data again.
  */
 public class CreateIsDomainFeatures {
     // Variable to set the REST API URL
     private static final String REQ_REST_URL = "rest2/dm/requests";
     private static final String SQL_REST_URL = "rest2/sqlRunner/runSqlQuery";
+    // Number of required Command Line Arguments
+    protected static final int REQUIRED_ARGUMENTS = 7;
 
     /**
      * Main method for the class
@@ -30,30 +36,54 @@ public class CreateIsDomainFeatures {
      *             PROJECT_ID: args[4] (IT Project ID linked to the IS PMO Impact Assessment Request)
      *             PROJECT_NAME: args[5] (IT Project Name linked to the IS PMO Impact Assessment Request)
      *             IT_PROJECT_REQUEST_TYPE: args[6] (IT Project Request Type Name)");
+     *             Optional: --parallel=N (Maximum number of IS PMO Features created at the same time, default 1)
+     *             Optional: --deadline=N (Seconds the run may take, default the System Property ia.run.deadlineSeconds or 0 for no deadline)
+     *             The job runs on the IA Job Server when the System Property ia.jobServer is set to the IA Job Server URL
      */
     public static void main(String[] args) {
         // Verify that all Command Line Arguments has been submitted
 //		log("Arguments length: " + args.length);
-        if (args.length < 7) {
-            log("The Class Command Line Arguments is incorrect!");
+        if (args.length < REQUIRED_ARGUMENTS) {
+            ExecutionLog.info("The Class Command Line Arguments is incorrect!");
             printCommandLineArguments();
             System.exit(1);
         }
+        // Hand the job to the IA Job Server when one is configured
+        String jobServerUrl = IaJobClient.getJobServerUrl();
+        if (jobServerUrl != null) {
+            IaJobClient.runJob(jobServerUrl, IaJobServer.CREATE_FEATURES_JOB, args);
+            return;
+        }
+        try {
+            run(args).throwIfFailed();
+        } finally {
+            // Write the queued log messages before a failed run ends the JVM
+            ExecutionLog.flush();
+        }
+    }
+
+    /**
+     * Method to run the job with the Command Line Arguments, in this JVM or on the IA Job Server
+     *
+     * @param args Command Line Arguments as for the main method
+     * @return Run result with the created IS PMO Features and the number of IS Domains that failed
+     */
+    protected static IaRunResult run(String[] args) {
         // Assign parameters to variables for usage in methods
-        log("**** Class Command Line Arguments****");
+        ExecutionLog.info("**** Class Command Line Arguments****");
         // Base URL for PPM - Token: ENV_BASE_URL
-        log("ENV_BASE_URL: " + args[0]);
+        ExecutionLog.info("ENV_BASE_URL: " + args[0]);
         // REST API Username
-        log("REST_USERNAME: " + args[1]);
+        ExecutionLog.info("REST_USERNAME: " + args[1]);
         // IS PMO Impact Assessment Request ID
-        log("IA_REQUEST_ID: " + args[3]);
+        ExecutionLog.info("IA_REQUEST_ID: " + args[3]);
         // IT Project ID
-        log("PROJECT_ID: " + args[4]);
+        ExecutionLog.info("PROJECT_ID: " + args[4]);
         // IT Project Name
-        log("PROJECT_NAME: " + args[5]);
+        ExecutionLog.info("PROJECT_NAME: " + args[5]);
         // IT Project Request Type
-        log("IT_PROJECT_REQUEST_TYPE: " + args[6]);
-        log("**** End of Class Command Line Arguments****");
+        ExecutionLog.info("IT_PROJECT_REQUEST_TYPE: " + args[6]);
+        ExecutionLog.info("**** End of Class Command Line Arguments****");
 
         final String ppmBaseUrl = args[0];
         final String username = args[1];
@@ -62,92 +92,237 @@ public class CreateIsDomainFeatures {
         final String projectId = args[4];
         final String projectName = args[5];
         final String projectRequestType = args[6];
+        // Optional Command Line Options
+        final RunOptions runOptions = new RunOptions(args, 7);
+        final int maxParallelFeatures = runOptions.getInt("parallel", 1);
+        final RunDeadline deadline = RunDeadline.ofSeconds(runOptions.getInt("deadline", Integer.getInteger("ia.run.deadlineSeconds", 0)));
+        ExecutionLog.info("MAX_PARALLEL_FEATURES: " + maxParallelFeatures);
+        ExecutionLog.info("RUN_DEADLINE: " + deadline);
+        // Create the shared PPM REST Gateway for all the PPM calls of this run, the calls are recorded in the call metrics of the run
+        // and the call timeouts are limited to the time left until the run deadline
+        final CallMetrics runMetrics = new CallMetrics();
+        final RestGateway ppmGateway = RestGateway.ppmGateway(ppmBaseUrl, username, password).withCallMetrics(runMetrics).withDeadline(deadline);
         // Create new instances of ImpactAssessmentProcessor objects to be used in this class
-        ImpactAssessmentProcessor iaProcessor = new ImpactAssessmentProcessor();
+        ImpactAssessmentProcessor iaProcessor = new ImpactAssessmentProcessor(ppmGateway);
+        // Created IS PMO Features and the number of Domains where the IS PMO Feature creation failed
+        IaRunResult runResult = new IaRunResult(requestId);
+        // Replay the Feature creation journal of a failed run of the IS PMO Impact Assessment
+        FeatureCreationJournal journal = FeatureCreationJournal.open(ppmBaseUrl, requestId);
         try {
-            log("<<-- Impacted System Domains in Impact Assessment -->>");
-            log("<<- Get Impacted System Domains REST SQL Query ->>");
-            ArrayList<String> iaDomainArray = iaProcessor.getImpactedSystemDomainsData(ppmBaseUrl, username, password,
-                    SQL_REST_URL, requestId);
+            if (journal.isReplayed()) {
+                ExecutionLog.info("<<-- Resume the failed run from the Feature creation journal " + journal.getJournalFile() + " -->>");
+                ExecutionLog.info("Created IS PMO Features of the failed run: " + journal.getCreatedFeatures());
+                // Look up the IS PMO Feature of the Domains where the failed run sent the POST Request without recording the response
+                resolveInterruptedDomains(iaProcessor, journal, projectId);
+                ExecutionLog.info("Domains list: " + journal.getRemainingDomains());
+                createJournaledFeatures(iaProcessor, journal, runResult, requestId, projectName, projectRequestType, maxParallelFeatures);
+                ExecutionLog.info(RestGateway.getConnectionStatistics());
+                runMetrics.logSummary();
+                CallMetrics.global().writePrometheusTextfile();
+                return runResult;
+            }
+            ExecutionLog.info("<<-- Impacted System Domains in Impact Assessment -->>");
+            ExecutionLog.info("<<- Get Impacted Systems, Feature Domains, Project Data and Milestones in one read phase ->>");
+            // Combine the independent SQL Queries into one sqlRunner round trip
+            final boolean isEpmoProject = projectRequestType.equalsIgnoreCase("IS PMO IT-EPMO Project");
+            final SqlQueryBatch readBatch = new SqlQueryBatch();
+            iaProcessor.addIaImpactedSystemsTableQuery(readBatch, requestId);
+            iaProcessor.addFeatureDomainsQuery(readBatch, requestId);
+            if (isEpmoProject) {
+                iaProcessor.addEpmoProjectQuery(readBatch, projectId);
+            }
+            // The IS lookups are read in the same round trip when the LookupCache has no lookups within the time to live
+            iaProcessor.addLookupQueries(readBatch);
+            final long readMillis = System.currentTimeMillis();
+            // Run the query batch and the IT Project query at the same time, the Milestone query starts as soon as the IT Project Number is known
+            ReadPrefetch readPhase = new ReadPrefetch("ia-read", 4);
+            Future<HashMap<String, SqlQueryResult>> batchRead = readPhase.submit("SQL_QUERY_BATCH", () -> iaProcessor.runSqlQueryBatch(SQL_REST_URL, readBatch));
+            Future<HashMap<String, String>> itProjectRead = null;
+            Future<ArrayList<ProjectMilestoneValues>> milestoneRead = null;
+            if (iaProcessor.isFeatureProjectRequestType(projectRequestType)) {
+                // Optional reads, only used when IS PMO Features have to be created
+                itProjectRead = readPhase.submit(ImpactAssessmentProcessor.QRY_IT_PROJECT, () -> iaProcessor.getItProjectData(SQL_REST_URL, projectId, projectRequestType), false);
+                milestoneRead = readPhase.submit("IT_PROJECT_MILESTONES", itProjectRead, itProjectData -> new IspmoItProjectProcessor()
+                        .getItProjectMilestoneData(ppmBaseUrl, username, password, SQL_REST_URL, itProjectData.get("ISPMO_PRJ_NUM")), false);
+            }
+            readPhase.awaitAll();
+            HashMap<String, SqlQueryResult> readResults = readPhase.getResult(batchRead);
+            iaProcessor.setLookups(readResults, readMillis);
+            // Derive the Impacted System Domains locally from the Impacted Systems table data
+            ImpactModel impactModel = new ImpactModel(iaProcessor.getIaImpactedSystemsTableData(readResults.get(ImpactAssessmentProcessor.QRY_IA_IMPACTED_SYSTEMS)));
+            ArrayList<String> iaDomainArray = impactModel.getFeatureDomains();
             // Check if Impact Assessment's Impacted Systems has any Domains capture
             // creating IS PMO Feature
             if (iaDomainArray.isEmpty()) {
-                log("No Impacted Systems captured in the IS PMO Impact Assessment request."
+                ExecutionLog.info("No Impacted Systems captured in the IS PMO Impact Assessment request."
                         .concat(" No (New) IS PMO Features required while there are no Impacted Systems captured."));
             } else {
-                log("Impacted System Domain(s): " + iaDomainArray);
-                log("<<-- Set PPM Feature Domains Array -->>");
-                ArrayList<String> featureDomainArray = iaProcessor.getFeatureDomainsData(ppmBaseUrl, username, password,
-                        SQL_REST_URL, requestId);
-                log("Feature Domain Array List: " + featureDomainArray.toString());
+                ExecutionLog.info("Impacted System Domain(s): " + iaDomainArray);
+                ExecutionLog.info("<<-- Set PPM Feature Domains Array -->>");
+                ArrayList<String> featureDomainArray = iaProcessor.getFeatureDomainsData(readResults.get(ImpactAssessmentProcessor.QRY_FEATURE_DOMAINS));
+                ExecutionLog.info("Feature Domain Array List: " + featureDomainArray.toString());
                 ArrayList<String> domainCreationList = iaProcessor.getFeatureCreatDomianList(iaDomainArray, featureDomainArray);
-                log("<<-- IS PPM Feature Domains to be Created -->>");
+                ExecutionLog.info("<<-- IS PPM Feature Domains to be Created -->>");
                 // Check if Domain Ctreation List is empty
                 if (domainCreationList.isEmpty()) {
-                    log("No New Domains therefor no IS PMO Features to be created");
+                    ExecutionLog.info("No New Domains therefor no IS PMO Features to be created");
                 } else {
-                    log("Domains list: " + domainCreationList);
-                    log("<<- Get IT Project Data REST SQL Query ->>");
-                    HashMap<String, String> itProjectInformation = iaProcessor.getItProjectData(ppmBaseUrl, username, password, SQL_REST_URL, projectId, projectRequestType);
+                    ExecutionLog.info("Domains list: " + domainCreationList);
+                    ExecutionLog.info("<<- Get IT Project Data from the read phase ->>");
+                    HashMap<String, String> itProjectInformation = itProjectRead != null
+                            ? readPhase.getResult(itProjectRead)
+                            : iaProcessor.getItProjectData(SQL_REST_URL, projectId, projectRequestType);
                     // Get the EPMO Project Info depending on the IT Project Rerquest Type
                     HashMap<String, String> epmoProjectInformation = new HashMap<>();
-                    if (projectRequestType.equalsIgnoreCase("IS PMO IT-EPMO Project")) {
-                        log("<<- Get EPMO Project Data REST SQL Query->>");
-                        epmoProjectInformation = iaProcessor.getEpmoProjectData(ppmBaseUrl, username, password,
-                                SQL_REST_URL, projectId);
+                    if (isEpmoProject) {
+                        ExecutionLog.info("<<- Get EPMO Project Data from the REST SQL Query batch ->>");
+                        epmoProjectInformation = iaProcessor.getEpmoProjectData(readResults.get(ImpactAssessmentProcessor.QRY_EPMO_PROJECT));
                     }
-                    log("<<- Get IT Project Milestone Data REST SQL Query->>");
-                    // Create new instances of IspmoProjectMilestoneProcessor class
-                    IspmoItProjectProcessor prjMil = new IspmoItProjectProcessor();
-                    ArrayList<ProjectMilestoneValues> projectMilestoneArraylist = prjMil.getItProjectMilestoneData(ppmBaseUrl, username, password, SQL_REST_URL, itProjectInformation.get("ISPMO_PRJ_NUM"));
-                    log("<<-- Create IS PMO Feature(s)  -->>");
-                    Set<String> stringSet = new HashSet<>();
-                    for (String domainList : domainCreationList) {
-                        log("Domain List " + domainCreationList.indexOf(domainList) + ": " + domainList);
-                        String newRequestId = iaProcessor.createIspmoFeatureRequest(ppmBaseUrl, username, password, REQ_REST_URL, requestId, projectName, domainList, projectRequestType, itProjectInformation, epmoProjectInformation, projectMilestoneArraylist);
-                        log("Created IS PMO Feature Number:" + newRequestId);
-                        // Add the Request IDs to the String Set
-                        stringSet.add(newRequestId);
-                    }
-                    // Add the References is New IS PMO Features were created
-                    if (stringSet.isEmpty()) {
-                        log("No IS PMO Feature(s) Created:");
+                    ExecutionLog.info("<<- Get IT Project Milestone Data from the read phase ->>");
+                    ArrayList<ProjectMilestoneValues> projectMilestoneArraylist;
+                    if (milestoneRead != null) {
+                        projectMilestoneArraylist = readPhase.getResult(milestoneRead);
                     } else {
-                        log("<<-- Create IS PMO Impact Assessment references to IS PMO Feature(s)  -->>");
-                        // Assigning the String Set to a comma separated String
-                        String referenceRequestIds = String.join(",", stringSet);
-                        // Run methed to add references
-                        iaProcessor.setRequestReference(ppmBaseUrl, username, password, REQ_REST_URL, requestId, referenceRequestIds, "CHILD");
+                        // Create new instances of IspmoProjectMilestoneProcessor class
+                        IspmoItProjectProcessor prjMil = new IspmoItProjectProcessor();
+                        projectMilestoneArraylist = prjMil.getItProjectMilestoneData(ppmBaseUrl, username, password, SQL_REST_URL, itProjectInformation.get("ISPMO_PRJ_NUM"));
                     }
+                    // Render the Milestones HTML once for all the IS PMO Features
+                    String projectMilestoneHtml = new IspmoItProjectProcessor().setProjectMilestoneHtml(projectMilestoneArraylist);
+                    // Write the plan ahead of the first IS PMO Feature creation
+                    journal.recordPlan(domainCreationList, itProjectInformation, epmoProjectInformation, projectMilestoneHtml);
+                    createJournaledFeatures(iaProcessor, journal, runResult, requestId, projectName, projectRequestType, maxParallelFeatures);
                 }
 
             }
-
+            ExecutionLog.info(RestGateway.getConnectionStatistics());
+            runMetrics.logSummary();
+            CallMetrics.global().writePrometheusTextfile();
         } catch (IOException | JSONException | ParseException e) {
             throw new RuntimeException(e);
+        } finally {
+            // The journal file of a failed run is kept for the next run
+            journal.close();
         }
+        return runResult;
     }
 
     /**
-     * Method to write out the Command Line Arguments for this class
+     * Method to look up the IS PMO Feature of every IS Domain where the failed run sent the POST Request without recording the
+     * response. A single unreferenced Feature of the Domain in the IT Project is recorded as created so that it is referenced,
+     * a Domain without a Feature is recorded as failed so that it is created again. A Domain with more than one unreferenced
+     * Feature is left for the operator and is never created again by the run.
+     *
+     * @param iaProcessor Impact Assessment Processor with the PPM REST Gateway
+     * @param journal     Feature creation journal of the failed run
+     * @param projectId   IT Project ID linked to the IS PMO Impact Assessment
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    private static void printCommandLineArguments() {
-        log("Command Line Arguments Layout: sc_ia_create_is_features <ENV_BASE_URL> <REST_USERNAME> <REST_USER_PASSWORD> <IA_REQUEST_ID> <PROJECT_ID> <PROJECT_NAME> <IT_PROJECT_REQUEST_TYPE>");
-        log("ENV_BASE_URL: args[0] (PPM Base URL)");
-        log("REST_USERNAME: args[1] (PPM System User - ppmsysuser)");
-        log("REST_USER_PASSWORD: args[2] (PPM System User Password)");
-        log("IA_REQUEST_ID: args[3] (IS PMO Impact Assessment No)");
-        log("PROJECT_ID: args[4] (IT Project ID linked to the IS PMO Impact Assessment Request)");
-        log("PROJECT_NAME: args[5] (IT Project Name linked to the IS PMO Impact Assessment Request)");
-        log("IT_PROJECT_REQUEST_TYPE: args[6] (IT Project Request Type Name)");
+    private static void resolveInterruptedDomains(ImpactAssessmentProcessor iaProcessor, FeatureCreationJournal journal, String projectId) throws IOException, JSONException {
+        ArrayList<String> interruptedDomains = journal.getInterruptedDomains();
+        if (interruptedDomains.isEmpty()) {
+            return;
+        }
+        ExecutionLog.info("<<-- Look up the IS PMO Features of the interrupted Domains " + interruptedDomains + " -->>");
+        HashMap<String, ArrayList<String>> unreferencedFeatures = iaProcessor.getUnreferencedFeatures(SQL_REST_URL, projectId);
+        for (String interruptedDomain : interruptedDomains) {
+            ArrayList<String> domainRequestIds = unreferencedFeatures.getOrDefault(interruptedDomain, new ArrayList<>());
+            if (domainRequestIds.isEmpty()) {
+                ExecutionLog.info("IS Domain: " + interruptedDomain + ": no IS PMO Feature found in PPM, the Domain is created again");
+                journal.recordFailed(interruptedDomain, "No IS PMO Feature found in PPM");
+            } else if (domainRequestIds.size() == 1) {
+                ExecutionLog.info("IS Domain: " + interruptedDomain + ": IS PMO Feature " + domainRequestIds.get(0) + " found in PPM");
+                journal.recordCreated(interruptedDomain, domainRequestIds.get(0));
+            } else {
+                ExecutionLog.warn("IS Domain: " + interruptedDomain + ": more than one unreferenced IS PMO Feature found in PPM " + domainRequestIds
+                        + ", reference the Feature of the Domain and cancel the others before the next run");
+            }
+        }
     }
 
     /**
-     * Method to write out to the console or log file
+     * Method to create the IS PMO Features of the planned Domains without a created Feature in the journal, and to reference all
+     * the created Features of the journal that are not referenced yet from the IS PMO Impact Assessment.
+     * The journal is kept while a Domain failed or an interrupted Domain is left for the operator.
      *
-     * @param str String to print to console
+     * @param iaProcessor         Impact Assessment Processor with the PPM REST Gateway
+     * @param journal             Feature creation journal with the plan of the run
+     * @param runResult           Run result for the created IS PMO Features and the failed Domains
+     * @param requestId           IS PMO Impact Assessment Request ID
+     * @param projectName         IS PMO Impact Assessment linked IT Project
+     * @param projectRequestType  IS PMO IT Project Request Type
+     * @param maxParallelFeatures Maximum number of IS PMO Features created at the same time
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    private static void log(final String str) {
-        System.out.println(str);
+    private static void createJournaledFeatures(ImpactAssessmentProcessor iaProcessor, FeatureCreationJournal journal, IaRunResult runResult, String requestId,
+                                                String projectName, String projectRequestType, int maxParallelFeatures) throws IOException, JSONException {
+        // IS PMO Features created by the failed run
+        runResult.addFeatureRequestIds(new ArrayList<>(journal.getCreatedFeatures().values()));
+        int failedDomainCount = 0;
+        ArrayList<String> remainingDomains = journal.getRemainingDomains();
+        if (!remainingDomains.isEmpty()) {
+            ExecutionLog.info("<<-- Create IS PMO Feature(s)  -->>");
+            // Create the IS PMO Features with the journaled data and collect the outcome per Domain
+            FeatureCreationRunner creationRunner = new FeatureCreationRunner(iaProcessor, REQ_REST_URL, requestId, projectName, projectRequestType,
+                    journal.getItProjectData(), journal.getEpmoProjectData(), journal.getMilestoneHtml(), journal, maxParallelFeatures);
+            ArrayList<FeatureCreationResult> creationResults = creationRunner.createFeatures(remainingDomains);
+            failedDomainCount = FeatureCreationRunner.logSummary(creationResults);
+            // New IS PMO Feature Request IDs in Domain order
+            runResult.addFeatureRequestIds(FeatureCreationRunner.getNewRequestIds(creationResults));
+            // Fail the run if any of the Domains could not be created
+            if (failedDomainCount > 0) {
+                runResult.setFailed(failedDomainCount, "Failed to create the IS PMO Feature for " + failedDomainCount + " IS Domain(s)");
+            }
+        }
+        // Add the References for the created IS PMO Features without a reference, including the Features of the failed run
+        ArrayList<String> unreferencedRequestIds = journal.getUnreferencedRequestIds();
+        if (journal.isReplayed() && !unreferencedRequestIds.isEmpty()) {
+            // The failed run may have added the references without recording it
+            ArrayList<String> referencedRequestIds = iaProcessor.getReferencedFeatureRequestIds(SQL_REST_URL, requestId);
+            referencedRequestIds.retainAll(unreferencedRequestIds);
+            if (!referencedRequestIds.isEmpty()) {
+                journal.recordReferenced(referencedRequestIds);
+                unreferencedRequestIds.removeAll(referencedRequestIds);
+            }
+        }
+        if (unreferencedRequestIds.isEmpty()) {
+            ExecutionLog.info("No IS PMO Feature(s) Created:");
+        } else {
+            ExecutionLog.info("<<-- Create IS PMO Impact Assessment references to IS PMO Feature(s)  -->>");
+            // Assigning the Request IDs to a comma separated String
+            String referenceRequestIds = String.join(",", unreferencedRequestIds);
+            // Run methed to add references
+            iaProcessor.setRequestReference(REQ_REST_URL, requestId, referenceRequestIds, "CHILD");
+            journal.recordReferenced(unreferencedRequestIds);
+        }
+        // Interrupted Domains with more than one Feature in PPM wait for the operator
+        ArrayList<String> interruptedDomains = journal.getInterruptedDomains();
+        if (!interruptedDomains.isEmpty()) {
+            runResult.setFailed(failedDomainCount + interruptedDomains.size(), "Failed to create the IS PMO Feature for " + failedDomainCount
+                    + " IS Domain(s), IS Domain(s) " + interruptedDomains + " have more than one unreferenced IS PMO Feature in PPM");
+        }
+        // The journal is only kept while planned Domains are left to create
+        if (failedDomainCount == 0 && interruptedDomains.isEmpty()) {
+            journal.complete();
+        }
+    }
+
+    /**
+     * Method to write out the Command Line Arguments for this class
+     */
+    private static void printCommandLineArguments() {
+        ExecutionLog.info("Command Line Arguments Layout: sc_ia_create_is_features <ENV_BASE_URL> <REST_USERNAME> <REST_USER_PASSWORD> <IA_REQUEST_ID> <PROJECT_ID> <PROJECT_NAME> <IT_PROJECT_REQUEST_TYPE>");
+        ExecutionLog.info("ENV_BASE_URL: args[0] (PPM Base URL)");
+        ExecutionLog.info("REST_USERNAME: args[1] (PPM System User - ppmsysuser)");
+        ExecutionLog.info("REST_USER_PASSWORD: args[2] (PPM System User Password)");
+        ExecutionLog.info("IA_REQUEST_ID: args[3] (IS PMO Impact Assessment No)");
+        ExecutionLog.info("PROJECT_ID: args[4] (IT Project ID linked to the IS PMO Impact Assessment Request)");
+        ExecutionLog.info("PROJECT_NAME: args[5] (IT Project Name linked to the IS PMO Impact Assessment Request)");
+        ExecutionLog.info("IT_PROJECT_REQUEST_TYPE: args[6] (IT Project Request Type Name)");
+        ExecutionLog.info("Optional: --parallel=N (Maximum number of IS PMO Features created at the same time, default 1)");
+        ExecutionLog.info("Optional: --deadline=N (Seconds the run may take, default the System Property ia.run.deadlineSeconds or 0 for no deadline)");
     }
+
 }
\ No newline at end of file
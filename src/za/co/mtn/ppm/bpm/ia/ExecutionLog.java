@@ -0,0 +1,446 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Class for the messages written to the PPM execution log, the console or the job log of the IA Job Server.
+ * Messages below the log level are not built, messages longer than the message cap are truncated, and the messages are
+ * written by a writer thread so that the REST calls of the run do not wait for the log.
+ * The HTML summary lines of the run are written at INFO level, the full Payloads and REST responses at DEBUG level.
+ * The output of the calling thread is captured when the message is logged, so the message of a job still goes to the log of that job.
+ * The log can be tuned with the following System Properties:
+ * - ia.log.level (default INFO, one of DEBUG, INFO, WARN, ERROR)
+ * - ia.log.maxMessageChars (default 2000, 0 for no cap)
+ * - ia.log.async (default true, false to write every message on the calling thread)
+ * - ia.log.queueSize (default 10000 messages, the calling thread waits when the queue is full)
+ */
+public class ExecutionLog {
+    /**
+     * Log levels
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    // Constant variables for the class
+    private static final Level LEVEL = getLevel(System.getProperty("ia.log.level"));
+    private static final int MAX_MESSAGE_CHARS = Integer.getInteger("ia.log.maxMessageChars", 2000);
+    private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("ia.log.async", "true"));
+    private static final int QUEUE_SIZE = Integer.getInteger("ia.log.queueSize", 10_000);
+    private static final long SHUTDOWN_FLUSH_MILLIS = 5_000L;
+    // Line separator of System.out println
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    // Messages waiting for the writer thread
+    private static final BlockingQueue<LogEntry> QUEUE = new ArrayBlockingQueue<>(Math.max(1, QUEUE_SIZE));
+    private static boolean writerStarted = false;
+
+    /**
+     * Private constructor, the class only has static methods
+     */
+    private ExecutionLog() {
+    }
+
+    /**
+     * Method to get the log level of the System Property, an unknown level is ignored
+     *
+     * @param level Log level name
+     * @return Log level
+     */
+    private static Level getLevel(String level) {
+        if (level != null) {
+            for (Level logLevel : Level.values()) {
+                if (logLevel.name().equals(level.trim().toUpperCase(Locale.ROOT))) {
+                    return logLevel;
+                }
+            }
+        }
+        return Level.INFO;
+    }
+
+    /**
+     * Method to check if the messages of a log level are written
+     *
+     * @param level Log level
+     * @return Boolean (True or False)
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /**
+     * Method to write out a DEBUG message
+     *
+     * @param message Message
+     */
+    public static void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    /**
+     * Method to write out a DEBUG message, the message is only built when the DEBUG level is enabled
+     *
+     * @param message Message supplier
+     */
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    /**
+     * Method to write out an INFO message
+     *
+     * @param message Message
+     */
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    /**
+     * Method to write out an INFO message, the message is only built when the INFO level is enabled
+     *
+     * @param message Message supplier
+     */
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    /**
+     * Method to write out a WARN message
+     *
+     * @param message Message
+     */
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    /**
+     * Method to write out an ERROR message
+     *
+     * @param message Message
+     */
+    public static void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    /**
+     * Method to write out a message
+     *
+     * @param level   Log level
+     * @param message Message
+     */
+    public static void log(Level level, String message) {
+        if (isEnabled(level)) {
+            write(truncate(String.valueOf(message)));
+        }
+    }
+
+    /**
+     * Method to write out a message, the message is only built when the log level is enabled
+     *
+     * @param level   Log level
+     * @param message Message supplier
+     */
+    public static void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            write(truncate(String.valueOf(message.get())));
+        }
+    }
+
+    /**
+     * Method to write out a DEBUG message with a Payload that is written into the message up to the message cap,
+     * the Payload is not written when the DEBUG level is not enabled
+     *
+     * @param label   Label written before the Payload
+     * @param payload Payload writer
+     */
+    public static void debugPayload(String label, PayloadWriter payload) {
+        if (!isEnabled(Level.DEBUG)) {
+            return;
+        }
+        MessageWriter writer = new MessageWriter(MAX_MESSAGE_CHARS);
+        writer.write(label);
+        try {
+            payload.writeTo(writer);
+        } catch (IOException e) {
+            writer.write(" (" + e.getMessage() + ")");
+        }
+        write(writer.toString());
+    }
+
+    /**
+     * Method to truncate a message to the message cap
+     *
+     * @param message Message
+     * @return Message, truncated with the number of characters left out
+     */
+    private static String truncate(String message) {
+        if (MAX_MESSAGE_CHARS <= 0 || message.length() <= MAX_MESSAGE_CHARS) {
+            return message;
+        }
+        return message.substring(0, MAX_MESSAGE_CHARS) + getTruncatedSuffix(message.length() - MAX_MESSAGE_CHARS);
+    }
+
+    /**
+     * Method to get the text added to a truncated message
+     *
+     * @param truncatedChars Number of characters left out
+     * @return Truncated message suffix
+     */
+    private static String getTruncatedSuffix(long truncatedChars) {
+        return " ... (" + truncatedChars + " more characters)";
+    }
+
+    /**
+     * Method to write a message line to the output of the calling thread, on the writer thread if the log is asynchronous
+     *
+     * @param message Message
+     */
+    private static void write(String message) {
+        // The job output of the calling thread, null for the console
+        OutputStream output = JobOutputRouter.getJobOutput();
+        if (!ASYNC) {
+            writeLine(output, message);
+            return;
+        }
+        startWriter();
+        try {
+            QUEUE.put(new LogEntry(output, message, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeLine(output, message);
+        }
+    }
+
+    /**
+     * Method to wait until the writer thread wrote all the messages logged before the call,
+     * called before the log of a run is read and before output is written without the log
+     */
+    public static void flush() {
+        if (!ASYNC || !isWriterStarted()) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        try {
+            QUEUE.put(new LogEntry(null, null, written));
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method to check if the writer thread was started
+     *
+     * @return Boolean (True or False)
+     */
+    private static synchronized boolean isWriterStarted() {
+        return writerStarted;
+    }
+
+    /**
+     * Method to start the writer thread and the shutdown flush with the first message
+     */
+    private static synchronized void startWriter() {
+        if (writerStarted) {
+            return;
+        }
+        Thread writer = new Thread(ExecutionLog::runWriter, "ia-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Write the messages still queued when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            CountDownLatch written = new CountDownLatch(1);
+            if (QUEUE.offer(new LogEntry(null, null, written))) {
+                try {
+                    written.await(SHUTDOWN_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "ia-log-shutdown"));
+        writerStarted = true;
+    }
+
+    /**
+     * Method of the writer thread, writes the queued messages and flushes every output once per batch of messages
+     */
+    private static void runWriter() {
+        // The writer thread is started by the first thread that logs, which can be a job thread
+        JobOutputRouter.clear();
+        ArrayList<LogEntry> batch = new ArrayList<>();
+        LinkedHashSet<OutputStream> writtenOutputs = new LinkedHashSet<>();
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch);
+            for (LogEntry entry : batch) {
+                if (entry.flushed != null) {
+                    flushOutputs(writtenOutputs);
+                    entry.flushed.countDown();
+                } else {
+                    writtenOutputs.add(entry.output == null ? System.out : entry.output);
+                    try {
+                        writeLine(entry.output, entry.message, false);
+                    } catch (RuntimeException e) {
+                        // Keep the writer thread running for the next messages and the flush markers
+                        System.err.println(entry.message);
+                    }
+                }
+            }
+            flushOutputs(writtenOutputs);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Method to flush the outputs written since the last flush
+     *
+     * @param writtenOutputs Outputs written since the last flush, cleared by the method
+     */
+    private static void flushOutputs(LinkedHashSet<OutputStream> writtenOutputs) {
+        for (OutputStream output : writtenOutputs) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                // The next message is written to the output again
+            }
+        }
+        writtenOutputs.clear();
+    }
+
+    /**
+     * Method to write a message line and flush the output
+     *
+     * @param output  Job output, null for the console
+     * @param message Message
+     */
+    private static void writeLine(OutputStream output, String message) {
+        writeLine(output, message, true);
+    }
+
+    /**
+     * Method to write a message line
+     *
+     * @param output  Job output, null for the console
+     * @param message Message
+     * @param flush   True to flush the output after the line
+     */
+    private static void writeLine(OutputStream output, String message, boolean flush) {
+        if (output == null) {
+            PrintStream console = System.out;
+            console.print(message + LINE_SEPARATOR);
+            if (flush) {
+                console.flush();
+            }
+            return;
+        }
+        try {
+            // The job log has the console encoding of System.out
+            output.write((message + LINE_SEPARATOR).getBytes(Charset.defaultCharset()));
+            if (flush) {
+                output.flush();
+            }
+        } catch (IOException e) {
+            System.err.println(message);
+        }
+    }
+
+    /**
+     * Interface for a Payload that is written into a log message
+     */
+    public interface PayloadWriter {
+        /**
+         * Method to write the Payload text
+         *
+         * @param writer Writer for the Payload text
+         * @throws IOException IO Exceptions are thrown up to the calling method
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Class for a log message that keeps the characters up to the message cap and only counts the rest
+     */
+    private static class MessageWriter extends Writer {
+        private final StringBuilder message = new StringBuilder();
+        private final int maxChars;
+        private long truncatedChars;
+
+        /**
+         * Constructor method for the message writer
+         *
+         * @param maxChars Message cap, 0 for no cap
+         */
+        private MessageWriter(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(String str) {
+            write(str, 0, str.length());
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            int kept = maxChars <= 0 ? len : Math.max(0, Math.min(len, maxChars - message.length()));
+            message.append(str, off, off + kept);
+            truncatedChars += len - kept;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            int kept = maxChars <= 0 ? len : Math.max(0, Math.min(len, maxChars - message.length()));
+            message.append(cbuf, off, kept);
+            truncatedChars += len - kept;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return truncatedChars == 0 ? message.toString() : message + getTruncatedSuffix(truncatedChars);
+        }
+    }
+
+    /**
+     * Class for a queued message, or a flush marker when the flushed latch is set
+     */
+    private static class LogEntry {
+        private final OutputStream output;
+        private final String message;
+        private final CountDownLatch flushed;
+
+        /**
+         * Constructor method for a queued message
+         *
+         * @param output  Job output of the logging thread, null for the console
+         * @param message Message
+         * @param flushed Latch counted down when the messages before it are written, null for a message
+         */
+        private LogEntry(OutputStream output, String message, CountDownLatch flushed) {
+            this.output = output;
+            this.message = message;
+            this.flushed = flushed;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * Class for the write-ahead journal of the IS PMO Feature creation of an IS PMO Impact Assessment, so that a failed run is
+ * resumed by the next run without creating duplicate IS PMO Features.
+ * The journal is an append-only file with one JSON record per line, every record is forced to disk before the run goes on:
+ * - plan: the IS Domains to create and the IT Project, EPMO Project and Milestone data of the Features
+ * - creating: an IS Domain before its POST Request is sent
+ * - created: an IS Domain and its new IS PMO Feature Request ID after the POST Request succeeded
+ * - failed: an IS Domain whose POST Request was not sent or was rejected (4xx), so no IS PMO Feature was created
+ * - referenced: the IS PMO Feature Request IDs referenced from the IS PMO Impact Assessment
+ * The next run replays the journal, references the created Features that were not referenced yet and only creates the planned
+ * IS Domains without a created Feature, with the data of the plan and without reading it from PPM again.
+ * An IS Domain with a creating record but without a created or failed record may have a Feature in PPM, it is never created
+ * again automatically: the Feature of the Domain is looked up in PPM first.
+ * The journal file is deleted when all the planned IS Domains are created and referenced.
+ * The journal can be tuned with the following System Property:
+ * - ia.journal.dir (default java.io.tmpdir, empty for no journal file)
+ */
+public class FeatureCreationJournal {
+    // Constant variables for the class
+    private static final String JOURNAL_DIR = System.getProperty("ia.journal.dir", System.getProperty("java.io.tmpdir"));
+    private static final String JOURNAL_FILE_PREFIX = "ia-feature-journal-";
+    // Journal record types
+    private static final String PLAN = "plan";
+    private static final String CREATING = "creating";
+    private static final String CREATED = "created";
+    private static final String FAILED = "failed";
+    private static final String REFERENCED = "referenced";
+    // Class Variables set by the constructor
+    private final File journalFile;
+    // Journal state, replayed from the journal file and updated with every record
+    private final ArrayList<String> plannedDomains = new ArrayList<>();
+    private final HashMap<String, String> itProjectData = new HashMap<>();
+    private final HashMap<String, String> epmoProjectData = new HashMap<>();
+    private String milestoneHtml = "";
+    private boolean planned = false;
+    private final LinkedHashSet<String> creatingDomains = new LinkedHashSet<>();
+    // IS Domain as Key and the new IS PMO Feature Request ID as Value, in creation order
+    private final LinkedHashMap<String, String> createdFeatures = new LinkedHashMap<>();
+    private final LinkedHashSet<String> referencedRequestIds = new LinkedHashSet<>();
+    private int replayedRecords = 0;
+    // Journal file channel, opened with the first record of the run
+    private FileChannel channel;
+    private boolean writeFailed = false;
+
+    /**
+     * Constructor method for the journal of an IS PMO Impact Assessment
+     *
+     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
+     * @param iaRequestId IS PMO Impact Assessment Request ID
+     */
+    private FeatureCreationJournal(String ppmBaseUrl, String iaRequestId) {
+        this.journalFile = JOURNAL_DIR == null || JOURNAL_DIR.trim().isEmpty() ? null
+                : new File(JOURNAL_DIR, JOURNAL_FILE_PREFIX + Integer.toHexString(ppmBaseUrl.hashCode()) + "-" + iaRequestId.replaceAll("[^A-Za-z0-9_-]", "_") + ".jsonl");
+    }
+
+    /**
+     * Method to open the journal of an IS PMO Impact Assessment and replay the records of a failed run
+     *
+     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
+     * @param iaRequestId IS PMO Impact Assessment Request ID
+     * @return Feature creation journal
+     */
+    protected static FeatureCreationJournal open(String ppmBaseUrl, String iaRequestId) {
+        FeatureCreationJournal journal = new FeatureCreationJournal(ppmBaseUrl, iaRequestId);
+        journal.replay();
+        return journal;
+    }
+
+    /**
+     * Method to replay the records of the journal file. A record cut off by a failed write is the last record of the file
+     * and is ignored, the run it belongs to did not go on after it.
+     */
+    private void replay() {
+        if (journalFile == null || !journalFile.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    apply(new JSONObject(line));
+                    replayedRecords++;
+                } catch (JSONException e) {
+                    ExecutionLog.warn("Feature creation journal " + journalFile + " record ignored: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            ExecutionLog.warn("Feature creation journal " + journalFile + " not replayed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to apply a journal record to the journal state
+     *
+     * @param record Journal record
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    private void apply(JSONObject record) throws JSONException {
+        switch (record.getString("type")) {
+            case PLAN:
+                planned = true;
+                plannedDomains.clear();
+                plannedDomains.addAll(toList(record.getJSONArray("domains")));
+                itProjectData.clear();
+                itProjectData.putAll(toMap(record.getJSONObject("itProject")));
+                epmoProjectData.clear();
+                epmoProjectData.putAll(toMap(record.getJSONObject("epmoProject")));
+                milestoneHtml = record.optString("milestoneHtml", "");
+                break;
+            case CREATING:
+                creatingDomains.add(record.getString("domain"));
+                break;
+            case CREATED:
+                creatingDomains.remove(record.getString("domain"));
+                createdFeatures.put(record.getString("domain"), record.getString("requestId"));
+                break;
+            case FAILED:
+                creatingDomains.remove(record.getString("domain"));
+                break;
+            case REFERENCED:
+                referencedRequestIds.addAll(toList(record.getJSONArray("requestIds")));
+                break;
+            default:
+                throw new JSONException("Unknown journal record type: " + record.getString("type"));
+        }
+    }
+
+    /**
+     * Method to write a record to the journal file and force it to disk before the run goes on.
+     * When the journal file cannot be written the run goes on without it, and only the state of this run is kept.
+     *
+     * @param record Journal record
+     */
+    private void append(JSONObject record) {
+        apply(record);
+        if (journalFile == null || writeFailed) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+                channel = file.getChannel();
+                channel.position(channel.size());
+                // End a record cut off by a failed write, so the next record starts on its own line
+                ByteBuffer lastByte = ByteBuffer.allocate(1);
+                if (channel.size() > 0 && channel.read(lastByte, channel.size() - 1) == 1 && lastByte.get(0) != '\n') {
+                    channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap((record.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            writeFailed = true;
+            ExecutionLog.warn("Feature creation journal " + journalFile + " not written, a failed run cannot be resumed: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Method to check if the journal has the plan of a failed run
+     *
+     * @return Boolean (True or False)
+     */
+    protected synchronized boolean isReplayed() {
+        return planned && replayedRecords > 0;
+    }
+
+    /**
+     * Method to record the IS Domains to create and the data of the Features before the first Feature is created
+     *
+     * @param domains              IS Domains that require a new IS PMO Feature
+     * @param itProject            IS PMO Impact Assessment linked IT Project Data
+     * @param epmoProject          IS PMO Impact Assessment linked IT Project's EPMO Project Data
+     * @param projectMilestoneHtml IT Project Milestones HTML of the Features
+     */
+    protected synchronized void recordPlan(ArrayList<String> domains, HashMap<String, String> itProject, HashMap<String, String> epmoProject, String projectMilestoneHtml) {
+        JSONObject record = new JSONObject();
+        record.put("type", PLAN);
+        record.put("domains", new JSONArray(domains));
+        record.put("itProject", new JSONObject(itProject));
+        record.put("epmoProject", new JSONObject(epmoProject));
+        record.put("milestoneHtml", projectMilestoneHtml == null ? "" : projectMilestoneHtml);
+        append(record);
+    }
+
+    /**
+     * Method to record an IS Domain before the POST Request of its IS PMO Feature is sent
+     *
+     * @param domain IS Domain
+     */
+    protected synchronized void recordCreating(String domain) {
+        JSONObject record = new JSONObject();
+        record.put("type", CREATING);
+        record.put("domain", domain);
+        append(record);
+    }
+
+    /**
+     * Method to record the new IS PMO Feature of an IS Domain as soon as the POST Request succeeded
+     *
+     * @param domain       IS Domain
+     * @param newRequestId New IS PMO Feature Request ID
+     */
+    protected synchronized void recordCreated(String domain, String newRequestId) {
+        JSONObject record = new JSONObject();
+        record.put("type", CREATED);
+        record.put("domain", domain);
+        record.put("requestId", newRequestId);
+        append(record);
+    }
+
+    /**
+     * Method to record an IS Domain whose POST Request was not sent or was rejected, so the Domain is safe to create again
+     *
+     * @param domain       IS Domain
+     * @param errorMessage Error of the POST Request
+     */
+    protected synchronized void recordFailed(String domain, String errorMessage) {
+        JSONObject record = new JSONObject();
+        record.put("type", FAILED);
+        record.put("domain", domain);
+        record.put("error", errorMessage);
+        append(record);
+    }
+
+    /**
+     * Method to record the IS PMO Features referenced from the IS PMO Impact Assessment
+     *
+     * @param requestIds IS PMO Feature Request IDs
+     */
+    protected synchronized void recordReferenced(ArrayList<String> requestIds) {
+        JSONObject record = new JSONObject();
+        record.put("type", REFERENCED);
+        record.put("requestIds", new JSONArray(requestIds));
+        append(record);
+    }
+
+    /**
+     * Method to get the planned IS Domains that are safe to create, without a created IS PMO Feature and without a POST Request
+     * that may have created one
+     *
+     * @return IS Domains in plan order
+     */
+    protected synchronized ArrayList<String> getRemainingDomains() {
+        ArrayList<String> remainingDomains = new ArrayList<>(plannedDomains);
+        remainingDomains.removeAll(createdFeatures.keySet());
+        remainingDomains.removeAll(creatingDomains);
+        return remainingDomains;
+    }
+
+    /**
+     * Method to get the IS Domains where a run stopped between the POST Request and the created or failed record. The IS PMO
+     * Feature of such a Domain may exist in PPM without a reference from the IS PMO Impact Assessment.
+     *
+     * @return IS Domains without a created or failed record
+     */
+    protected synchronized ArrayList<String> getInterruptedDomains() {
+        return new ArrayList<>(creatingDomains);
+    }
+
+    /**
+     * Method to get the created IS PMO Features of all the runs of the journal
+     *
+     * @return IS Domain as Key and the IS PMO Feature Request ID as Value, in creation order
+     */
+    protected synchronized LinkedHashMap<String, String> getCreatedFeatures() {
+        return new LinkedHashMap<>(createdFeatures);
+    }
+
+    /**
+     * Method to get the created IS PMO Features without a reference from the IS PMO Impact Assessment
+     *
+     * @return IS PMO Feature Request IDs in creation order
+     */
+    protected synchronized ArrayList<String> getUnreferencedRequestIds() {
+        ArrayList<String> unreferencedRequestIds = new ArrayList<>();
+        for (String requestId : createdFeatures.values()) {
+            if (!referencedRequestIds.contains(requestId) && !unreferencedRequestIds.contains(requestId)) {
+                unreferencedRequestIds.add(requestId);
+            }
+        }
+        return unreferencedRequestIds;
+    }
+
+    /**
+     * Get method for the journaled IT Project Data
+     *
+     * @return IT Project Data of the plan
+     */
+    protected synchronized HashMap<String, String> getItProjectData() {
+        return new HashMap<>(itProjectData);
+    }
+
+    /**
+     * Get method for the journaled EPMO Project Data
+     *
+     * @return EPMO Project Data of the plan
+     */
+    protected synchronized HashMap<String, String> getEpmoProjectData() {
+        return new HashMap<>(epmoProjectData);
+    }
+
+    /**
+     * Get method for the journaled IT Project Milestones HTML
+     *
+     * @return Milestones HTML of the plan
+     */
+    protected synchronized String getMilestoneHtml() {
+        return milestoneHtml;
+    }
+
+    /**
+     * Get method for the journal file
+     *
+     * @return Journal file, null without a journal file
+     */
+    protected File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Method to end the journal after all the planned IS Domains are created and referenced, the journal file is deleted
+     */
+    protected synchronized void complete() {
+        close();
+        if (journalFile != null && journalFile.isFile() && !journalFile.delete()) {
+            ExecutionLog.warn("Feature creation journal " + journalFile + " not deleted");
+        }
+    }
+
+    /**
+     * Method to close the journal file, the journal file is kept for the next run
+     */
+    protected synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Every record was forced to disk when it was written
+        }
+        channel = null;
+    }
+
+    /**
+     * Method to get the values of a JSON Array
+     *
+     * @param jsonArray JSON Array with String values
+     * @return String Array list
+     */
+    private static ArrayList<String> toList(JSONArray jsonArray) {
+        ArrayList<String> values = new ArrayList<>();
+        for (int i = 0; i < jsonArray.length(); i++) {
+            values.add(jsonArray.getString(i));
+        }
+        return values;
+    }
+
+    /**
+     * Method to get the fields of a JSON Object
+     *
+     * @param jsonObject JSON Object with String values
+     * @return Field name as Key and the field value as Value, a null value is kept as null
+     */
+    private static HashMap<String, String> toMap(JSONObject jsonObject) {
+        HashMap<String, String> values = new HashMap<>();
+        Iterator<String> keys = jsonObject.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            values.put(key, jsonObject.isNull(key) ? null : jsonObject.getString(key));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,71 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Class for storing the outcome of creating the IS PMO Feature for a single IS Domain
+ */
+public class FeatureCreationResult {
+    private final String isDomain;
+    private final String newRequestId;
+    private final String errorMessage;
+    private final long elapsedMillis;
+
+    /**
+     * Constructor method for the class storing the Feature creation outcome
+     *
+     * @param isDomain      IS Domain of the IS PMO Feature
+     * @param newRequestId  New IS PMO Feature Request ID, null if the creation failed
+     * @param errorMessage  Error message if the creation failed, otherwise null
+     * @param elapsedMillis Time taken for the Feature creation in milliseconds
+     */
+    protected FeatureCreationResult(String isDomain, String newRequestId, String errorMessage, long elapsedMillis) {
+        this.isDomain = isDomain;
+        this.newRequestId = newRequestId;
+        this.errorMessage = errorMessage;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Get method for the IS Domain
+     *
+     * @return IS Domain string value
+     */
+    protected String getIsDomain() {
+        return isDomain;
+    }
+
+    /**
+     * Get method for the new IS PMO Feature Request ID
+     *
+     * @return Request ID string value or null
+     */
+    protected String getNewRequestId() {
+        return newRequestId;
+    }
+
+    /**
+     * Get method for the creation outcome
+     *
+     * @return Boolean (True or False)
+     */
+    protected boolean isSuccessful() {
+        return newRequestId != null;
+    }
+
+    /**
+     * Get method for the error message
+     *
+     * @return Error message string value or null
+     */
+    protected String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Get method for the creation time
+     *
+     * @return Elapsed time in milliseconds
+     */
+    protected long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
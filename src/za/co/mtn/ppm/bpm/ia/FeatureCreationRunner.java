@@ -0,0 +1,163 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import za.co.mtn.ppm.bpm.rest.CallNotSentException;
+import za.co.mtn.ppm.bpm.rest.HttpStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Class that creates the IS PMO Feature for each IS Domain of the IS PMO Impact Assessment.
+ * The Features are created one after another, or in parallel on a bounded worker pool when the maximum parallelism is more than 1.
+ * The outcome of every Domain is collected in Domain order so that one failing creation does not stop the others.
+ * Every new Feature is recorded in the Feature creation journal as soon as it is created, so that a failed run is resumed without duplicates.
+ * A POST Request that was not sent or was rejected with a 4xx code is recorded as failed, so that the Domain is created again by the next run.
+ */
+public class FeatureCreationRunner {
+    // Class Variables set by the constructor
+    private final ImpactAssessmentProcessor iaProcessor;
+    private final String restUrl;
+    private final String iaRequestId;
+    private final String iaProjectName;
+    private final String iaProjectRequestType;
+    private final HashMap<String, String> itProjectData;
+    private final HashMap<String, String> epmoPrjData;
+    private final String itProjectMilestoneHtml;
+    private final FeatureCreationJournal journal;
+    private final int maxParallelism;
+
+    /**
+     * Constructor method for the Feature creation runner
+     *
+     * @param iaProcessor            Impact Assessment Processor with the PPM REST Gateway
+     * @param restUrl                REST API URL for the POST Request
+     * @param iaRequestId            IS PMO Impact Assessment Request ID
+     * @param iaProjectName          IS PMO Impact Assessment linked IT Project
+     * @param iaProjectRequestType   IS PMO IT Project Request Type
+     * @param itProjectData          IS PMO Impact Assessment linked IT Project Data
+     * @param epmoPrjData            IS PMO Impact Assessment linked IT Project's EPMO Project Data
+     * @param itProjectMilestoneHtml IS PMO Impact Assessment linked IT Project Milestones HTML
+     * @param journal                Feature creation journal of the IS PMO Impact Assessment
+     * @param maxParallelism         Maximum number of Features created at the same time
+     */
+    protected FeatureCreationRunner(ImpactAssessmentProcessor iaProcessor, String restUrl, String iaRequestId, String iaProjectName, String iaProjectRequestType,
+                                    HashMap<String, String> itProjectData, HashMap<String, String> epmoPrjData, String itProjectMilestoneHtml, FeatureCreationJournal journal, int maxParallelism) {
+        this.iaProcessor = iaProcessor;
+        this.restUrl = restUrl;
+        this.iaRequestId = iaRequestId;
+        this.iaProjectName = iaProjectName;
+        this.iaProjectRequestType = iaProjectRequestType;
+        this.itProjectData = itProjectData;
+        this.epmoPrjData = epmoPrjData;
+        this.itProjectMilestoneHtml = itProjectMilestoneHtml;
+        this.journal = journal;
+        this.maxParallelism = Math.max(1, maxParallelism);
+    }
+
+    /**
+     * Method to create the IS PMO Features for all the Domains and collect the outcome per Domain
+     *
+     * @param domainCreationList IS Domains that require a new IS PMO Feature
+     * @return Feature creation results in the same order as the Domains
+     */
+    protected ArrayList<FeatureCreationResult> createFeatures(ArrayList<String> domainCreationList) {
+        ArrayList<FeatureCreationResult> results = new ArrayList<>();
+        if (maxParallelism == 1 || domainCreationList.size() <= 1) {
+            // Create the Features one after another
+            for (int i = 0; i < domainCreationList.size(); i++) {
+                results.add(runFeatureCreation(i, domainCreationList.get(i)));
+            }
+            return results;
+        }
+        ExecutionLog.info("Creating " + domainCreationList.size() + " IS PMO Features with maximum parallelism: " + maxParallelism);
+        ExecutorService workerPool = WorkerPools.newFixedPool("ia-feature-create", Math.min(maxParallelism, domainCreationList.size()));
+        try {
+            // Submit every Domain creation to the worker pool
+            ArrayList<Future<FeatureCreationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < domainCreationList.size(); i++) {
+                final int domainIndex = i;
+                futures.add(workerPool.submit(() -> runFeatureCreation(domainIndex, domainCreationList.get(domainIndex))));
+            }
+            // Collect the results in Domain order
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new FeatureCreationResult(domainCreationList.get(i), null, String.valueOf(e.getCause()), 0));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new FeatureCreationResult(domainCreationList.get(i), null, "Interrupted", 0));
+                }
+            }
+        } finally {
+            workerPool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Method to create the IS PMO Feature for a single Domain and capture the outcome
+     *
+     * @param domainIndex Index of the Domain in the creation list
+     * @param isDomain    IS Domain for the IS PMO Feature
+     * @return Feature creation result
+     */
+    private FeatureCreationResult runFeatureCreation(int domainIndex, String isDomain) {
+        final long startTime = System.currentTimeMillis();
+        ExecutionLog.info("Domain List " + domainIndex + ": " + isDomain);
+        try {
+            journal.recordCreating(isDomain);
+            String newRequestId = iaProcessor.createIspmoFeatureRequest(restUrl, iaRequestId, iaProjectName, isDomain, iaProjectRequestType, itProjectData, epmoPrjData, itProjectMilestoneHtml);
+            journal.recordCreated(isDomain, newRequestId);
+            ExecutionLog.info("Created IS PMO Feature Number:" + newRequestId);
+            return new FeatureCreationResult(isDomain, newRequestId, null, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            ExecutionLog.error("IS Domain: " + isDomain + " IS PMO Feature creation failed: " + e);
+            // Only a POST Request that was not sent or was rejected is a definite failure, any other failure may have created the Feature
+            if (e instanceof CallNotSentException || (e instanceof HttpStatusException && ((HttpStatusException) e).isClientError())) {
+                journal.recordFailed(isDomain, e.toString());
+            }
+            return new FeatureCreationResult(isDomain, null, e.toString(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Method to get the new IS PMO Feature Request IDs in Domain order
+     *
+     * @param results Feature creation results
+     * @return New Request IDs of the successful creations
+     */
+    protected static ArrayList<String> getNewRequestIds(ArrayList<FeatureCreationResult> results) {
+        ArrayList<String> newRequestIds = new ArrayList<>();
+        for (FeatureCreationResult result : results) {
+            if (result.isSuccessful() && !newRequestIds.contains(result.getNewRequestId())) {
+                newRequestIds.add(result.getNewRequestId());
+            }
+        }
+        return newRequestIds;
+    }
+
+    /**
+     * Method to write out the summary of the Feature creation results in Domain order
+     *
+     * @param results Feature creation results
+     * @return Number of failed Feature creations
+     */
+    protected static int logSummary(ArrayList<FeatureCreationResult> results) {
+        int failedCount = 0;
+        ExecutionLog.info("<<-- IS PMO Feature Creation Summary -->>");
+        for (FeatureCreationResult result : results) {
+            if (result.isSuccessful()) {
+                ExecutionLog.info("IS Domain: " + result.getIsDomain() + ": Created IS PMO Feature Number " + result.getNewRequestId() + " in " + result.getElapsedMillis() + " ms");
+            } else {
+                failedCount++;
+                ExecutionLog.info("IS Domain: " + result.getIsDomain() + ": FAILED - " + result.getErrorMessage());
+            }
+        }
+        ExecutionLog.info("IS PMO Features Created: " + (results.size() - failedCount) + ", Domains Failed: " + failedCount);
+        return failedCount;
+    }
+}
@@ -0,0 +1,288 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that keeps a content hash of the Impacted System fields last sent to every IS PMO Feature and IS PMO Testing Feature,
+ * so that a Feature PUT Request is only sent when the fields changed since the last successful update.
+ * A second store keeps the hash of the Impacted Systems last sent to every Octane Feature with an OO flow run, and a third store
+ * keeps the OO Execution ID of the OO flows that were still running at the end of a run, so the next run can confirm them.
+ * The hashes are kept per PPM or OO environment in a file, so they are kept between runs. The file is read again when another
+ * JVM on the host changed it, so that a long running JVM never skips an update because of a hash that another JVM replaced.
+ * The store can be tuned with the following System Property:
+ * - ia.fingerprint.storeDir (default java.io.tmpdir, empty for no store file)
+ */
+public class FeatureFingerprintStore {
+    // Constant variables for the class
+    private static final String STORE_DIR = System.getProperty("ia.fingerprint.storeDir", System.getProperty("java.io.tmpdir"));
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String FEATURE_STORE = "ia-feature-fingerprints";
+    private static final String OCTANE_FEATURE_STORE = "ia-octane-fingerprints";
+    private static final String OO_PENDING_STORE = "ia-oo-pending-executions";
+    // Fingerprint store of every store name and environment
+    private static final ConcurrentHashMap<String, FeatureFingerprintStore> STORES = new ConcurrentHashMap<>();
+    // Class Variables set by the constructor
+    private final File storeFile;
+    // Feature Request ID or Octane Feature URL as Key and the hash of the last sent fields as Value
+    private final HashMap<String, String> fingerprints = new HashMap<>();
+    // Fingerprints recorded since the store file was last written
+    private final HashMap<String, String> recordedFingerprints = new HashMap<>();
+    private boolean storeFileRead = false;
+    private long storeFileModified = 0;
+    private long storeFileLength = 0;
+
+    /**
+     * Constructor method for the fingerprint store of an environment
+     *
+     * @param storeKey Store name and Base URL of the environment
+     */
+    private FeatureFingerprintStore(String storeKey) {
+        this.storeFile = STORE_DIR == null || STORE_DIR.trim().isEmpty() ? null
+                : new File(STORE_DIR, storeKey.substring(0, storeKey.indexOf(' ')) + "-" + Integer.toHexString(storeKey.hashCode()) + ".json");
+    }
+
+    /**
+     * Method to get the store of the fields sent to the IS PMO Features of a PPM environment
+     *
+     * @param ppmBaseUrl PPM Base URL for identifying the PPM environment
+     * @return Fingerprint store keyed by Feature Request ID, shared by all the runs of the JVM
+     */
+    protected static FeatureFingerprintStore forEnvironment(String ppmBaseUrl) {
+        return STORES.computeIfAbsent(FEATURE_STORE + " " + ppmBaseUrl, FeatureFingerprintStore::new);
+    }
+
+    /**
+     * Method to get the store of the Impacted Systems sent to the Octane Features with the OO flow runs of an OO environment
+     *
+     * @param ooBaseUrl OO Base URL for identifying the OO environment
+     * @return Fingerprint store keyed by Octane Feature URL, shared by all the runs of the JVM
+     */
+    protected static FeatureFingerprintStore forOctaneFeatures(String ooBaseUrl) {
+        return STORES.computeIfAbsent(OCTANE_FEATURE_STORE + " " + ooBaseUrl, FeatureFingerprintStore::new);
+    }
+
+    /**
+     * Method to get the store of the OO flow executions that were still running at the end of a run of an OO environment
+     *
+     * @param ooBaseUrl OO Base URL for identifying the OO environment
+     * @return Store with the OO Execution ID keyed by Octane Feature URL, shared by all the runs of the JVM
+     */
+    protected static FeatureFingerprintStore forOoPendingExecutions(String ooBaseUrl) {
+        return STORES.computeIfAbsent(OO_PENDING_STORE + " " + ooBaseUrl, FeatureFingerprintStore::new);
+    }
+
+    /**
+     * Method to calculate the fingerprint of the field values of a Feature PUT Request
+     *
+     * @param fieldValues Field values in payload order, null for an empty field
+     * @return SHA-256 hash as hex string
+     */
+    protected static String fingerprint(String... fieldValues) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String fieldValue : fieldValues) {
+                // Separate the values so that moving text between fields changes the hash
+                if (fieldValue == null) {
+                    digest.update((byte) 0);
+                } else {
+                    digest.update((byte) 1);
+                    digest.update(fieldValue.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            }
+            byte[] hash = digest.digest();
+            char[] hex = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Method to check if the fields were already sent to the Feature with the last successful update
+     *
+     * @param featureKey  IS PMO Feature Request ID or Octane Feature URL
+     * @param fingerprint Fingerprint of the field values
+     * @return Boolean (True or False)
+     */
+    protected synchronized boolean isUnchanged(String featureKey, String fingerprint) {
+        readStoreFile();
+        return fingerprint.equals(fingerprints.get(featureKey));
+    }
+
+    /**
+     * Method to get the value recorded for a Feature
+     *
+     * @param featureKey IS PMO Feature Request ID or Octane Feature URL
+     * @return Fingerprint or OO Execution ID, null if there is none
+     */
+    protected synchronized String get(String featureKey) {
+        readStoreFile();
+        String value = fingerprints.get(featureKey);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Method to get all the values of the store
+     *
+     * @return Feature Request ID or Octane Feature URL as Key and the fingerprint or OO Execution ID as Value
+     */
+    protected synchronized HashMap<String, String> getEntries() {
+        readStoreFile();
+        HashMap<String, String> entries = new HashMap<>();
+        for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Method to record the fingerprint of the fields sent with a successful update
+     *
+     * @param featureKey  IS PMO Feature Request ID or Octane Feature URL
+     * @param fingerprint Fingerprint of the field values
+     */
+    protected synchronized void record(String featureKey, String fingerprint) {
+        readStoreFile();
+        fingerprints.put(featureKey, fingerprint);
+        recordedFingerprints.put(featureKey, fingerprint);
+    }
+
+    /**
+     * Method to remove the fingerprint of a Feature, so the next run sends the fields again
+     *
+     * @param featureKey IS PMO Feature Request ID or Octane Feature URL
+     */
+    protected synchronized void forget(String featureKey) {
+        readStoreFile();
+        fingerprints.remove(featureKey);
+        // An empty fingerprint never matches, it replaces the fingerprint in the store file
+        recordedFingerprints.put(featureKey, "");
+    }
+
+    /**
+     * Method to write the recorded fingerprints to the store file. The fingerprints of other JVMs in the file are kept,
+     * and the file is replaced in one move so other JVMs never read half a file. The read, merge and move are done under a
+     * lock on the ".lock" file next to the store file, so that JVMs saving at the same time do not lose each other's
+     * fingerprints. A failed write only means that the next run sends the updates again.
+     */
+    protected synchronized void save() {
+        if (storeFile == null || recordedFingerprints.isEmpty()) {
+            return;
+        }
+        File tempFile = null;
+        // The lock is taken without the interrupt flag, an interrupted lock would fail the save
+        final boolean interrupted = Thread.interrupted();
+        try (FileChannel lockChannel = new RandomAccessFile(storeFile.getPath() + ".lock", "rw").getChannel()) {
+            // The lock is released when the lock channel is closed
+            lockChannel.lock();
+            JSONObject json = readStoreJson();
+            for (Map.Entry<String, String> recorded : recordedFingerprints.entrySet()) {
+                json.put(recorded.getKey(), recorded.getValue());
+            }
+            tempFile = File.createTempFile(storeFile.getName(), ".tmp", storeFile.getAbsoluteFile().getParentFile());
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                writer.write(json.toString());
+            }
+            Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            recordedFingerprints.clear();
+            // The written file has the fingerprints of all the JVMs
+            setFingerprints(json);
+            storeFileModified = storeFile.lastModified();
+            storeFileLength = storeFile.length();
+        } catch (IOException | JSONException e) {
+            ExecutionLog.warn("Feature fingerprint store " + storeFile + " not written: " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Method to read the fingerprints of the store file when it was changed since it was last read, e.g. by another JVM on the host.
+     * A missing or unreadable file is ignored.
+     */
+    private void readStoreFile() {
+        if (storeFile == null) {
+            return;
+        }
+        final long modified = storeFile.lastModified();
+        final long length = storeFile.length();
+        if (storeFileRead && modified == storeFileModified && length == storeFileLength) {
+            return;
+        }
+        storeFileRead = true;
+        storeFileModified = modified;
+        storeFileLength = length;
+        try {
+            setFingerprints(readStoreJson());
+        } catch (IOException | JSONException e) {
+            ExecutionLog.warn("Feature fingerprint store " + storeFile + " ignored: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to set the fingerprints from the JSON Object of the store file, the fingerprints recorded since the store file
+     * was last written are kept
+     *
+     * @param json JSON Object with the Feature Request ID or Octane Feature URL as Key
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    private void setFingerprints(JSONObject json) throws JSONException {
+        fingerprints.clear();
+        Iterator<String> featureKeys = json.keys();
+        while (featureKeys.hasNext()) {
+            String featureKey = featureKeys.next();
+            fingerprints.put(featureKey, json.getString(featureKey));
+        }
+        fingerprints.putAll(recordedFingerprints);
+    }
+
+    /**
+     * Method to read the JSON Object of the store file
+     *
+     * @return JSON Object with the Feature Request ID or Octane Feature URL as Key, empty if there is no store file
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    private JSONObject readStoreJson() throws IOException, JSONException {
+        if (storeFile == null || !storeFile.isFile()) {
+            return new JSONObject();
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(storeFile), StandardCharsets.UTF_8)) {
+            return new JSONObject(new JSONTokener(reader));
+        }
+    }
+}
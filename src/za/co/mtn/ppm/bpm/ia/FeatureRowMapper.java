@@ -0,0 +1,34 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Class for mapping the linked IS PMO Features and IS PMO Testing Features query rows into FeatureValues
+ */
+public class FeatureRowMapper implements SqlRowMapper<FeatureValues> {
+    // Column positions of the query result
+    private int requestIdColumn;
+    private int isDomainColumn;
+    private int octaneFeatureUrlColumn;
+
+    /**
+     * Method to resolve the column positions of the linked Features query result
+     *
+     * @param cursor Cursor before the first row
+     */
+    @Override
+    public void resolveColumns(SqlRowCursor cursor) {
+        requestIdColumn = cursor.getColumnIndex("REQUEST_ID", 0);
+        isDomainColumn = cursor.getColumnIndex("IS_DOMAIN", 1);
+        octaneFeatureUrlColumn = cursor.getColumnIndex("AGILE_ENTITY_URL", 2);
+    }
+
+    /**
+     * Method to map a linked Feature row
+     *
+     * @param cursor Cursor on the row
+     * @return IS PMO Feature or IS PMO Testing Feature values
+     */
+    @Override
+    public FeatureValues mapRow(SqlRowCursor cursor) {
+        return new FeatureValues(cursor.getString(requestIdColumn), cursor.getString(isDomainColumn), cursor.getString(octaneFeatureUrlColumn));
+    }
+}
@@ -0,0 +1,135 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Class for storing the outcome of updating a single IS PMO Feature or IS PMO Testing Feature
+ */
+public class FeatureUpdateResult {
+    private final String featureRequestId;
+    private final String featureIsDomain;
+    private final boolean successful;
+    private final String errorMessage;
+    private final long elapsedMillis;
+    private final boolean updateSent;
+    private final boolean ooFlowSkipped;
+    private boolean processed = true;
+
+    /**
+     * Constructor method for the class storing the Feature update outcome
+     *
+     * @param featureRequestId IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param featureIsDomain  IS PMO Feature or IS PMO Testing Feature IS Domain
+     * @param successful       True if the PUT Request and OO update completed
+     * @param errorMessage     Error message if the update failed, otherwise null
+     * @param elapsedMillis    Time taken for the Feature update in milliseconds
+     */
+    protected FeatureUpdateResult(String featureRequestId, String featureIsDomain, boolean successful, String errorMessage, long elapsedMillis) {
+        this(featureRequestId, featureIsDomain, successful, errorMessage, elapsedMillis, false, false);
+    }
+
+    /**
+     * Constructor method for the class storing the Feature update outcome with the PUT Request and OO flow indicators
+     *
+     * @param featureRequestId IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param featureIsDomain  IS PMO Feature or IS PMO Testing Feature IS Domain
+     * @param successful       True if the PUT Request and OO update completed
+     * @param errorMessage     Error message if the update failed, otherwise null
+     * @param elapsedMillis    Time taken for the Feature update in milliseconds
+     * @param updateSent       True if the PUT Request was sent, false if it was skipped because the fields did not change
+     * @param ooFlowSkipped    True if the OO flow run was skipped because the Octane Feature Impacted Systems did not change
+     */
+    protected FeatureUpdateResult(String featureRequestId, String featureIsDomain, boolean successful, String errorMessage, long elapsedMillis,
+                                  boolean updateSent, boolean ooFlowSkipped) {
+        this.updateSent = updateSent;
+        this.ooFlowSkipped = ooFlowSkipped;
+        this.featureRequestId = featureRequestId;
+        this.featureIsDomain = featureIsDomain;
+        this.successful = successful;
+        this.errorMessage = errorMessage;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Method to create the outcome of a Feature that was not processed because too little time was left until the run deadline
+     *
+     * @param featureRequestId IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param featureIsDomain  IS PMO Feature or IS PMO Testing Feature IS Domain
+     * @return Feature update result of the Feature that was not processed
+     */
+    protected static FeatureUpdateResult notProcessed(String featureRequestId, String featureIsDomain) {
+        FeatureUpdateResult result = new FeatureUpdateResult(featureRequestId, featureIsDomain, false, "Not processed before the run deadline", 0);
+        result.processed = false;
+        return result;
+    }
+
+    /**
+     * Get method for IS PMO Feature or IS PMO Testing Feature Request ID
+     *
+     * @return Request ID string value
+     */
+    protected String getFeatureRequestId() {
+        return featureRequestId;
+    }
+
+    /**
+     * Get method for IS PMO Feature or IS PMO Testing Feature IS Domain
+     *
+     * @return IS Domain string value
+     */
+    protected String getFeatureIsDomain() {
+        return featureIsDomain;
+    }
+
+    /**
+     * Get method for the update outcome
+     *
+     * @return Boolean (True or False)
+     */
+    protected boolean isSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Get method for the error message
+     *
+     * @return Error message string value or null
+     */
+    protected String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Get method for the update time
+     *
+     * @return Elapsed time in milliseconds
+     */
+    protected long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Get method for the PUT Request indicator
+     *
+     * @return True if the PUT Request was sent, false if it was skipped or the update failed before it
+     */
+    protected boolean isUpdateSent() {
+        return updateSent;
+    }
+
+    /**
+     * Get method for the OO flow run indicator
+     *
+     * @return True if the OO flow run was skipped because the Octane Feature Impacted Systems did not change
+     */
+    protected boolean isOoFlowSkipped() {
+        return ooFlowSkipped;
+    }
+
+    /**
+     * Get method for the processed indicator
+     *
+     * @return False if the Feature was not processed because too little time was left until the run deadline
+     */
+    protected boolean isProcessed() {
+        return processed;
+    }
+}
@@ -0,0 +1,410 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONException;
+import za.co.mtn.ppm.bpm.octane.OctaneFeatureOoBatch;
+import za.co.mtn.ppm.bpm.octane.OctaneFeatureOoProcessor;
+import za.co.mtn.ppm.bpm.octane.OoExecution;
+import za.co.mtn.ppm.bpm.octane.OoExecutionTracker;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+import za.co.mtn.ppm.bpm.rest.RunDeadline;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that runs the update of each IS PMO Feature and IS PMO Testing Feature (PUT Request followed by the OO Octane update).
+ * The Features are updated one after another, or in parallel on a bounded worker pool when the maximum parallelism is more than 1.
+ * The outcome of every Feature is collected so that one failing Feature does not stop the others.
+ * The Impacted Systems are read from the IS Domain index of the Impact Model, and the fields for all the IS Domains
+ * are rendered once per run and shared by the payload of every Feature.
+ * The OO flows that are still running when the run reports them are kept as pending with the Octane Feature fingerprint,
+ * the next run confirms them first, and sends the Impacted Systems again when the OO flow failed.
+ * With a run deadline a Feature is only started when the time left is more than the longest Feature update of the run so far,
+ * and at least the time of the following System Property, the Features that are not started are reported as not processed:
+ * - ia.run.featureReserveSeconds (default 30)
+ */
+public class FeatureUpdateRunner {
+    // Constant variables for the class
+    private static final String TEST_AUTOMATION_DOMAIN = "Test Automation";
+    private static final long FEATURE_RESERVE_MILLIS = Long.getLong("ia.run.featureReserveSeconds", 30L) * 1000L;
+    // Class Variables set by the constructor
+    private final ImpactAssessmentProcessor iaProcessor;
+    private final RestGateway ooGateway;
+    private final String restUrl;
+    private final ImpactModel impactModel;
+    // Fields for all the IS Domains, rendered once per run
+    private final String allSystemsString;
+    private final InvolvementHtmlTable allInvolvementTable;
+    private final int maxParallelism;
+    private final FeatureFingerprintStore fingerprintStore;
+    private final FeatureFingerprintStore octaneFingerprintStore;
+    private final FeatureFingerprintStore ooPendingStore;
+    private final OoExecutionTracker ooExecutionTracker;
+    // OO batch for sending many Octane Features with one OO flow, null for one OO flow per Octane Feature
+    private final OctaneFeatureOoBatch ooBatch;
+    private final boolean force;
+    private final RunDeadline deadline;
+    // Longest Feature update of the run, the time to keep for the next Feature
+    private final AtomicLong longestFeatureMillis = new AtomicLong();
+
+    /**
+     * Constructor method for the Feature update runner
+     *
+     * @param iaProcessor         Impact Assessment Processor with the PPM REST Gateway
+     * @param ooGateway           OO REST Gateway for the Octane Feature updates
+     * @param restUrl             REST API URL for the PUT Request
+     * @param impactModel         Impact Model with the Impacted System Table data indexed by IS Domain
+     * @param maxParallelism      Maximum number of Features updated at the same time
+     * @param fingerprintStore    Store with the fields last sent to the Features
+     * @param force               True to send the PUT Requests and start the OO flows even if the fields did not change
+     * @param ooBatchSize         Maximum number of Octane Features in one OO flow execution, 1 for one OO flow per Octane Feature
+     * @param deadline            Deadline of the run
+     */
+    protected FeatureUpdateRunner(ImpactAssessmentProcessor iaProcessor, RestGateway ooGateway, String restUrl,
+                                  ImpactModel impactModel, int maxParallelism,
+                                  FeatureFingerprintStore fingerprintStore, boolean force, int ooBatchSize, RunDeadline deadline) {
+        this.fingerprintStore = fingerprintStore;
+        this.octaneFingerprintStore = FeatureFingerprintStore.forOctaneFeatures(ooGateway.getBaseUrl());
+        this.ooPendingStore = FeatureFingerprintStore.forOoPendingExecutions(ooGateway.getBaseUrl());
+        this.ooExecutionTracker = new OoExecutionTracker(ooGateway);
+        if (ooBatchSize > 1 && !OctaneFeatureOoBatch.isBatchFlowSet()) {
+            ExecutionLog.warn("OO batch flow not set with System Property ia.oo.batchFlowUuid, one OO flow is started per Octane Feature");
+        }
+        this.ooBatch = ooBatchSize > 1 && OctaneFeatureOoBatch.isBatchFlowSet() ? new OctaneFeatureOoBatch(ooGateway, ooBatchSize, ooExecutionTracker, octaneFingerprintStore::record) : null;
+        this.force = force;
+        this.deadline = deadline;
+        this.iaProcessor = iaProcessor;
+        this.ooGateway = ooGateway;
+        this.restUrl = restUrl;
+        this.impactModel = impactModel;
+        this.allSystemsString = iaProcessor.setImpactedSystemString(impactModel.getImpactedSystems());
+        this.allInvolvementTable = iaProcessor.getDomainInvolvementTable(impactModel.getImpactedSystems());
+        this.maxParallelism = Math.max(1, maxParallelism);
+    }
+
+    /**
+     * Method to update all the Features and collect the outcome per Feature
+     *
+     * @param featuresLinkedToIaData IS PMO Features and IS PMO Testing Features linked to the IT Project
+     * @return Feature update results in the same order as the Features
+     */
+    protected ArrayList<FeatureUpdateResult> updateFeatures(ArrayList<FeatureValues> featuresLinkedToIaData) {
+        confirmPendingOoExecutions();
+        ArrayList<FeatureUpdateResult> results = new ArrayList<>();
+        if (maxParallelism == 1 || featuresLinkedToIaData.size() <= 1) {
+            // Update the Features one after another
+            for (FeatureValues featuresLinkedToIa : featuresLinkedToIaData) {
+                results.add(runFeatureUpdate(featuresLinkedToIa));
+            }
+            return results;
+        }
+        ExecutionLog.info("Updating " + featuresLinkedToIaData.size() + " Features with maximum parallelism: " + maxParallelism);
+        ExecutorService workerPool = WorkerPools.newFixedPool("ia-feature-update", Math.min(maxParallelism, featuresLinkedToIaData.size()));
+        try {
+            // Submit every Feature update unit to the worker pool
+            ArrayList<Future<FeatureUpdateResult>> futures = new ArrayList<>();
+            for (FeatureValues featuresLinkedToIa : featuresLinkedToIaData) {
+                futures.add(workerPool.submit(() -> runFeatureUpdate(featuresLinkedToIa)));
+            }
+            // Collect the results in Feature order
+            for (int i = 0; i < futures.size(); i++) {
+                FeatureValues featuresLinkedToIa = featuresLinkedToIaData.get(i);
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new FeatureUpdateResult(featuresLinkedToIa.getFeatureRequestId(), featuresLinkedToIa.getFeatureIsDomain(), false, String.valueOf(e.getCause()), 0));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new FeatureUpdateResult(featuresLinkedToIa.getFeatureRequestId(), featuresLinkedToIa.getFeatureIsDomain(), false, "Interrupted", 0));
+                }
+            }
+        } finally {
+            workerPool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Method to confirm the OO flows of previous runs that were still running when the run ended. The Impacted Systems of
+     * an OO flow that failed, or that OO does not know, are sent to the Octane Feature again with this run.
+     */
+    private void confirmPendingOoExecutions() {
+        ArrayList<OoExecution> pendingExecutions = new ArrayList<>();
+        for (Map.Entry<String, String> pending : ooPendingStore.getEntries().entrySet()) {
+            pendingExecutions.add(new OoExecution(pending.getValue(), null, pending.getKey()));
+        }
+        if (pendingExecutions.isEmpty()) {
+            return;
+        }
+        ExecutionLog.info("<<- Confirm " + pendingExecutions.size() + " OO flow execution(s) of previous runs ->>");
+        HashSet<String> knownExecutionIds;
+        try {
+            knownExecutionIds = ooExecutionTracker.pollNow(pendingExecutions);
+        } catch (IOException | RuntimeException e) {
+            // The pending OO flows are confirmed with the next run
+            ExecutionLog.warn("OO flow executions of previous runs not confirmed: " + e);
+            return;
+        }
+        for (OoExecution execution : pendingExecutions) {
+            if (!knownExecutionIds.contains(execution.getExecutionId()) || execution.isFailed()) {
+                ExecutionLog.warn("OO Execution " + execution.getExecutionId() + " of Octane Feature " + execution.getOctFeatureUrl() + " not completed ("
+                        + (knownExecutionIds.contains(execution.getExecutionId()) ? execution.getStatus() : "unknown to OO") + "), the Impacted Systems are sent again");
+                octaneFingerprintStore.forget(execution.getOctFeatureUrl());
+                ooPendingStore.forget(execution.getOctFeatureUrl());
+            } else if (execution.isFinished()) {
+                ooPendingStore.forget(execution.getOctFeatureUrl());
+            }
+        }
+    }
+
+    /**
+     * Method to run a single Feature update and capture the outcome
+     *
+     * @param featuresLinkedToIa IS PMO Feature or IS PMO Testing Feature
+     * @return Feature update result
+     */
+    private FeatureUpdateResult runFeatureUpdate(FeatureValues featuresLinkedToIa) {
+        // Do not start a PUT Request and OO flow that cannot finish before the run deadline
+        if (!deadline.hasRemaining(Math.max(FEATURE_RESERVE_MILLIS, longestFeatureMillis.get()))) {
+            ExecutionLog.warn("Feature Number: " + featuresLinkedToIa.getFeatureRequestId() + " not processed, run deadline left: " + deadline);
+            return FeatureUpdateResult.notProcessed(featuresLinkedToIa.getFeatureRequestId(), featuresLinkedToIa.getFeatureIsDomain());
+        }
+        final long startTime = System.currentTimeMillis();
+        try {
+            return updateFeature(featuresLinkedToIa);
+        } catch (Exception e) {
+            ExecutionLog.error("Feature Number: " + featuresLinkedToIa.getFeatureRequestId() + " update failed: " + e);
+            return new FeatureUpdateResult(featuresLinkedToIa.getFeatureRequestId(), featuresLinkedToIa.getFeatureIsDomain(), false, e.toString(), System.currentTimeMillis() - startTime);
+        } finally {
+            longestFeatureMillis.accumulateAndGet(System.currentTimeMillis() - startTime, Math::max);
+        }
+    }
+
+    /**
+     * Method to update a single IS PMO Feature or IS PMO Testing Feature and the linked Octane Feature
+     *
+     * @param featuresLinkedToIa IS PMO Feature or IS PMO Testing Feature
+     * @return Feature update result
+     * @throws IOException    IO Exceptions are thrown up to the calling method
+     * @throws JSONException  JSON Exceptions are thrown up to the calling method
+     * @throws ParseException Parse Exceptions are thrown up to the calling method
+     */
+    protected FeatureUpdateResult updateFeature(FeatureValues featuresLinkedToIa) throws IOException, JSONException, ParseException {
+        final long startTime = System.currentTimeMillis();
+        // Assign the PPM Feature, IS Domain to string variable
+        String featureDomain = featuresLinkedToIa.getFeatureIsDomain();
+        ExecutionLog.info("<strong>Feature Number: " + featuresLinkedToIa.getFeatureRequestId() + " and IS Domain: " + featureDomain + "</strong>");
+        // Impacted Systems and Involvement fields of the Feature
+        String featureSystemsImpacted;
+        InvolvementHtmlTable featureInvolvementTable;
+        // Check Feature Domain equal to "Test Automation"
+        if (featureDomain.equalsIgnoreCase(TEST_AUTOMATION_DOMAIN)) {
+            // Update the IS PMO Testing Feature Request Type with All the Impacted System Values
+            featureSystemsImpacted = allSystemsString;
+            featureInvolvementTable = allInvolvementTable;
+        } else {
+            // IS Domains no equal to "Test Automation"
+            // Impacted Systems of the domain from the IS Domain index
+            List<ImpactedSystemValues> featureImpactedSystemValues = impactModel.getDomainRows(featureDomain);
+            featureSystemsImpacted = iaProcessor.setImpactedSystemString(featureImpactedSystemValues);
+            featureInvolvementTable = iaProcessor.getDomainInvolvementTable(featureImpactedSystemValues);
+        }
+        // Update the IS PMO Feature Request Type
+        boolean updateSent = iaProcessor.updateFeatureRequestTypeImpactedSystemFields(restUrl, featuresLinkedToIa.getFeatureRequestId(),
+                featureSystemsImpacted, featureInvolvementTable, allInvolvementTable, fingerprintStore, force);
+        // Update Octane Feature Impacted Systems through OpenText OO application if Octane Feature URL exists
+        String octFeatureUrl = featuresLinkedToIa.getOctaneFeatureUrl();
+        boolean ooFlowSkipped = false;
+        if (isNotBlankString(octFeatureUrl)) {
+            // Only start the OO flow when the set of Impacted Systems differs from the set last sent to the Octane Feature
+            String ooFingerprint = FeatureFingerprintStore.fingerprint(OctaneFeatureOoProcessor.getCanonicalImpactedSystems(featureSystemsImpacted));
+            if (!force && octaneFingerprintStore.isUnchanged(octFeatureUrl, ooFingerprint)) {
+                ExecutionLog.info("OO flow skipped, no Impacted System changes since the last update of Octane Feature: " + octFeatureUrl);
+                ooFlowSkipped = true;
+            } else if (ooBatch != null) {
+                // The OO flow is started with flushOoBatch, the fingerprint is recorded when the OO flow started
+                ooBatch.add(featuresLinkedToIa.getFeatureRequestId(), octFeatureUrl, featureSystemsImpacted, ooFingerprint);
+            } else {
+                OctaneFeatureOoProcessor ooProcessor = new OctaneFeatureOoProcessor(ooGateway, octFeatureUrl, featureSystemsImpacted);
+                String executionId = ooProcessor.updateOctaneFeatureImpactedSystems();
+                octaneFingerprintStore.record(octFeatureUrl, ooFingerprint);
+                // Follow the OO flow execution in the background
+                if (isNotBlankString(executionId)) {
+                    ooExecutionTracker.track(executionId, featuresLinkedToIa.getFeatureRequestId(), octFeatureUrl);
+                }
+            }
+        }
+        return new FeatureUpdateResult(featuresLinkedToIa.getFeatureRequestId(), featureDomain, true, null, System.currentTimeMillis() - startTime, updateSent, ooFlowSkipped);
+    }
+
+    /**
+     * Method to send the Octane Features that are waiting for an OO batch flow. The Features of an OO batch flow that
+     * could not be started are set as failed in the results, and their Impacted Systems are sent again with the next run.
+     *
+     * @param results Feature update results, updated in place
+     * @return Number of Features in OO batch flows that could not be started
+     */
+    protected int flushOoBatch(ArrayList<FeatureUpdateResult> results) {
+        if (ooBatch == null) {
+            return 0;
+        }
+        ooBatch.flush();
+        LinkedHashMap<String, String> failedFeatures = ooBatch.getFailedFeatures();
+        for (int i = 0; i < results.size(); i++) {
+            FeatureUpdateResult result = results.get(i);
+            String ooBatchError = failedFeatures.get(result.getFeatureRequestId());
+            if (ooBatchError != null && result.isSuccessful()) {
+                results.set(i, new FeatureUpdateResult(result.getFeatureRequestId(), result.getFeatureIsDomain(), false, ooBatchError,
+                        result.getElapsedMillis(), result.isUpdateSent(), false));
+            }
+        }
+        return failedFeatures.size();
+    }
+
+    /**
+     * Method to wait for the OO flow executions started by this run and write out the OO flow execution report.
+     * The Impacted Systems of a failed OO flow are sent to the Octane Feature again with the next run, and an OO flow that is
+     * still running is kept as pending for the next run to confirm. The poll of the OO flow executions stops with the report.
+     *
+     * @param waitMillis Maximum time to wait for the OO flow executions, 0 to report the status without waiting
+     * @return Number of OO flow executions that failed
+     */
+    protected int awaitOoExecutions(long waitMillis) {
+        if (ooExecutionTracker.getExecutions().isEmpty()) {
+            return 0;
+        }
+        // Do not wait past the run deadline
+        final long deadlineWaitMillis = Math.min(waitMillis, deadline.getRemainingMillis());
+        if (deadlineWaitMillis > 0) {
+            ExecutionLog.info("Waiting up to " + deadlineWaitMillis / 1000 + " s for " + ooExecutionTracker.getExecutions().size() + " OO flow execution(s)");
+            try {
+                if (!ooExecutionTracker.awaitCompletion(deadlineWaitMillis)) {
+                    ExecutionLog.warn("Not all OO flow executions finished within " + deadlineWaitMillis / 1000 + " s");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int failedCount = ooExecutionTracker.logReport();
+        ooExecutionTracker.close();
+        for (OoExecution execution : ooExecutionTracker.getExecutions()) {
+            if (execution.isFailed()) {
+                octaneFingerprintStore.forget(execution.getOctFeatureUrl());
+                if (ooPendingStore.get(execution.getOctFeatureUrl()) != null) {
+                    ooPendingStore.forget(execution.getOctFeatureUrl());
+                }
+            } else if (execution.isFinished() && ooPendingStore.get(execution.getOctFeatureUrl()) != null) {
+                ooPendingStore.forget(execution.getOctFeatureUrl());
+            }
+        }
+        return failedCount;
+    }
+
+    /**
+     * Method to write the fingerprints of the PUT Requests and OO flows of this run to the fingerprint store files.
+     * The poll of the OO flow executions stops, and the OO flows that did not finish are kept as pending for the next run.
+     */
+    protected void saveFingerprints() {
+        ooExecutionTracker.close();
+        for (OoExecution execution : ooExecutionTracker.getExecutions()) {
+            if (!execution.isFinished()) {
+                ooPendingStore.record(execution.getOctFeatureUrl(), execution.getExecutionId());
+            }
+        }
+        fingerprintStore.save();
+        octaneFingerprintStore.save();
+        ooPendingStore.save();
+    }
+
+    /**
+     * Method to get the Request IDs of the Features that were updated
+     *
+     * @param results Feature update results
+     * @return Request IDs of the successful updates
+     */
+    protected static ArrayList<String> getUpdatedRequestIds(ArrayList<FeatureUpdateResult> results) {
+        ArrayList<String> updatedRequestIds = new ArrayList<>();
+        for (FeatureUpdateResult result : results) {
+            if (result.isSuccessful()) {
+                updatedRequestIds.add(result.getFeatureRequestId());
+            }
+        }
+        return updatedRequestIds;
+    }
+
+    /**
+     * Method to get the Request IDs of the Features that were not processed before the run deadline
+     *
+     * @param results Feature update results
+     * @return Request IDs of the Features to resume with the next run
+     */
+    protected static ArrayList<String> getNotProcessedRequestIds(ArrayList<FeatureUpdateResult> results) {
+        ArrayList<String> notProcessedRequestIds = new ArrayList<>();
+        for (FeatureUpdateResult result : results) {
+            if (!result.isProcessed()) {
+                notProcessedRequestIds.add(result.getFeatureRequestId());
+            }
+        }
+        return notProcessedRequestIds;
+    }
+
+    /**
+     * Method to write out the summary of the Feature update results in Feature order
+     *
+     * @param results Feature update results
+     * @return Number of failed Feature updates, without the Features that were not processed before the run deadline
+     */
+    protected static int logSummary(ArrayList<FeatureUpdateResult> results) {
+        int failedCount = 0;
+        int notProcessedCount = 0;
+        int sentCount = 0;
+        int ooFlowSkippedCount = 0;
+        ExecutionLog.info("<<-- Feature Update Summary -->>");
+        for (FeatureUpdateResult result : results) {
+            if (result.isUpdateSent()) {
+                sentCount++;
+            }
+            if (result.isOoFlowSkipped()) {
+                ooFlowSkippedCount++;
+            }
+            if (result.isSuccessful()) {
+                ExecutionLog.info("Feature Number: " + result.getFeatureRequestId() + " (" + result.getFeatureIsDomain() + "): "
+                        + (result.isUpdateSent() ? "Updated" : "No PUT Request (unchanged)") + " in " + result.getElapsedMillis() + " ms");
+            } else if (!result.isProcessed()) {
+                notProcessedCount++;
+                ExecutionLog.info("Feature Number: " + result.getFeatureRequestId() + " (" + result.getFeatureIsDomain() + "): NOT PROCESSED - " + result.getErrorMessage());
+            } else {
+                failedCount++;
+                ExecutionLog.info("Feature Number: " + result.getFeatureRequestId() + " (" + result.getFeatureIsDomain() + "): FAILED - " + result.getErrorMessage());
+            }
+        }
+        ExecutionLog.info("Features Updated: " + (results.size() - failedCount - notProcessedCount) + ", Features Failed: " + failedCount
+                + ", Features Not Processed (run deadline): " + notProcessedCount);
+        if (notProcessedCount > 0) {
+            ExecutionLog.info("Features to resume with the next run: " + String.join(",", getNotProcessedRequestIds(results)));
+        }
+        ExecutionLog.info("Feature PUT Requests Sent: " + sentCount + ", Feature PUT Requests Skipped (unchanged): " + (results.size() - failedCount - notProcessedCount - sentCount));
+        ExecutionLog.info("OO Flows Skipped (unchanged Octane Impacted Systems): " + ooFlowSkippedCount);
+        ExecutionLog.info(InvolvementHtmlCache.getShared().getStatistics());
+        return failedCount;
+    }
+
+    /**
+     * Method to check if a String is Blank or Null
+     *
+     * @param string String for verification
+     * @return Boolean (True or False)
+     */
+    private static boolean isNotBlankString(String string) {
+        return string != null && !string.isEmpty() && !string.trim().isEmpty() && !string.equalsIgnoreCase("null");
+    }
+}
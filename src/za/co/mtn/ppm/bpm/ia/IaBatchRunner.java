@@ -0,0 +1,232 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import za.co.mtn.ppm.bpm.rest.CallMetrics;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Class that runs CreateIsDomainFeatures or UpdateFeatures for many IS PMO Impact Assessments in one JVM.
+ * The Impact Assessments are read from a file or stdin, one "IA_REQUEST_ID,PROJECT_ID[,PROJECT_NAME,REQUEST_TYPE]" line each.
+ * All the runs share the HTTP connection pool and a bounded number of Impact Assessments are processed at the same time.
+ * The console output of every Impact Assessment is written out in one block when it finished and the outcome of every
+ * Impact Assessment is written as one JSON line to the result file.
+ */
+public class IaBatchRunner {
+    // Constant variables for the class
+    private static final String STDIN_INPUT = "-";
+
+    /**
+     * Main method for the class
+     *
+     * @param args The following list of Arguments are required:
+     *             JOB_TYPE: args[0] (create-features or update-features)
+     *             ENV_BASE_URL: args[1] (PPM Base URL)
+     *             REST_USERNAME: args[2] (PPM System User - ppmsysuser)
+     *             REST_USER_PASSWORD: args[3] (PPM System User Password)
+     *             INPUT_FILE: args[4] (File with the Impact Assessments, "-" for stdin)
+     *             OO_BASE_URL: args[5] (OpenText OO application URL, update-features only)
+     *             OO_AUTH_KEY: args[6] (OpenText OO application Authentication Key, update-features only)
+     *             Optional: --concurrency=N (Maximum number of Impact Assessments processed at the same time, default 4)
+     *             Optional: --parallel=N (Maximum number of Features per Impact Assessment processed at the same time, default 1)
+     *             Other options of CreateIsDomainFeatures or UpdateFeatures are passed on to every Impact Assessment, e.g. --force
+     *             Optional: --result=FILE (JSON lines result file, default ia-batch-result-{timestamp}.jsonl)
+     */
+    public static void main(String[] args) {
+        final boolean isCreateFeatures = args.length > 0 && IaJobServer.CREATE_FEATURES_JOB.equals(args[0]);
+        final boolean isUpdateFeatures = args.length > 0 && IaJobServer.UPDATE_FEATURES_JOB.equals(args[0]);
+        if (!(isCreateFeatures && args.length >= 5) && !(isUpdateFeatures && args.length >= 7)) {
+            ExecutionLog.info("The Class Command Line Arguments is incorrect!");
+            printCommandLineArguments();
+            System.exit(1);
+        }
+        final RunOptions runOptions = new RunOptions(args, 5);
+        final int concurrency = runOptions.getInt("concurrency", 4);
+        final int maxParallelFeatures = runOptions.getInt("parallel", 1);
+        final String resultFile = runOptions.getString("result", "ia-batch-result-" + System.currentTimeMillis() + ".jsonl");
+        ExecutionLog.info("**** Class Command Line Arguments****");
+        ExecutionLog.info("JOB_TYPE: " + args[0]);
+        ExecutionLog.info("ENV_BASE_URL: " + args[1]);
+        ExecutionLog.info("REST_USERNAME: " + args[2]);
+        ExecutionLog.info("INPUT_FILE: " + args[4]);
+        ExecutionLog.info("CONCURRENCY: " + concurrency);
+        ExecutionLog.info("MAX_PARALLEL_FEATURES: " + maxParallelFeatures);
+        ExecutionLog.info("RESULT_FILE: " + resultFile);
+        ExecutionLog.info("**** End of Class Command Line Arguments****");
+
+        int failedCount = 0;
+        try {
+            // The options of the main class are passed on to every job, --parallel is always set
+            ArrayList<String> jobOptions = getJobOptions(args, isCreateFeatures ? 5 : 7);
+            jobOptions.add("--parallel=" + maxParallelFeatures);
+            ExecutionLog.info("JOB_OPTIONS: " + jobOptions);
+            // Create a job with the Command Line Arguments of the main class for every Impact Assessment
+            ArrayList<String[]> impactAssessments = readImpactAssessments(args[4]);
+            ArrayList<IaJob> jobs = new ArrayList<>();
+            for (String[] iaValues : impactAssessments) {
+                String[] jobArgs;
+                if (isCreateFeatures) {
+                    if (iaValues.length < 4) {
+                        throw new IllegalArgumentException("PROJECT_NAME and REQUEST_TYPE are required for create-features: " + String.join(",", iaValues));
+                    }
+                    jobArgs = new String[]{args[1], args[2], args[3], iaValues[0], iaValues[1], iaValues[2], iaValues[3]};
+                } else {
+                    jobArgs = new String[]{args[1], args[2], args[3], iaValues[0], iaValues[1], args[5], args[6]};
+                }
+                ArrayList<String> jobArgList = new ArrayList<>(Arrays.asList(jobArgs));
+                jobArgList.addAll(jobOptions);
+                jobArgs = jobArgList.toArray(new String[0]);
+                jobs.add(new IaJob(iaValues[0], args[0], jobArgs));
+            }
+            ExecutionLog.info("Impact Assessments to process: " + jobs.size());
+            // Route the console output of every Impact Assessment to its own log
+            JobOutputRouter.install();
+            ExecutorService batchPool = WorkerPools.newFixedPool("ia-batch", Math.min(Math.max(1, concurrency), Math.max(1, jobs.size())));
+            try (BufferedWriter resultWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resultFile), StandardCharsets.UTF_8))) {
+                ArrayList<Future<IaJob>> futures = new ArrayList<>();
+                for (final IaJob job : jobs) {
+                    futures.add(batchPool.submit(() -> {
+                        job.run();
+                        writeJobLog(job);
+                        return job;
+                    }));
+                }
+                // Write the result lines in input order
+                for (int i = 0; i < futures.size(); i++) {
+                    IaJob job = futures.get(i).get();
+                    JSONObject jsonResult = job.toJson(false);
+                    jsonResult.put("iaRequestId", impactAssessments.get(i)[0]);
+                    jsonResult.put("projectId", impactAssessments.get(i)[1]);
+                    if (!IaJob.State.SUCCEEDED.name().equals(jsonResult.getString("state"))) {
+                        failedCount++;
+                    }
+                    resultWriter.write(jsonResult.toString());
+                    resultWriter.newLine();
+                    resultWriter.flush();
+                }
+            } finally {
+                batchPool.shutdownNow();
+            }
+            ExecutionLog.info("<<-- Batch Summary -->>");
+            ExecutionLog.info("Impact Assessments Processed: " + jobs.size() + ", Impact Assessments Failed: " + failedCount);
+            ExecutionLog.info(RestGateway.getConnectionStatistics());
+            // REST calls of all the Impact Assessments of the batch
+            CallMetrics.global().logSummary();
+        } catch (IOException | JSONException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            // Write the queued log messages before a failed batch ends the JVM
+            ExecutionLog.flush();
+        }
+        // Fail the run if any of the Impact Assessments failed
+        if (failedCount > 0) {
+            throw new RuntimeException("Failed to process " + failedCount + " IS PMO Impact Assessment(s)");
+        }
+    }
+
+    /**
+     * Method to read the Impact Assessments from a file or stdin, blank lines and lines starting with "#" are skipped
+     *
+     * @param inputFile File name or "-" for stdin
+     * @return Impact Assessment values for every line
+     * @throws IOException IO Exceptions are thrown up to the main class method
+     */
+    private static ArrayList<String[]> readImpactAssessments(String inputFile) throws IOException {
+        ArrayList<String[]> result = new ArrayList<>();
+        InputStream input = STDIN_INPUT.equals(inputFile) ? System.in : new FileInputStream(inputFile);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] values = line.split(",", 3);
+                if (values.length == 3) {
+                    // The Project Name can have commas, the Request Type is after the last comma
+                    int typeIndex = values[2].lastIndexOf(',');
+                    values = typeIndex < 0 ? values
+                            : new String[]{values[0], values[1], values[2].substring(0, typeIndex), values[2].substring(typeIndex + 1)};
+                }
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = values[i].trim();
+                }
+                if (values.length < 2 || values[0].isEmpty() || values[1].isEmpty()) {
+                    throw new IllegalArgumentException("IA_REQUEST_ID and PROJECT_ID are required: " + line);
+                }
+                result.add(values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method to get the options of the batch that are passed on to the jobs, all the options except the batch options
+     *
+     * @param args             Command Line Arguments of the main method
+     * @param firstOptionIndex Index of the first optional argument
+     * @return Job options list
+     */
+    private static ArrayList<String> getJobOptions(String[] args, int firstOptionIndex) {
+        ArrayList<String> jobOptions = new ArrayList<>();
+        for (int i = firstOptionIndex; i < args.length; i++) {
+            String option = args[i];
+            if (option.startsWith("--") && !option.startsWith("--concurrency=") && !option.startsWith("--result=") && !option.startsWith("--parallel=")) {
+                jobOptions.add(option);
+            }
+        }
+        return jobOptions;
+    }
+
+    /**
+     * Method to write out the log of a finished Impact Assessment in one block
+     *
+     * @param job Finished Impact Assessment job
+     */
+    private static void writeJobLog(IaJob job) {
+        synchronized (IaBatchRunner.class) {
+            ExecutionLog.info("<<-- Impact Assessment " + job.getJobId() + " -->>");
+            ExecutionLog.flush();
+            System.out.print(job.getLog());
+            ExecutionLog.info("<<-- End of Impact Assessment " + job.getJobId() + ": " + job.toJson(false).getString("state") + " -->>");
+        }
+    }
+
+    /**
+     * Method to write out the Command Line Arguments for this class
+     */
+    private static void printCommandLineArguments() {
+        ExecutionLog.info("Command Line Arguments Layout: sc_ia_batch <JOB_TYPE> <ENV_BASE_URL> <REST_USERNAME> <REST_USER_PASSWORD> <INPUT_FILE> [<OO_BASE_URL> <OO_AUTH_KEY>]");
+        ExecutionLog.info("JOB_TYPE: args[0] (create-features or update-features)");
+        ExecutionLog.info("ENV_BASE_URL: args[1] (PPM Base URL)");
+        ExecutionLog.info("REST_USERNAME: args[2] (PPM System User - ppmsysuser)");
+        ExecutionLog.info("REST_USER_PASSWORD: args[3] (PPM System User Password)");
+        ExecutionLog.info("INPUT_FILE: args[4] (File with IA_REQUEST_ID,PROJECT_ID[,PROJECT_NAME,REQUEST_TYPE] lines, - for stdin)");
+        ExecutionLog.info("OO_BASE_URL: args[5] (OO Environment Base URL, update-features only)");
+        ExecutionLog.info("OO_AUTH_KEY: args[6] (OO Authentication Key, update-features only)");
+        ExecutionLog.info("Optional: --concurrency=N (Maximum number of Impact Assessments processed at the same time, default 4)");
+        ExecutionLog.info("Optional: --parallel=N (Maximum number of Features per Impact Assessment processed at the same time, default 1)");
+        ExecutionLog.info("Other options of CreateIsDomainFeatures or UpdateFeatures are passed on to every Impact Assessment, e.g. --force");
+        ExecutionLog.info("Optional: --result=FILE (JSON lines result file, default ia-batch-result-{timestamp}.jsonl)");
+    }
+}
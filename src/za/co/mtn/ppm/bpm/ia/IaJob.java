@@ -0,0 +1,156 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Class for a "create features" or "update features" job on the IA Job Server.
+ * The job runs the same code as the main method of CreateIsDomainFeatures or UpdateFeatures and keeps the console output as job log.
+ */
+public class IaJob {
+    /**
+     * Job states
+     */
+    protected enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    // Class Variables set by the constructor
+    private final String jobId;
+    private final String jobType;
+    private final String[] args;
+    private final long submittedMillis = System.currentTimeMillis();
+    private final ByteArrayOutputStream jobLog = new ByteArrayOutputStream();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    // Job progress
+    private volatile State state = State.QUEUED;
+    private volatile long startedMillis;
+    private volatile long finishedMillis;
+    private volatile String errorMessage;
+    private volatile IaRunResult runResult;
+
+    /**
+     * Constructor method for the job
+     *
+     * @param jobId   Job ID
+     * @param jobType Job type, IaJobServer.CREATE_FEATURES_JOB or IaJobServer.UPDATE_FEATURES_JOB
+     * @param args    Command Line Arguments of the job
+     */
+    protected IaJob(String jobId, String jobType, String[] args) {
+        this.jobId = jobId;
+        this.jobType = jobType;
+        this.args = args;
+    }
+
+    /**
+     * Method to run the job on the current thread, the console output of the job is kept as job log
+     */
+    protected void run() {
+        startedMillis = System.currentTimeMillis();
+        state = State.RUNNING;
+        JobOutputRouter.route(jobLog);
+        try {
+            if (IaJobServer.CREATE_FEATURES_JOB.equals(jobType)) {
+                runResult = CreateIsDomainFeatures.run(args);
+            } else {
+                runResult = UpdateFeatures.run(args);
+            }
+            runResult.throwIfFailed();
+            state = State.SUCCEEDED;
+        } catch (Exception e) {
+            errorMessage = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            // Write the queued log messages of the job before the stack trace
+            ExecutionLog.flush();
+            e.printStackTrace(new PrintStream(jobLog, true));
+            state = State.FAILED;
+        } finally {
+            // The job log is complete before the job is reported as finished
+            ExecutionLog.flush();
+            JobOutputRouter.clear();
+            finishedMillis = System.currentTimeMillis();
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Method to wait until the job finished
+     *
+     * @throws InterruptedException When the waiting thread is interrupted
+     */
+    protected void await() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Method to check if the job finished
+     *
+     * @return Boolean (True or False)
+     */
+    protected boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    /**
+     * Method to check if the job finished before a point in time
+     *
+     * @param millis Point in time in milliseconds
+     * @return Boolean (True or False)
+     */
+    protected boolean isFinishedBefore(long millis) {
+        return isFinished() && finishedMillis < millis;
+    }
+
+    /**
+     * Get method for the Job ID
+     *
+     * @return Job ID string value
+     */
+    protected String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * Get method for the job log
+     *
+     * @return Console output of the job
+     */
+    protected String getLog() {
+        // The job log has the console encoding of System.out
+        return jobLog.toString();
+    }
+
+    /**
+     * Method to set the JSON Object with the job status
+     *
+     * @param includeLog True to add the job log when the job finished
+     * @return JSON Object with the job status
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    protected JSONObject toJson(boolean includeLog) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("jobId", jobId);
+        json.put("jobType", jobType);
+        json.put("state", state.name());
+        json.put("queuedMillis", (startedMillis == 0 ? System.currentTimeMillis() : startedMillis) - submittedMillis);
+        if (startedMillis > 0) {
+            json.put("elapsedMillis", (isFinished() ? finishedMillis : System.currentTimeMillis()) - startedMillis);
+        }
+        if (errorMessage != null) {
+            json.put("error", errorMessage);
+        }
+        if (runResult != null) {
+            json.put("featuresTouched", runResult.getFeatureRequestIds().size());
+            json.put("featureRequestIds", new JSONArray(runResult.getFeatureRequestIds()));
+            json.put("featuresFailed", runResult.getFailedCount());
+        }
+        if (includeLog && isFinished()) {
+            json.put("log", getLog());
+        }
+        return json;
+    }
+}
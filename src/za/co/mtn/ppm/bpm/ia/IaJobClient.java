@@ -0,0 +1,82 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import okhttp3.Response;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class for the thin command line client of the IA Job Server.
+ * The client sends the job with the Command Line Arguments, waits for the job and writes out the job log,
+ * so that a workflow step gets the same output and the same failure as when the job runs in its own JVM.
+ */
+public class IaJobClient {
+    // System Property with the IA Job Server URL
+    protected static final String JOB_SERVER_PROPERTY = "ia.jobServer";
+    private static final String DEFAULT_JOB_SERVER_URL = "http://127.0.0.1:8765/";
+
+    /**
+     * Main method for the class
+     *
+     * @param args The following list of Arguments are required:
+     *             JOB_TYPE: args[0] (create-features or update-features)
+     *             The Command Line Arguments of CreateIsDomainFeatures or UpdateFeatures follow the Job Type
+     *             The IA Job Server URL is set with the System Property ia.jobServer (default http://127.0.0.1:8765/)
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || !(IaJobServer.CREATE_FEATURES_JOB.equals(args[0]) || IaJobServer.UPDATE_FEATURES_JOB.equals(args[0]))) {
+            ExecutionLog.info("The Class Command Line Arguments is incorrect!");
+            ExecutionLog.info("Command Line Arguments Layout: sc_ia_job <create-features|update-features> <Job Command Line Arguments>");
+            System.exit(1);
+        }
+        String jobServerUrl = getJobServerUrl();
+        runJob(jobServerUrl == null ? DEFAULT_JOB_SERVER_URL : jobServerUrl, args[0], Arrays.copyOfRange(args, 1, args.length));
+    }
+
+    /**
+     * Method to get the IA Job Server URL from the System Property
+     *
+     * @return IA Job Server URL ending with "/" or null if no IA Job Server is set
+     */
+    protected static String getJobServerUrl() {
+        String jobServerUrl = System.getProperty(JOB_SERVER_PROPERTY);
+        if (jobServerUrl == null || jobServerUrl.trim().isEmpty()) {
+            return null;
+        }
+        jobServerUrl = jobServerUrl.trim();
+        return jobServerUrl.endsWith("/") ? jobServerUrl : jobServerUrl + "/";
+    }
+
+    /**
+     * Method to run a job on the IA Job Server and write out the job log
+     *
+     * @param jobServerUrl IA Job Server URL ending with "/"
+     * @param jobType      Job type, IaJobServer.CREATE_FEATURES_JOB or IaJobServer.UPDATE_FEATURES_JOB
+     * @param jobArgs      Command Line Arguments of the job
+     */
+    protected static void runJob(String jobServerUrl, String jobType, String[] jobArgs) {
+        RestGateway jobServerGateway = RestGateway.jobServerGateway(jobServerUrl);
+        try {
+            JSONObject jsonPayload = new JSONObject();
+            jsonPayload.put("args", new JSONArray(Arrays.asList(jobArgs)));
+            JSONObject job;
+            try (Response response = jobServerGateway.postJson("job.submit", "jobs/" + jobType, jsonPayload.toString())) {
+                assert response.body() != null : "The POST Return Body is Empty";
+                job = new JSONObject(response.body().string());
+            }
+            // Write out the job log as if the job ran in this JVM
+            ExecutionLog.flush();
+            System.out.print(job.optString("log"));
+            System.out.flush();
+            if (!IaJob.State.SUCCEEDED.name().equals(job.getString("state"))) {
+                throw new RuntimeException("IA Job " + job.getString("jobId") + " failed: " + job.optString("error"));
+            }
+        } catch (IOException | JSONException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import za.co.mtn.ppm.bpm.rest.CallMetrics;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class for the resident IA Job Server. The server runs "create features" and "update features" jobs in one JVM, so the
+ * HTTP connection pools, caches and compiled code are kept between jobs instead of starting a new JVM for every workflow step.
+ * Local HTTP API:
+ * - POST /jobs/create-features with {"args": [...]} runs CreateIsDomainFeatures with the Command Line Arguments
+ * - POST /jobs/update-features with {"args": [...]} runs UpdateFeatures with the Command Line Arguments
+ * The POST waits for the job and returns the job status with the job log, add "?wait=false" to return the Job ID at once.
+ * - GET /jobs/{jobId} returns the job status, with the job log when the job finished
+ * - GET /health returns the number of jobs known to the server
+ * - GET /metrics returns the REST call metrics of all the jobs in the Prometheus text format
+ */
+public class IaJobServer {
+    // Job types
+    protected static final String CREATE_FEATURES_JOB = "create-features";
+    protected static final String UPDATE_FEATURES_JOB = "update-features";
+    // Constant variables for the class
+    private static final String JOBS_PATH = "/jobs/";
+    private static final int HTTP_HANDLER_THREADS = 16;
+    // Class Variables set by the constructor
+    private final ConcurrentHashMap<String, IaJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobCount = new AtomicLong();
+    private final ExecutorService jobPool;
+    private final long retainMillis;
+
+    /**
+     * Constructor method for the job server
+     *
+     * @param maxJobs       Maximum number of jobs running at the same time
+     * @param retainMinutes Minutes a finished job is kept for the GET /jobs/{jobId} requests
+     */
+    private IaJobServer(int maxJobs, int retainMinutes) {
+        this.jobPool = WorkerPools.newFixedPool("ia-job", maxJobs);
+        this.retainMillis = retainMinutes * 60_000L;
+    }
+
+    /**
+     * Main method for the class
+     *
+     * @param args Optional: --port=N (default 8765), --bind=ADDRESS (default 127.0.0.1),
+     *             --jobs=N (Maximum number of jobs running at the same time, default 4),
+     *             --retain=N (Minutes a finished job is kept, default 60)
+     * @throws IOException When the server cannot listen on the port
+     */
+    public static void main(String[] args) throws IOException {
+        RunOptions runOptions = new RunOptions(args, 0);
+        final int port = runOptions.getInt("port", 8765);
+        final String bindAddress = runOptions.getString("bind", "127.0.0.1");
+        final int maxJobs = runOptions.getInt("jobs", 4);
+        final int retainMinutes = runOptions.getInt("retain", 60);
+        // Route the console output of every job to its job log
+        JobOutputRouter.install();
+        final IaJobServer jobServer = new IaJobServer(maxJobs, retainMinutes);
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        httpServer.createContext(JOBS_PATH, jobServer::handleJobs);
+        httpServer.createContext("/health", jobServer::handleHealth);
+        httpServer.createContext("/metrics", IaJobServer::handleMetrics);
+        httpServer.setExecutor(WorkerPools.newFixedPool("ia-job-http", HTTP_HANDLER_THREADS));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> httpServer.stop(0)));
+        httpServer.start();
+        ExecutionLog.info("IA Job Server listening on " + bindAddress + ":" + port + " with maximum " + maxJobs + " running jobs");
+    }
+
+    /**
+     * Method to handle the /jobs/ requests
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException IO Exceptions of the HTTP exchange
+     */
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(JOBS_PATH.length());
+            String method = exchange.getRequestMethod();
+            if ("POST".equals(method) && (CREATE_FEATURES_JOB.equals(path) || UPDATE_FEATURES_JOB.equals(path))) {
+                submitJob(exchange, path);
+            } else if ("GET".equals(method) && !path.isEmpty()) {
+                IaJob job = jobs.get(path);
+                if (job == null) {
+                    sendError(exchange, 404, "Unknown job: " + path);
+                } else {
+                    sendJson(exchange, 200, job.toJson(true));
+                }
+            } else {
+                sendError(exchange, 404, "Unknown request: " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (JSONException | IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted while waiting for the job");
+        } catch (RuntimeException e) {
+            ExecutionLog.error("IA Job Server request " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " failed: " + e);
+            sendError(exchange, 500, e.getMessage() == null ? e.toString() : e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to submit a job and wait for it, or return the Job ID at once
+     *
+     * @param exchange HTTP exchange with the job Command Line Arguments
+     * @param jobType  Job type
+     * @throws IOException          IO Exceptions of the HTTP exchange
+     * @throws InterruptedException When the handler thread is interrupted while waiting
+     */
+    private void submitJob(HttpExchange exchange, String jobType) throws IOException, InterruptedException {
+        JSONObject request = new JSONObject(new JSONTokener(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)));
+        JSONArray jsonArgs = request.getJSONArray("args");
+        String[] args = new String[jsonArgs.length()];
+        for (int i = 0; i < jsonArgs.length(); i++) {
+            args[i] = jsonArgs.getString(i);
+        }
+        int requiredArguments = CREATE_FEATURES_JOB.equals(jobType) ? CreateIsDomainFeatures.REQUIRED_ARGUMENTS : UpdateFeatures.REQUIRED_ARGUMENTS;
+        if (args.length < requiredArguments) {
+            throw new IllegalArgumentException("The " + jobType + " job requires " + requiredArguments + " Command Line Arguments");
+        }
+        removeFinishedJobs();
+        final IaJob job = new IaJob(jobType + "-" + jobCount.incrementAndGet() + "-" + System.currentTimeMillis(), jobType, args);
+        jobs.put(job.getJobId(), job);
+        jobPool.submit(job::run);
+        ExecutionLog.info("IA Job " + job.getJobId() + " submitted");
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains("wait=false")) {
+            sendJson(exchange, 202, job.toJson(true));
+        } else {
+            job.await();
+            ExecutionLog.info("IA Job " + job.getJobId() + " finished: " + job.toJson(false).getString("state"));
+            sendJson(exchange, 200, job.toJson(true));
+        }
+    }
+
+    /**
+     * Method to remove the jobs that finished before the retention period
+     */
+    private void removeFinishedJobs() {
+        long retainAfterMillis = System.currentTimeMillis() - retainMillis;
+        Iterator<IaJob> jobIterator = jobs.values().iterator();
+        while (jobIterator.hasNext()) {
+            if (jobIterator.next().isFinishedBefore(retainAfterMillis)) {
+                jobIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Method to handle the /health requests
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException IO Exceptions of the HTTP exchange
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("status", "UP");
+            json.put("jobs", jobs.size());
+            sendJson(exchange, 200, json);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to handle the /metrics requests
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException IO Exceptions of the HTTP exchange
+     */
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = CallMetrics.global().toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to send an error response
+     *
+     * @param exchange   HTTP exchange
+     * @param statusCode HTTP status code
+     * @param message    Error message
+     * @throws IOException IO Exceptions of the HTTP exchange
+     */
+    private static void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("error", message);
+        sendJson(exchange, statusCode, json);
+    }
+
+    /**
+     * Method to send a JSON response
+     *
+     * @param exchange   HTTP exchange
+     * @param statusCode HTTP status code
+     * @param json       JSON Object for the response body
+     * @throws IOException IO Exceptions of the HTTP exchange
+     */
+    private static void sendJson(HttpExchange exchange, int statusCode, JSONObject json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+}
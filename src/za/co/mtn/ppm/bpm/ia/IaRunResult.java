@@ -0,0 +1,78 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.ArrayList;
+
+/**
+ * Class for storing the outcome of a CreateIsDomainFeatures or UpdateFeatures run for one IS PMO Impact Assessment
+ */
+public class IaRunResult {
+    private final String iaRequestId;
+    private final ArrayList<String> featureRequestIds = new ArrayList<>();
+    private int failedCount = 0;
+    private String failureMessage;
+
+    /**
+     * Constructor method for the class storing the run outcome
+     *
+     * @param iaRequestId IS PMO Impact Assessment Request ID
+     */
+    protected IaRunResult(String iaRequestId) {
+        this.iaRequestId = iaRequestId;
+    }
+
+    /**
+     * Method to add the IS PMO Features created or updated by the run
+     *
+     * @param requestIds IS PMO Feature or IS PMO Testing Feature Request IDs
+     */
+    protected void addFeatureRequestIds(ArrayList<String> requestIds) {
+        featureRequestIds.addAll(requestIds);
+    }
+
+    /**
+     * Method to set the number of IS Domains or Features that failed
+     *
+     * @param failedCount    Number of failures
+     * @param failureMessage Message of the run failure
+     */
+    protected void setFailed(int failedCount, String failureMessage) {
+        this.failedCount = failedCount;
+        this.failureMessage = failureMessage;
+    }
+
+    /**
+     * Get method for the IS PMO Impact Assessment Request ID
+     *
+     * @return Request ID string value
+     */
+    protected String getIaRequestId() {
+        return iaRequestId;
+    }
+
+    /**
+     * Get method for the IS PMO Features created or updated by the run
+     *
+     * @return Request IDs string list
+     */
+    protected ArrayList<String> getFeatureRequestIds() {
+        return featureRequestIds;
+    }
+
+    /**
+     * Get method for the number of IS Domains or Features that failed
+     *
+     * @return Failed count
+     */
+    protected int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Method to fail the run if any of the IS Domains or Features failed
+     */
+    protected void throwIfFailed() {
+        if (failedCount > 0) {
+            throw new RuntimeException(failureMessage);
+        }
+    }
+}
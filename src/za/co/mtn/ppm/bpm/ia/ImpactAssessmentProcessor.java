@@ -2,19 +2,15 @@ package za.co.mtn.ppm.bpm.ia;
 
 
 import okhttp3.*;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 import za.co.mtn.ppm.bpm.ismpo.project.IspmoItProjectProcessor;
-import za.co.mtn.ppm.bpm.ismpo.project.ProjectMilestoneValues;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Class that process the creation methods and updating methods of the IS PMO Feature Request from the IS PMO Impact Assessment Request
@@ -23,6 +19,23 @@ public class ImpactAssessmentProcessor {
     // Constant variables for the class
     private static final String PRJ_URL = "project/ViewProject.do?projectId=";
     private static final int TEXT_AREA_HTML_MAX = 4000;
+    // Named queries for the sqlRunner query batches
+    protected static final String QRY_FEATURE_DOMAINS = "FEATURE_DOMAINS";
+    protected static final String QRY_IT_PROJECT = "IT_PROJECT";
+    protected static final String QRY_EPMO_PROJECT = "EPMO_PROJECT";
+    protected static final String QRY_IA_IMPACTED_SYSTEMS = "IA_IMPACTED_SYSTEMS";
+    protected static final String QRY_FEATURES_LINKED_TO_IA = "FEATURES_LINKED_TO_IA";
+    // Shared PPM REST Gateway for all the REST calls of the run
+    private final RestGateway ppmGateway;
+
+    /**
+     * Constructor for the class with the shared PPM REST Gateway
+     *
+     * @param ppmGateway PPM REST Gateway for identifying the PPM environment and the PPM User
+     */
+    protected ImpactAssessmentProcessor(RestGateway ppmGateway) {
+        this.ppmGateway = ppmGateway;
+    }
 
     /**
      * Method to check if a String is Blank or Null
@@ -34,32 +47,6 @@ public class ImpactAssessmentProcessor {
         return string != null && !string.isEmpty() && !string.trim().isEmpty() && !string.equalsIgnoreCase("null");
     }
 
-    /**
-     * Method to write out to the consul
-     *
-     * @param str String to write out
-     */
-    private static void log(final String str) {
-        System.out.println(str);
-    }
-
-    /**
-     * Method to set the SQL string to be used for extracting the Domain list from the Impacted Systems Table Component on the IS PMO Impact Assessment Request
-     *
-     * @param reqId IS PMO Impact Assessment Request ID
-     * @return SQL String with the created SQL statement
-     */
-    private String setImpactedSytemsDomainListSql(String reqId) {
-        // Create the sql string
-        String sql = "SELECT DISTINCT kl.visible_user_data1";
-        sql = sql.concat(" FROM kcrt_table_entries kte").concat(
-                        " INNER JOIN knta_parameter_set_fields kpsf ON kte.parameter_set_field_id = kpsf.parameter_set_field_id AND kpsf.parameter_token LIKE 'SYS_IMPACTED'")
-                .concat(" INNER JOIN knta_lookups kl ON kte.parameter2 = kl.lookup_code AND kl.lookup_type LIKE 'MTN - IS Impacted Systems List'")
-                .concat(" INNER JOIN knta_lookups kldom ON kl.user_data1 = kldom.lookup_code AND kldom.lookup_type LIKE 'MTN - IS Domains List' AND kldom.user_data1 IS NOT NULL");
-        sql = sql.concat(" WHERE kte.request_id = ").concat(reqId);
-        // Return the string
-        return sql;
-    }
 
     /**
      * Method to set the SQL string to be used for extracting the existing IS PMO Features Domains that are linked to the IS PMO Impact Assessment
@@ -188,13 +175,11 @@ public class ImpactAssessmentProcessor {
      */
     private String setIaImpactedSystemsTableSql(String reqId) {
         // Create the sql string
-        String sql = "SELECT nvl(klid.visible_user_data1, 'null') AS oct_workspace, nvl(klid.meaning, 'null') AS is_domain, klis.meaning AS impacted_systems, kte.visible_parameter3 involvement, kte.visible_parameter4 estimate_hrs";
+        // The Impacted System lookup codes are resolved with the LookupCache instead of joining knta_lookups
+        String sql = "SELECT kte.parameter2 AS system_code, kte.visible_parameter3 involvement, kte.visible_parameter4 estimate_hrs";
         sql = sql.concat(" FROM kcrt_table_entries kte")
-                .concat(" INNER JOIN knta_parameter_set_fields kpsf ON kte.parameter_set_field_id = kpsf.parameter_set_field_id AND kpsf.parameter_token LIKE 'SYS_IMPACTED'")
-                .concat(" INNER JOIN knta_lookups klis ON kte.parameter2 = klis.lookup_code AND klis.lookup_type LIKE 'MTN - IS Impacted Systems List'")
-                .concat(" LEFT OUTER JOIN knta_lookups klid ON klis.user_data1 = klid.lookup_code AND klid.lookup_type LIKE 'MTN - IS Domains List'");
+                .concat(" INNER JOIN knta_parameter_set_fields kpsf ON kte.parameter_set_field_id = kpsf.parameter_set_field_id AND kpsf.parameter_token LIKE 'SYS_IMPACTED'");
         sql = sql.concat(" WHERE kte.request_id = ").concat(reqId);
-        sql = sql.concat(" ORDER BY nvl(klid.meaning, 'null') ASC, klis.meaning ASC");
         return sql;
     }
 
@@ -219,148 +204,272 @@ public class ImpactAssessmentProcessor {
     }
 
     /**
-     * Method that use the sqlRunner to get the Impacted System Domains from IS PMO Impact Assessment RT.
+     * Method to set the SQL string to be used for extracting the IS PMO Feature Request IDs referenced from the IS PMO Impact Assessment
+     *
+     * @param reqId IS PMO Impact Assessment Request ID
+     * @return SQL String with the created SQL statement
+     */
+    private String setReferencedFeaturesSql(String reqId) {
+        // Create the sql string
+        String sql = "SELECT DISTINCT krv.target_id";
+        sql = sql.concat(" FROM knta_references_v krv");
+        sql = sql.concat(" WHERE krv.reference_detail LIKE 'IS PMO Feature'").concat(" AND krv.source_entity_id = 20")
+                .concat(" AND krv.source_id = ").concat(reqId);
+        return sql;
+    }
+
+    /**
+     * Method to set the SQL string to be used for extracting the IS PMO Features of the IT Project that are not referenced
+     * from any IS PMO Impact Assessment, e.g. a Feature created by a run that failed before it added the reference
+     *
+     * @param prjId IT Project ID
+     * @return SQL String with the created SQL statement
+     */
+    private String setUnreferencedFeaturesSql(String prjId) {
+        // Create the sql string
+        String sql = "SELECT kr.request_id AS request_id, krhd.visible_parameter2 AS is_domain";
+        sql = sql.concat(" FROM pm_projects pp")
+                .concat(" INNER JOIN kcrt_fg_master_proj_ref kfpr ON pp.project_id = kfpr.ref_master_project_id")
+                .concat(" INNER JOIN kcrt_request_types krt ON kfpr.request_type_id = krt.request_type_id AND krt.reference_code = 'IS_PMO_FEATURE'")
+                .concat(" INNER JOIN kcrt_requests kr ON kfpr.request_id = kr.request_id")
+                .concat(" INNER JOIN kcrt_req_header_details krhd ON kr.request_id = krhd.request_id");
+        sql = sql.concat(" WHERE pp.project_id = ").concat(prjId)
+                .concat(" AND NOT EXISTS (SELECT 1 FROM knta_references_v krv WHERE krv.target_id = kr.request_id")
+                .concat(" AND krv.reference_detail LIKE 'IS PMO Feature' AND krv.source_entity_id = 20)");
+        return sql;
+    }
+
+    /**
+     * Method that use the sqlRunner to run a SQL query and return the column headers and row values.
      * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
      *
-     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
-     * @param username    PPM User for access to the PPM entities.
-     * @param password    PPM User password
-     * @param restUrl     REST API URL for the method
-     * @param iaRequestId IS PMO Impact Assessment request ID
-     * @return String Array list with the Impacted Domains
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL for the method
+     * @param querySql  SQL statement for the query
+     * @return SQL query result with the column headers and row values
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected ArrayList<String> getImpactedSystemDomainsData(String ppmBaseUrl, String username, String password,
-                                                             String restUrl, String iaRequestId) throws IOException, JSONException {
+    protected SqlQueryResult runSqlQuery(String operation, String restUrl, String querySql) throws IOException, JSONException {
         // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
+        String sqlUrl = ppmGateway.getBaseUrl() + restUrl;
+        ExecutionLog.debug(() -> "POST Request Run SQL Query URL: " + sqlUrl);
         // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + setImpactedSytemsDomainListSql(iaRequestId) + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+        String jsonPayload = "{ \"querySql\": \"" + querySql + "\"}";
+        // Execute the POST Request through the shared PPM REST Gateway
+        Response response = ppmGateway.postQueryJson(operation, restUrl, jsonPayload);
+        // Check Response Body
+        assert response.body() != null : "The POST Return Body is Empty";
+        // Decode the "columnHeaders" and "results" tokens in a single pass from the Response Body source
+        SqlQueryResult result;
+        try {
+            result = SqlRunnerDecoder.decode(response.body().source());
+        } finally {
+            // Close the Response body
+            response.close();
         }
+        ExecutionLog.debug(() -> "JSON SQL Return output: " + result.getRows().size() + " row(s) with columns " + result.getColumnHeaders());
+        // Return data as SqlQueryResult
+        return result;
+    }
+
+    /**
+     * Method that use the sqlRunner to run a SQL query and return a cursor that reads the rows while the response is decoded.
+     * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL for the method
+     * @param querySql  SQL statement for the query
+     * @return Cursor before the first row, the cursor must be closed to close the response
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected SqlRowCursor openSqlQuery(String operation, String restUrl, String querySql) throws IOException, JSONException {
+        // REST API URL
+        String sqlUrl = ppmGateway.getBaseUrl() + restUrl;
+        ExecutionLog.debug(() -> "POST Request Run SQL Query URL: " + sqlUrl);
+        // JSON Payload
+        String jsonPayload = "{ \"querySql\": \"" + querySql + "\"}";
+        // Execute the POST Request through the shared PPM REST Gateway
+        Response response = ppmGateway.postQueryJson(operation, restUrl, jsonPayload);
         // Check Response Body
         assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
-        ArrayList<String> result = new ArrayList<>();
-        if (jsonResults.length() != 0) {
-            // Get the "values" token Array from the "results" token Array
-            JSONArray jsonValues = new JSONArray(jsonResults.toString());
-            for (int i = 0; i < jsonValues.length(); i++) {
-                // Convert to an JSONObject to get the data Array
-                JSONTokener tokenerVal = new JSONTokener(jsonValues.get(i).toString());
-                JSONObject jsonVal = new JSONObject(tokenerVal);
-                // Set the JSONArray with the "results" token Array List
-                JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
-                result.add(jsonValue.getString(0));
+        // Decode the response up to the first row
+        try {
+            return new SqlRowCursor(SqlRunnerDecoder.open(response.body().source()), response);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method that use the sqlRunner to run all the named queries of a batch in one round trip.
+     * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
+     *
+     * @param restUrl REST API URL for the method
+     * @param batch   Batch with the named queries
+     * @return Map with the Query Name as Key and the query result as Value
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected HashMap<String, SqlQueryResult> runSqlQueryBatch(String restUrl, SqlQueryBatch batch) throws IOException, JSONException {
+        HashMap<String, SqlQueryResult> results = new HashMap<>();
+        if (batch.size() == 1) {
+            // No need to wrap a single query
+            String queryName = batch.getQueryNames().get(0);
+            results.put(queryName, runSqlQuery(getSqlOperation(queryName), restUrl, batch.getQuerySql(queryName)));
+        } else if (batch.size() > 1) {
+            ExecutionLog.debug(() -> "Running " + batch.size() + " SQL Queries in one batch: " + batch.getQueryNames());
+            results = batch.splitBatchResult(runSqlQuery("sql.batch", restUrl, batch.getBatchSql()));
+        }
+        return results;
+    }
+
+    /**
+     * Method to get the operation name of a named query for the call metrics, e.g. "sql.iaImpactedSystems" for IA_IMPACTED_SYSTEMS
+     *
+     * @param queryName Query Name
+     * @return Operation name
+     */
+    private static String getSqlOperation(String queryName) {
+        StringBuilder operation = new StringBuilder("sql.");
+        boolean upperCase = false;
+        for (char c : queryName.toCharArray()) {
+            if (c == '_') {
+                upperCase = true;
+            } else {
+                operation.append(upperCase ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                upperCase = false;
             }
         }
-        // Close the Response body
-        response.close();
-        // Return data as ArrayList<String>
-        return result;
+        return operation.toString();
+    }
+
+    /**
+     * Method to add the existing IS PMO Feature Domains query of the IS PMO Impact Assessment to a query batch
+     *
+     * @param batch       Batch with the named queries
+     * @param iaRequestId IS PMO Impact Assessment request ID
+     */
+    protected void addFeatureDomainsQuery(SqlQueryBatch batch, String iaRequestId) {
+        batch.addQuery(QRY_FEATURE_DOMAINS, setFeatureDomainListSql(iaRequestId));
+    }
+
+    /**
+     * Method to add the IT Project Information query to a query batch
+     *
+     * @param batch         Batch with the named queries
+     * @param itProjectId   IS PMO Impact Assessment IT Project ID
+     * @param itRequestType IS PMO IT Project Request Type
+     */
+    protected void addItProjectQuery(SqlQueryBatch batch, String itProjectId, String itRequestType) {
+        batch.addQuery(QRY_IT_PROJECT, setItProjectInformationSql(itProjectId, itRequestType));
+    }
+
+    /**
+     * Method to add the EPMO Project Information query to a query batch
+     *
+     * @param batch       Batch with the named queries
+     * @param itProjectId IS PMO Impact Assessment IT Project ID
+     */
+    protected void addEpmoProjectQuery(SqlQueryBatch batch, String itProjectId) {
+        batch.addQuery(QRY_EPMO_PROJECT, setEpmoProjectInformationSql(itProjectId));
+    }
+
+    /**
+     * Method to add the Impacted System Table query of the IS PMO Impact Assessment Request to a query batch
+     *
+     * @param batch       Batch with the named queries
+     * @param iaRequestId IS PMO Impact Assessment Request ID
+     */
+    protected void addIaImpactedSystemsTableQuery(SqlQueryBatch batch, String iaRequestId) {
+        batch.addQuery(QRY_IA_IMPACTED_SYSTEMS, setIaImpactedSystemsTableSql(iaRequestId));
+    }
+
+    /**
+     * Method to add the IS PMO Features and IS PMO Testing Features query of the IT Project to a query batch
+     *
+     * @param batch       Batch with the named queries
+     * @param iaProjectId IT Project ID
+     */
+    protected void addFeaturesLinkedToIaQuery(SqlQueryBatch batch, String iaProjectId) {
+        batch.addQuery(QRY_FEATURES_LINKED_TO_IA, setFeaturesLinkedToIaSql(iaProjectId));
+    }
+
+    /**
+     * Method to check if the IT Project Request Type has an IT Project Information query for the IS PMO Feature creation
+     *
+     * @param itRequestType IS PMO IT Project Request Type
+     * @return Boolean (True or False)
+     */
+    protected boolean isFeatureProjectRequestType(String itRequestType) {
+        return "IS PMO IT-EPMO Project".equals(itRequestType) || "IS PMO IT-KTLO Project".equals(itRequestType)
+                || "IS PMO IT-Reporting and Analytics Project".equals(itRequestType);
+    }
+
+    /**
+     * Method to set the SQL string for the IT Project Information depending on the IT Project Request Type
+     *
+     * @param itProjectId   IS PMO Impact Assessment IT Project ID
+     * @param itRequestType IS PMO IT Project Request Type
+     * @return SQL String with the created SQL statement
+     */
+    private String setItProjectInformationSql(String itProjectId, String itRequestType) {
+        // Set variable for the Query SQL depending on the IT Project Request Type
+        switch (itRequestType) {
+            case "IS PMO IT-EPMO Project":
+                return setItEpmoProjectInformationIspmoFeatureSql(itProjectId);
+            case "IS PMO IT-KTLO Project":
+                return setItKtloProjectInformationIspmoFeatureSql(itProjectId);
+            case "IS PMO IT-Reporting and Analytics Project":
+                return setItReportingAnalyticsProjectInformationIspmoFeatureSql(itProjectId);
+            default:
+                throw new IllegalArgumentException("Invalid request type name: " + itRequestType);
+        }
     }
 
     /**
      * Method that use the sqlRunner to get the existing IS PMO Feature RT(s) linked to the IS PMO Impact Assessment
      * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
      *
-     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
-     * @param username    PPM User for access to the PPM entities.
-     * @param password    PPM User password
      * @param restUrl     REST API URL for the method
      * @param iaRequestId IS PMO Impact Assessment request ID
      * @return String Array list with the Impacted Domains
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected ArrayList<String> getFeatureDomainsData(String ppmBaseUrl, String username, String password,
-                                                      String restUrl, String iaRequestId) throws IOException, JSONException {
-        // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + setFeatureDomainListSql(iaRequestId) + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    protected ArrayList<String> getFeatureDomainsData(String restUrl, String iaRequestId) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.featureDomains", restUrl, setFeatureDomainListSql(iaRequestId))) {
+            return getFirstColumnValues(cursor);
         }
-        // Check Response Body
-        assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
+    }
+
+    /**
+     * Method to get the existing IS PMO Feature Domains from the Feature Domains query result
+     *
+     * @param queryResult Feature Domains query result
+     * @return String Array list with the Feature Domains
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected ArrayList<String> getFeatureDomainsData(SqlQueryResult queryResult) throws IOException, JSONException {
+        return getFirstColumnValues(new SqlRowCursor(queryResult));
+    }
+
+    /**
+     * Method to get the values of the first column of a query result
+     *
+     * @param cursor Cursor before the first row
+     * @return String Array list with the first column values
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private ArrayList<String> getFirstColumnValues(SqlRowCursor cursor) throws IOException, JSONException {
         ArrayList<String> result = new ArrayList<>();
-        if (jsonResults.length() != 0) {
-            // Get the "values" token Array from the "results" token Array
-            JSONArray jsonValues = new JSONArray(jsonResults.toString());
-            for (int i = 0; i < jsonValues.length(); i++) {
-                // Convert to an JSONObject to get the data Array
-                JSONTokener tokenerVal = new JSONTokener(jsonValues.get(i).toString());
-                JSONObject jsonVal = new JSONObject(tokenerVal);
-                // Set the JSONArray with the "results" token Array List
-                JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
-                result.add(jsonValue.getString(0));
-            }
+        while (cursor.next()) {
+            result.add(cursor.getString(0));
         }
-        // Close the Response body
-        response.close();
-        // Return data as ArrayList<String>
         return result;
     }
 
@@ -368,9 +477,6 @@ public class ImpactAssessmentProcessor {
      * Method that use the sqlRunner to get the IS PMO Impact Assessment linked Project Information for the creation of the IS PMO Feature RT
      * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
      *
-     * @param ppmBaseUrl    PPM Base URL for identifying the PPM environment
-     * @param username      PPM User for access to the PPM entities.
-     * @param password      PPM User password
      * @param restUrl       REST API URL for the method
      * @param itProjectId   IS PMO Impact Assessment IT Project ID
      * @param itRequestType IS PMO IT Project Request Type
@@ -378,131 +484,45 @@ public class ImpactAssessmentProcessor {
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected HashMap<String, String> getItProjectData(String ppmBaseUrl, String username, String password,
-                                                       String restUrl, String itProjectId, String itRequestType) throws IOException, JSONException {
-        // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // Set variable for the Query SQL depending on the IT Project Request Type
-        String querySql;
-        switch (itRequestType) {
-            case "IS PMO IT-EPMO Project":
-                querySql = setItEpmoProjectInformationIspmoFeatureSql(itProjectId);
-                break;
-            case "IS PMO IT-KTLO Project":
-                querySql = setItKtloProjectInformationIspmoFeatureSql(itProjectId);
-                break;
-            case "IS PMO IT-Reporting and Analytics Project":
-                querySql = setItReportingAnalyticsProjectInformationIspmoFeatureSql(itProjectId);
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid request type name: " + itRequestType);
+    protected HashMap<String, String> getItProjectData(String restUrl, String itProjectId, String itRequestType) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.itProject", restUrl, setItProjectInformationSql(itProjectId, itRequestType))) {
+            return getItProjectData(cursor);
         }
-        // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + querySql + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    }
+
+    /**
+     * Method to get the IT Project Information from the IT Project query result
+     *
+     * @param queryResult IT Project query result
+     * @return SQL Data as HasMap
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected HashMap<String, String> getItProjectData(SqlQueryResult queryResult) throws IOException, JSONException {
+        return getItProjectData(new SqlRowCursor(queryResult));
+    }
+
+    /**
+     * Method to get the IT Project Information from the first row of the IT Project query
+     *
+     * @param cursor Cursor before the first row
+     * @return SQL Data as HasMap
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private HashMap<String, String> getItProjectData(SqlRowCursor cursor) throws IOException, JSONException {
+        if (!cursor.next()) {
+            throw new IllegalStateException("No IT Project data returned by the SQL Query");
         }
-        // Check Response Body
-        assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "" token Array List
-        JSONArray jsonColumnHeaders = new JSONArray(json.getString("columnHeaders"));
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
-        // Set the "values" token Array from the "results" token Array
-        JSONArray jsonValues = new JSONArray(jsonResults.toString());
-        // Convert to an JSONObject to get the jsonValues Array
-        JSONTokener tokenerVal = new JSONTokener(jsonValues.get(0).toString());
-        JSONObject jsonVal = new JSONObject(tokenerVal);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
+        ArrayList<String> columnHeaders = cursor.getColumnHeaders();
         // Declare HashMap<String, String> result for the return result
         HashMap<String, String> result = new HashMap<>();
-        // Add the jsonColumnHeaders as Keys and jsonValue as Values to the HashMap
-        // Array
-        for (int i = 0; i < jsonColumnHeaders.length(); i++) {
-            if (isNotBlankString(jsonValue.get(i).toString())) {
-                result.put(jsonColumnHeaders.getString(i), jsonValue.get(i).toString());
+        // Add the Column Headers as Keys and the row values as Values to the HashMap
+        for (int i = 0; i < columnHeaders.size(); i++) {
+            if (isNotBlankString(cursor.getString(i))) {
+                result.put(columnHeaders.get(i), cursor.getString(i));
             }
         }
-        // Add the jsonColumnHeaders as Keys and jsonValue as Values to the HashMap
-        // Array
-        // ISPMO_PRJ_NUM
-//        result.put(jsonColumnHeaders.getString(0), jsonValue.getString(0));
-        // ISPMO_PRJ_URL
-//        result.put(jsonColumnHeaders.getString(1), ppmBaseUrl + PRJ_URL + jsonValue.getString(1));
-        // ISPMO_PRJ_PHASE
-//        if (!jsonValue.getString(2).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(2), jsonValue.getString(2));
-//        }
-        // ISPMO_PRJ_STATUS
-//        if (!jsonValue.getString(3).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(3), jsonValue.getString(3));
-//        }
-        // EPMO_PROJECT_NUM
-//        if (!jsonValue.getString(4).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(4), jsonValue.getString(4));
-//        }
-        // ISPMO_PM
-//        if (!jsonValue.getString(5).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(5), jsonValue.getString(5));
-//        }
-        // ISPMO_PRJ_RAG
-//        if (!jsonValue.getString(6).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(6), jsonValue.getString(6));
-//        }
-        // ISPM_EPMO_BUSINESS_UNIT
-//        if (!jsonValue.getString(7).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(7), jsonValue.getString(7));
-//        }
-        // ISPMO_EPMO_SUB_AREA
-//        if (!jsonValue.getString(8).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(8), jsonValue.getString(8));
-//        }
-        // ISPMO_EPMO_BU_PRIORITY
-//        if (!jsonValue.getString(9).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(9), jsonValue.getString(9));
-//        }
-        // ISPMO_EPMO_ORG_PRIORITY
-//        if (!jsonValue.getString(10).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(10), jsonValue.get(10).toString());
-//        }
-        // ISPMO_PROJECT_TYPE
-//        result.put(jsonColumnHeaders.getString(11), jsonValue.getString(11));
-        // ISPMO_PRJ_SHORT_DESC
-//        if (!jsonValue.getString(12).equalsIgnoreCase("null")) {
-//            result.put(jsonColumnHeaders.getString(12), jsonValue.getString(12));
-//        }
-
-        // Close the Response body
-        response.close();
         // Return data as HashMap<String, String>
         return result;
     }
@@ -511,79 +531,55 @@ public class ImpactAssessmentProcessor {
      * Method that use the sqlRunner to get the IS PMO Impact Assessment linked Project's EPMO Project Information for the creation of the IS PMO Feature RT
      * Use POST REST "rest2/sqlRunner/runSqlQuery" to return the data
      *
-     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
-     * @param username    PPM User for access to the PPM entities.
-     * @param password    PPM User password
      * @param restUrl     REST API URL for the method
      * @param itProjectId IS PMO Impact Assessment IT Project ID
      * @return SQL Data as HasMap
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected HashMap<String, String> getEpmoProjectData(String ppmBaseUrl, String username, String password,
-                                                         String restUrl, String itProjectId) throws IOException, JSONException {
-        // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + setEpmoProjectInformationSql(itProjectId) + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    protected HashMap<String, String> getEpmoProjectData(String restUrl, String itProjectId) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.epmoProject", restUrl, setEpmoProjectInformationSql(itProjectId))) {
+            return getEpmoProjectData(cursor);
         }
-        // Check Response Body
-        assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "" token Array List
-        JSONArray jsonColumnHeaders = new JSONArray(json.getString("columnHeaders"));
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
-        // Set the "values" token Array from the "results" token Array
-        JSONArray jsonValues = new JSONArray(jsonResults.toString());
-        // Convert to an JSONObject to get the jsonValues Array
-        JSONTokener tokenerVal = new JSONTokener(jsonValues.get(0).toString());
-        JSONObject jsonVal = new JSONObject(tokenerVal);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
+    }
+
+    /**
+     * Method to get the EPMO Project Information from the EPMO Project query result
+     *
+     * @param queryResult EPMO Project query result
+     * @return SQL Data as HasMap
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected HashMap<String, String> getEpmoProjectData(SqlQueryResult queryResult) throws IOException, JSONException {
+        return getEpmoProjectData(new SqlRowCursor(queryResult));
+    }
+
+    /**
+     * Method to get the EPMO Project Information from the first row of the EPMO Project query
+     *
+     * @param cursor Cursor before the first row
+     * @return SQL Data as HasMap
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private HashMap<String, String> getEpmoProjectData(SqlRowCursor cursor) throws IOException, JSONException {
+        if (!cursor.next()) {
+            throw new IllegalStateException("No EPMO Project data returned by the SQL Query");
+        }
+        ArrayList<String> columnHeaders = cursor.getColumnHeaders();
+        int projectUrlColumn = cursor.getColumnIndex("ISPMO_EPMO_PRJ_URL", 0);
         // Declare HashMap<String, String> result for the return result
         HashMap<String, String> result = new HashMap<>();
-        // Add the jsonColumnHeaders as Keys and jsonValue as Values to the HashMap
-        // Array
-        // ISPMO_EPMO_PRJ_URL
-        result.put(jsonColumnHeaders.getString(0), ppmBaseUrl + PRJ_URL + jsonValue.getString(0));
-        // ISPMO_EPMO_PRJ_NUM
-        result.put(jsonColumnHeaders.getString(1), jsonValue.getString(1));
-        // ISPMO_EPMO_PM
-        result.put(jsonColumnHeaders.getString(2), jsonValue.getString(2));
-        // ISPMO_EPMO_TYPE
-        result.put(jsonColumnHeaders.getString(3), jsonValue.getString(3));
-        // Close the Response body
-        response.close();
+        // Add the Column Headers as Keys and the row values as Values to the HashMap
+        // ISPMO_EPMO_PRJ_URL, ISPMO_EPMO_PRJ_NUM, ISPMO_EPMO_PM and ISPMO_EPMO_TYPE
+        for (int i = 0; i < columnHeaders.size(); i++) {
+            if (i == projectUrlColumn) {
+                result.put(columnHeaders.get(i), ppmGateway.getBaseUrl() + PRJ_URL + cursor.getString(i));
+            } else {
+                result.put(columnHeaders.get(i), cursor.getString(i));
+            }
+        }
         // Return data as HashMap<String, String>
         return result;
     }
@@ -591,147 +587,157 @@ public class ImpactAssessmentProcessor {
     /**
      * Method to get the Impacted System Table data from the IS PMO Impact Assessment Request
      *
-     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
-     * @param username    PPM User for access to the PPM entities.
-     * @param password    PPM User password
      * @param restUrl     REST API URL for the method
      * @param iaRequestId IS PMO Impact Assessment Request
      * @return ArrayList Object with Impacted System Table data
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected ArrayList<ImpactedSystemValues> getIaImpactedSystemsTableData(String ppmBaseUrl, String username, String password,
-                                                                            String restUrl, String iaRequestId) throws IOException, JSONException {
-        // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + setIaImpactedSystemsTableSql(iaRequestId) + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    protected ArrayList<ImpactedSystemValues> getIaImpactedSystemsTableData(String restUrl, String iaRequestId) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.iaImpactedSystems", restUrl, setIaImpactedSystemsTableSql(iaRequestId))) {
+            return resolveImpactedSystems(cursor.mapRows(new ImpactedSystemRowMapper()));
         }
-        // Check Response Body
-        assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
-        ArrayList<ImpactedSystemValues> result = new ArrayList<>();
-        if (jsonResults.length() != 0) {
-            // Get the "values" token Array from the "results" token Array
-            JSONArray jsonValues = new JSONArray(jsonResults.toString());
-            for (int i = 0; i < jsonValues.length(); i++) {
-                // Convert to an JSONObject to get the data Array
-                JSONTokener tokenerVal = new JSONTokener(jsonValues.get(i).toString());
-                JSONObject jsonVal = new JSONObject(tokenerVal);
-                // Set the JSONArray with the "results" token Array List
-                JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
-                result.add(new ImpactedSystemValues(jsonValue.getString(0), jsonValue.getString(1), jsonValue.getString(2), jsonValue.getString(3), jsonValue.getString(4)));
+    }
+
+    /**
+     * Method to get the Impacted System Table data from the Impacted System Table query result
+     *
+     * @param queryResult Impacted System Table query result
+     * @return ArrayList Object with Impacted System Table data
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected ArrayList<ImpactedSystemValues> getIaImpactedSystemsTableData(SqlQueryResult queryResult) throws IOException, JSONException {
+        return resolveImpactedSystems(new SqlRowCursor(queryResult).mapRows(new ImpactedSystemRowMapper()));
+    }
+
+    /**
+     * Method to get the IS Domains and IS Impacted Systems lookups of the PPM environment from the LookupCache
+     *
+     * @return Lookups within the time to live
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected LookupSnapshot getLookups() throws IOException, JSONException {
+        return LookupCache.forEnvironment(ppmGateway.getBaseUrl()).getLookups(this);
+    }
+
+    /**
+     * Method to add the IS Domains and IS Impacted Systems lookup queries to a query batch when the LookupCache has no lookups
+     * within the time to live, so that the lookups are read in the same round trip as the Impacted System Table.
+     * Otherwise only the lookups version query is added, so that a lookup change in PPM is picked up by the run.
+     *
+     * @param batch Batch with the named queries
+     */
+    protected void addLookupQueries(SqlQueryBatch batch) {
+        LookupCache.forEnvironment(ppmGateway.getBaseUrl()).addLookupQueries(batch);
+    }
+
+    /**
+     * Method to set the lookups of the LookupCache from the results of a query batch with the lookup queries, the lookups
+     * are read again when the lookups version in the results shows a lookup change in PPM
+     *
+     * @param batchResults Results of the query batch
+     * @param readMillis   Point in time the query batch was sent
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected void setLookups(HashMap<String, SqlQueryResult> batchResults, long readMillis) throws IOException, JSONException {
+        LookupCache.forEnvironment(ppmGateway.getBaseUrl()).setLookups(this, batchResults, readMillis);
+    }
+
+    /**
+     * Method to set the IS Domain, Impacted System and Octane Workspace of the Impacted System Table rows from the lookups.
+     * The lookups are reloaded once when a lookup code is not found, rows with an unknown lookup code are left out.
+     * The rows are sorted by IS Domain and Impacted System.
+     *
+     * @param systemCodeRows Impacted System Table rows with the lookup code only
+     * @return ArrayList Object with Impacted System Table data
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private ArrayList<ImpactedSystemValues> resolveImpactedSystems(ArrayList<ImpactedSystemValues> systemCodeRows) throws IOException, JSONException {
+        LookupSnapshot lookups = getLookups();
+        for (ImpactedSystemValues systemCodeRow : systemCodeRows) {
+            if (lookups.getImpactedSystem(systemCodeRow.getSystemCode()) == null) {
+                lookups = LookupCache.forEnvironment(ppmGateway.getBaseUrl()).reload(this, lookups);
+                break;
             }
         }
-
-        response.close();
-        // Return data as HashMap<String, String>
+        ArrayList<ImpactedSystemValues> result = new ArrayList<>(systemCodeRows.size());
+        for (ImpactedSystemValues systemCodeRow : systemCodeRows) {
+            ImpactedSystemLookup lookup = lookups.getImpactedSystem(systemCodeRow.getSystemCode());
+            if (lookup == null) {
+                ExecutionLog.info("Impacted System lookup code not found: " + systemCodeRow.getSystemCode());
+            } else {
+                result.add(systemCodeRow.withLookup(lookup));
+            }
+        }
+        result.sort(Comparator.comparing(ImpactedSystemValues::getIsDomain).thenComparing(ImpactedSystemValues::getImpactedSystem));
         return result;
     }
 
     /**
      * Method to get the IS PMO Features and IS PMO Testing Features linked to the IT Project
      *
-     * @param ppmBaseUrl  PPM Base URL for identifying the PPM environment
-     * @param username    PPM User for access to the PPM entities.
-     * @param password    PPM User password
      * @param restUrl     REST API URL for the method
      * @param iaProjectId IT Project ID
      * @return ArrayList Object with IS PMO Features and IS PMO Testing Features
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected ArrayList<FeatureValues> getFeaturesLinkedToIaData(String ppmBaseUrl, String username, String password,
-                                                                 String restUrl, String iaProjectId) throws IOException, JSONException {
-        // REST API URL
-        String sqlUrl = ppmBaseUrl + restUrl;
-        log("POST Request Run SQL Query URL: " + sqlUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload = "{ \"querySql\": \"" + setFeaturesLinkedToIaSql(iaProjectId) + "\"}";
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(sqlUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    protected ArrayList<FeatureValues> getFeaturesLinkedToIaData(String restUrl, String iaProjectId) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.featuresLinkedToIa", restUrl, setFeaturesLinkedToIaSql(iaProjectId))) {
+            return cursor.mapRows(new FeatureRowMapper());
         }
-        // Check Response Body
-        assert response.body() != null : "The POST Return Body is Empty";
-        // Set the JSONObject from the Response Body
-        JSONObject json = new JSONObject(response.body().string());
-        log("JSON SQL Return output: " + json);
-        // Set the JSONArray with the "results" token Array List
-        JSONArray jsonResults = new JSONArray(json.getString("results"));
-        ArrayList<FeatureValues> result = new ArrayList<>();
-        if (jsonResults.length() != 0) {
-            // Get the "values" token Array from the "results" token Array
-            JSONArray jsonValues = new JSONArray(jsonResults.toString());
-            for (int i = 0; i < jsonValues.length(); i++) {
-                // Convert to an JSONObject to get the data Array
-                JSONTokener tokenerVal = new JSONTokener(jsonValues.get(i).toString());
-                JSONObject jsonVal = new JSONObject(tokenerVal);
-                // Set the JSONArray with the "results" token Array List
-                JSONArray jsonValue = new JSONArray(jsonVal.getString("values"));
-                result.add(new FeatureValues(jsonValue.getString(0), jsonValue.getString(1), jsonValue.get(2).toString()));
-            }
+    }
+
+    /**
+     * Method to get the IS PMO Feature Request IDs referenced from the IS PMO Impact Assessment
+     *
+     * @param restUrl     REST API URL for the method
+     * @param iaRequestId IS PMO Impact Assessment Request ID
+     * @return String Array list with the referenced IS PMO Feature Request IDs
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected ArrayList<String> getReferencedFeatureRequestIds(String restUrl, String iaRequestId) throws IOException, JSONException {
+        try (SqlRowCursor cursor = openSqlQuery("sql.referencedFeatures", restUrl, setReferencedFeaturesSql(iaRequestId))) {
+            return getFirstColumnValues(cursor);
         }
+    }
 
-        response.close();
-        // Return data as HashMap<String, String>
+    /**
+     * Method to get the IS PMO Features of the IT Project that are not referenced from any IS PMO Impact Assessment
+     *
+     * @param restUrl     REST API URL for the method
+     * @param iaProjectId IT Project ID
+     * @return IS Domain as Key and the unreferenced IS PMO Feature Request IDs of the Domain as Value
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected HashMap<String, ArrayList<String>> getUnreferencedFeatures(String restUrl, String iaProjectId) throws IOException, JSONException {
+        HashMap<String, ArrayList<String>> result = new HashMap<>();
+        try (SqlRowCursor cursor = openSqlQuery("sql.unreferencedFeatures", restUrl, setUnreferencedFeaturesSql(iaProjectId))) {
+            while (cursor.next()) {
+                result.computeIfAbsent(cursor.getString(1), isDomain -> new ArrayList<>()).add(cursor.getString(0));
+            }
+        }
         return result;
     }
 
+    /**
+     * Method to get the IS PMO Features and IS PMO Testing Features from the linked Features query result
+     *
+     * @param queryResult Linked Features query result
+     * @return ArrayList Object with IS PMO Features and IS PMO Testing Features
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected ArrayList<FeatureValues> getFeaturesLinkedToIaData(SqlQueryResult queryResult) throws IOException, JSONException {
+        return new SqlRowCursor(queryResult).mapRows(new FeatureRowMapper());
+    }
+
     /**
      * Method to get the list of Domains that does not have a IS PMO Feature RT created for the linked IS PMO Impact Assessment RT
      *
@@ -766,11 +772,11 @@ public class ImpactAssessmentProcessor {
      * @param iaIsDomain             Domain identifier for the IS PMO Feature Request Creation
      * @param itProjectData          IS PMO Impact Assessment linked IT Project Data
      * @param epmoPrjData            IS PMO Impact Assessment linked IT Project's EPMO Project Data
-     * @param itProjectMilestoneData IS PMO Impact Assessment linked IT Project Milestone Data
+     * @param itProjectMilestoneHtml IS PMO Impact Assessment linked IT Project Milestones HTML
      * @return JSON Payload
      */
-    private JSONObject setJsonObjectItEpmoCreateRequestType(String baseUrl, String iaRequestId, String iaProjectName, String iaIsDomain,
-                                                            HashMap<String, String> itProjectData, HashMap<String, String> epmoPrjData, ArrayList<ProjectMilestoneValues> itProjectMilestoneData) throws ParseException, JSONException {
+    private RequestFieldsPayload setJsonObjectItEpmoCreateRequestType(String baseUrl, String iaRequestId, String iaProjectName, String iaIsDomain,
+                                                            HashMap<String, String> itProjectData, HashMap<String, String> epmoPrjData, String itProjectMilestoneHtml) throws JSONException {
         // Set the Token Prefix variables (RT Header or RT Details)
         final String headerFieldPrefix = "REQ.";
         final String detailsFieldPrefix = "REQD.";
@@ -779,48 +785,41 @@ public class ImpactAssessmentProcessor {
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
         // Date of processing
         Date date = new Date();
+        // Set the Field list for the IS PMO Feature Request dynamically depending on the data
+        RequestFieldsPayload payload = new RequestFieldsPayload("INTERFACE_RI", "IS PMO Feature");
         // Start with the required fields to create the IS POMO Feature
         // RT Token: LAST_UPDATE_DATE
-        JSONObject tokensLastUpdateDateObj = new JSONObject();
-        tokensLastUpdateDateObj.put("token", "REQ.LAST_UPDATE_DATE");
-        tokensLastUpdateDateObj.put("dateValue", formatter.format(date));
+        payload.addDateField("REQ.LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: ENTITY_LAST_UPDATE_DATE
-        JSONObject tokenEntityLastUpdateDateObj = new JSONObject();
-        tokenEntityLastUpdateDateObj.put("token", "REQ.ENTITY_LAST_UPDATE_DATE");
-        tokenEntityLastUpdateDateObj.put("dateValue", formatter.format(date));
-        // Set the Field Array for the IS PMO Feature Request dynamically depending on the data
-        JSONArray fieldArray = new JSONArray();
-        fieldArray.put(tokensLastUpdateDateObj);
-        fieldArray.put(tokenEntityLastUpdateDateObj);
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: KNTA_MASTER_PROJ_REF
-        fieldArray.put(setRequestFieldJsonObj(headerFieldPrefix + "KNTA_MASTER_PROJ_REF", iaProjectName));
+        payload.addStringField(headerFieldPrefix + "KNTA_MASTER_PROJ_REF", iaProjectName);
         // IMPACT_ASSESSMENT_NUM
-        fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "IMPACT_ASSESSMENT_NUM", iaRequestId));
+        payload.addStringField(detailsFieldPrefix + "IMPACT_ASSESSMENT_NUM", iaRequestId);
         // IS_DOMAIN
-        fieldArray.put(setRequestFieldJsonObj(headerFieldPrefix + "IS_DOMAIN", iaIsDomain));
+        payload.addStringField(headerFieldPrefix + "IS_DOMAIN", iaIsDomain);
         // Start to set the EPMO Project Fields section
         // ISPMO_EPMO_PRJ_URL
         if (!epmoPrjData.isEmpty() && epmoPrjData.containsKey("ISPMO_EPMO_PRJ_URL")) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_EPMO_PRJ_URL", epmoPrjData.get("ISPMO_EPMO_PRJ_URL")));
+            payload.addStringField(detailsFieldPrefix + "ISPMO_EPMO_PRJ_URL", epmoPrjData.get("ISPMO_EPMO_PRJ_URL"));
         }
         // ISPMO_EPMO_PRJ_NUM
         if (!epmoPrjData.isEmpty() && epmoPrjData.containsKey("ISPMO_EPMO_PRJ_NUM")) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_EPMO_PRJ_NUM", epmoPrjData.get("ISPMO_EPMO_PRJ_NUM")));
+            payload.addStringField(detailsFieldPrefix + "ISPMO_EPMO_PRJ_NUM", epmoPrjData.get("ISPMO_EPMO_PRJ_NUM"));
         }
         // ISPMO_EPMO_PM
         if (!epmoPrjData.isEmpty() && epmoPrjData.containsKey("ISPMO_EPMO_PM")) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_EPMO_PM", epmoPrjData.get("ISPMO_EPMO_PM")));
+            payload.addStringField(detailsFieldPrefix + "ISPMO_EPMO_PM", epmoPrjData.get("ISPMO_EPMO_PM"));
         }
         // ISPMO_EPMO_TYPE
         if (!epmoPrjData.isEmpty() && epmoPrjData.containsKey("ISPMO_EPMO_TYPE")) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_EPMO_TYPE", epmoPrjData.get("ISPMO_EPMO_TYPE")));
+            payload.addStringField(detailsFieldPrefix + "ISPMO_EPMO_TYPE", epmoPrjData.get("ISPMO_EPMO_TYPE"));
         }
         // End setting the EPMO Project Fields section
         // Set the HTML String for the IT Project Milestones
         IspmoItProjectProcessor projectProcessor = new IspmoItProjectProcessor();
-        String projectMilestoneString = projectProcessor.setProjectMilestoneHtml(itProjectMilestoneData);
-        if (isNotBlankString(projectMilestoneString)) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_MILESTONES", projectMilestoneString));
+        if (isNotBlankString(itProjectMilestoneHtml)) {
+            payload.addStringField(detailsFieldPrefix + "ISPMO_MILESTONES", itProjectMilestoneHtml);
         }
         // Start to set the IT Project Fields section
         // Iterate through the IT Project Fields
@@ -834,27 +833,19 @@ public class ImpactAssessmentProcessor {
                 // Set variable for the IT Project Name to be used for the Feature Description
                 featureDescription = projectProcessor.setFeatureDescription(itProjectData.get("ISPMO_PRJ_NUM"), iaProjectName, itProjectData.get("EPMO_PROJECT_NUM"));
                 // Add the IS PMO Feature Description Field
-                fieldArray.put(projectProcessor.setRequestFieldJsonObj(headerFieldPrefix + "DESCRIPTION", featureDescription));
+                payload.addStringField(headerFieldPrefix + "DESCRIPTION", featureDescription);
                 // Add the IT Project URL Field
-                fieldArray.put(projectProcessor.setRequestFieldJsonObj(detailsFieldPrefix + featureKey, baseUrl + PRJ_URL + featureFieldValue));
+                payload.addStringField(detailsFieldPrefix + featureKey, baseUrl + PRJ_URL + featureFieldValue);
             } else {
                 // All Other Feature Field
                 // Check if the Feature Value is blank/null
                 if (isNotBlankString(featureFieldValue)) {
-                    fieldArray.put(projectProcessor.setRequestFieldJsonObj(detailsFieldPrefix + featureKey, featureFieldValue));
+                    payload.addStringField(detailsFieldPrefix + featureKey, featureFieldValue);
                 }
             }
         }
         // End setting the IT Project Fields section
-        // Set the Field Object
-        JSONObject fieldObj = new JSONObject();
-        fieldObj.put("field", fieldArray);
-        // Full JSON Object - Top Level
-        JSONObject jsonObj = new JSONObject();
-        jsonObj.put("fields", fieldObj);
-        jsonObj.put("sourceType", "INTERFACE_RI");
-        jsonObj.put("requestType", "IS PMO Feature");
-        return jsonObj;
+        return payload;
     }
 
     /**
@@ -866,11 +857,11 @@ public class ImpactAssessmentProcessor {
      * @param iaProjectName          IS PMO Impact Assessment linked IT Project
      * @param iaIsDomain             Domain identifier for the IS PMO Feature Request Creation
      * @param itProjectData          IS PMO Impact Assessment linked IT Project Data
-     * @param itProjectMilestoneData IS PMO Impact Assessment linked IT Project Milestone Data
+     * @param itProjectMilestoneHtml IS PMO Impact Assessment linked IT Project Milestones HTML
      * @return JSON Payload
      */
-    private JSONObject setJsonObjectNoneEpmoCreateRequestType(String baseUrl, String iaRequestId, String iaProjectName, String iaIsDomain,
-                                                              HashMap<String, String> itProjectData, ArrayList<ProjectMilestoneValues> itProjectMilestoneData) throws ParseException, JSONException {
+    private RequestFieldsPayload setJsonObjectNoneEpmoCreateRequestType(String baseUrl, String iaRequestId, String iaProjectName, String iaIsDomain,
+                                                              HashMap<String, String> itProjectData, String itProjectMilestoneHtml) throws JSONException {
         // Set the Token Prefix variables (RT Header or RT Details)
         final String headerFieldPrefix = "REQ.";
         final String detailsFieldPrefix = "REQD.";
@@ -879,30 +870,23 @@ public class ImpactAssessmentProcessor {
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
         // Date of processing
         Date date = new Date();
+        // Set the Field list for the IS PMO Feature Request dynamically depending on the data
+        RequestFieldsPayload payload = new RequestFieldsPayload("INTERFACE_RI", "IS PMO Feature");
         // Start with the required fields to create the IS POMO Feature
         // RT Token: LAST_UPDATE_DATE
-        JSONObject tokensLastUpdateDateObj = new JSONObject();
-        tokensLastUpdateDateObj.put("token", "REQ.LAST_UPDATE_DATE");
-        tokensLastUpdateDateObj.put("dateValue", formatter.format(date));
+        payload.addDateField("REQ.LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: ENTITY_LAST_UPDATE_DATE
-        JSONObject tokenEntityLastUpdateDateObj = new JSONObject();
-        tokenEntityLastUpdateDateObj.put("token", "REQ.ENTITY_LAST_UPDATE_DATE");
-        tokenEntityLastUpdateDateObj.put("dateValue", formatter.format(date));
-        // Set the Field Array for the IS PMO Feature Request dynamically depending on the data
-        JSONArray fieldArray = new JSONArray();
-        fieldArray.put(tokensLastUpdateDateObj);
-        fieldArray.put(tokenEntityLastUpdateDateObj);
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: KNTA_MASTER_PROJ_REF
-        fieldArray.put(setRequestFieldJsonObj(headerFieldPrefix + "KNTA_MASTER_PROJ_REF", iaProjectName));
+        payload.addStringField(headerFieldPrefix + "KNTA_MASTER_PROJ_REF", iaProjectName);
         // IMPACT_ASSESSMENT_NUM
-        fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "IMPACT_ASSESSMENT_NUM", iaRequestId));
+        payload.addStringField(detailsFieldPrefix + "IMPACT_ASSESSMENT_NUM", iaRequestId);
         // IS_DOMAIN
-        fieldArray.put(setRequestFieldJsonObj(headerFieldPrefix + "IS_DOMAIN", iaIsDomain));
+        payload.addStringField(headerFieldPrefix + "IS_DOMAIN", iaIsDomain);
         // Set the HTML String for the IT Project Milestones
         IspmoItProjectProcessor projectProcessor = new IspmoItProjectProcessor();
-        String projectMilestoneString = projectProcessor.setProjectMilestoneHtml(itProjectMilestoneData);
-        if (isNotBlankString(projectMilestoneString)) {
-            fieldArray.put(setRequestFieldJsonObj(detailsFieldPrefix + "ISPMO_MILESTONES", projectMilestoneString));
+        if (isNotBlankString(itProjectMilestoneHtml)) {
+            payload.addStringField(detailsFieldPrefix + "ISPMO_MILESTONES", itProjectMilestoneHtml);
         }
         // Start to set the IT Project Fields section
         // Iterate through the IT Project Fields
@@ -916,53 +900,24 @@ public class ImpactAssessmentProcessor {
                 // Set variable for the IT Project Name to be used for the Feature Description
                 featureDescription = projectProcessor.setFeatureDescription(itProjectData.get("ISPMO_PRJ_NUM"), iaProjectName);
                 // Add the IS PMO Feature Description Field
-                fieldArray.put(projectProcessor.setRequestFieldJsonObj(headerFieldPrefix + "DESCRIPTION", featureDescription));
+                payload.addStringField(headerFieldPrefix + "DESCRIPTION", featureDescription);
                 // Add the IT Project URL Field
-                fieldArray.put(projectProcessor.setRequestFieldJsonObj(detailsFieldPrefix + featureKey, baseUrl + PRJ_URL + featureFieldValue));
+                payload.addStringField(detailsFieldPrefix + featureKey, baseUrl + PRJ_URL + featureFieldValue);
             } else {
                 // All Other Feature Field
                 // Check if the Feature Value is blank/null
                 if (isNotBlankString(featureFieldValue)) {
-                    fieldArray.put(projectProcessor.setRequestFieldJsonObj(detailsFieldPrefix + featureKey, featureFieldValue));
+                    payload.addStringField(detailsFieldPrefix + featureKey, featureFieldValue);
                 }
             }
         }
         // End setting the IT Project Fields section
-        // Set the Field Object
-        JSONObject fieldObj = new JSONObject();
-        fieldObj.put("field", fieldArray);
-        // Full JSON Object - Top Level
-        JSONObject jsonObj = new JSONObject();
-        jsonObj.put("fields", fieldObj);
-        jsonObj.put("sourceType", "INTERFACE_RI");
-        jsonObj.put("requestType", "IS PMO Feature");
-        return jsonObj;
-    }
-
-    /**
-     * Method to set the JSON Request Field Object for String Values
-     *
-     * @param strToken Token of the Request Field
-     * @param strValue String Value Array
-     * @return the JSONObject for the Request Field Object
-     */
-    private JSONObject setRequestFieldJsonObj(String strToken, String strValue) throws JSONException {
-        // Declare the Request Field Object
-        JSONObject requestFieldObj = new JSONObject();
-        requestFieldObj.put("token", strToken);
-        // Declare and Instantiate the strValue Array
-        JSONArray stringValueArray = new JSONArray();
-        stringValueArray.put(strValue);
-        requestFieldObj.put("stringValue", stringValueArray);
-        return requestFieldObj;
+        return payload;
     }
 
     /**
      * Method that create the IS PMO Feature per IS Domain
      *
-     * @param ppmBaseUrl    PPM Base URL for identifying the PPM environment
-     * @param username      PPM User for access to the PPM entities.
-     * @param password      PPM User password
      * @param restUrl       REST API URL for the method
      * @param iaRequestId   IS PMO Impact Assessment Request ID
      * @param iaProjectName IS PMO Impact Assessment linked IT Project
@@ -972,64 +927,39 @@ public class ImpactAssessmentProcessor {
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected String createIspmoFeatureRequest(String ppmBaseUrl, String username, String password, String restUrl, String iaRequestId, String iaProjectName, String iaDomain, String iaProjectRequestType, HashMap<String, String> itProjectData, HashMap<String, String> epmoPrjData, ArrayList<ProjectMilestoneValues> itProjectMilestonesArrayList) throws IOException, JSONException, ParseException {
+    protected String createIspmoFeatureRequest(String restUrl, String iaRequestId, String iaProjectName, String iaDomain, String iaProjectRequestType, HashMap<String, String> itProjectData, HashMap<String, String> epmoPrjData, String itProjectMilestoneHtml) throws IOException, JSONException {
 
         // REST API URL
-        String requestUrl = ppmBaseUrl + restUrl;
-        log("<p stryle=\"margin-left:1px\">");
-        log("POST Request Creating RT URL: " + requestUrl);
-        log("</p><br>");
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the POST RRequest and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload;
+        String requestUrl = ppmGateway.getBaseUrl() + restUrl;
+        ExecutionLog.info("<p stryle=\"margin-left:1px\">");
+        ExecutionLog.info("POST Request Creating RT URL: " + requestUrl);
+        ExecutionLog.info("</p><br>");
+        // JSON Payload, written into the Request Body when the request is sent
+        RequestFieldsPayload jsonPayload;
         switch (iaProjectRequestType) {
             case "IS PMO IT-EPMO Project":
-                jsonPayload = setJsonObjectItEpmoCreateRequestType(ppmBaseUrl, iaRequestId, iaProjectName, iaDomain, itProjectData, epmoPrjData, itProjectMilestonesArrayList).toString();
+                jsonPayload = setJsonObjectItEpmoCreateRequestType(ppmGateway.getBaseUrl(), iaRequestId, iaProjectName, iaDomain, itProjectData, epmoPrjData, itProjectMilestoneHtml);
                 break;
             case "IS PMO IT-KTLO Project":
             case "IS PMO IT-Reporting and Analytics Project":
-                jsonPayload = setJsonObjectNoneEpmoCreateRequestType(ppmBaseUrl, iaRequestId, iaProjectName, iaDomain, itProjectData, itProjectMilestonesArrayList).toString();
+                jsonPayload = setJsonObjectNoneEpmoCreateRequestType(ppmGateway.getBaseUrl(), iaRequestId, iaProjectName, iaDomain, itProjectData, itProjectMilestoneHtml);
                 break;
             default:
                 throw new IllegalArgumentException("Invalid request type name: " + iaProjectRequestType);
         }
-        log("<p stryle=\"margin-left:1px\">");
-        log("Create IS PMO Feature Pay Load: " + jsonPayload);
-        log("<hr></p><br>");
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(requestUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
-        }
+        ExecutionLog.debug("<p stryle=\"margin-left:1px\">");
+        jsonPayload.log("Create IS PMO Feature Pay Load: ");
+        ExecutionLog.debug("<hr></p><br>");
+        // Execute the POST Request through the shared PPM REST Gateway
+        Response response = ppmGateway.postJson("req.create", restUrl, jsonPayload);
 
         // JSONTokener - Set all the JSON keys as a token from the Json Return string.
         assert response.body() != null : "The POST Return Body is Empty";
         // Set the JSONObject from the Response Body
         JSONObject json = new JSONObject(response.body().string());
-        log("<p stryle=\"margin-left:1px\">");
-        log("Successful POST response output Updating RT: " + json);
-        log("<hr></p><br>");
+        ExecutionLog.debug("<p stryle=\"margin-left:1px\">");
+        ExecutionLog.debug(() -> "Successful POST response output Updating RT: " + json);
+        ExecutionLog.debug("<hr></p><br>");
         // Disconnect the connection
         response.close();
         // Return String with Request ID
@@ -1039,41 +969,20 @@ public class ImpactAssessmentProcessor {
     /**
      * Method to set the reference between request types with relationship information
      *
-     * @param ppmBaseUrl       PPM Base URL for identifying the PPM environment
-     * @param username         PPM User for access to the PPM entities.
-     * @param password         PPM User password
+     * @param restUrl          REST API URL for the method
      * @param sourceRequestId  IS PMO Impact Assessment Request ID
      * @param targetRequestIds IS PMO Feature Request IDs
      * @param relationshipCode Relationship indications
      * @throws IOException IO Exceptions are thrown up to the main class method
      */
-    protected void setRequestReference(String ppmBaseUrl, String username, String password, String restUrl, String sourceRequestId, String targetRequestIds, String relationshipCode) throws IOException {
+    protected void setRequestReference(String restUrl, String sourceRequestId, String targetRequestIds, String relationshipCode) throws IOException {
         // Rest URL
-        String putRequestUrl = ppmBaseUrl + restUrl + "/" + sourceRequestId + "/addReference/" + targetRequestIds + "/" + relationshipCode + "?refRelName=" + relationshipCode;
-        log("PUT Request Reference RT URL: " + putRequestUrl);
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("text/plain");
-        RequestBody body = RequestBody.create(mediaType, "");
-        Request request = new Request.Builder()
-                .url(putRequestUrl)
-                .addHeader("Ephemeral", "true")
-                .addHeader("Authorization", authHeader)
-                .put(body)
-                .build();
-        Response response = client.newCall(request).execute();
-        if (response.isSuccessful()) {
-            log("Request Reference PUT Response: References Successfully Added");
-        } else {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
-        }
+        String referenceUrl = restUrl + "/" + sourceRequestId + "/addReference/" + targetRequestIds + "/" + relationshipCode + "?refRelName=" + relationshipCode;
+        ExecutionLog.info("PUT Request Reference RT URL: " + ppmGateway.getBaseUrl() + referenceUrl);
+        // Execute the PUT Request through the shared PPM REST Gateway, addReference is not sent again after a failure
+        // as the references of a call without a response may already be added
+        Response response = ppmGateway.putEmpty("req.reference", referenceUrl, false);
+        ExecutionLog.info("Request Reference PUT Response: References Successfully Added");
 
         response.close();
     }
@@ -1081,63 +990,36 @@ public class ImpactAssessmentProcessor {
     /**
      * Method to generate the JSON Payload for the updating of the IS PMO Feature or IS PMO Testing Feature Request
      *
-     * @param impactedSystemsObjArray    Impacted System Table values for the Domain
-     * @param allImpactedSystemsObjArray All Impacted System Table data
-     * @return Json Object with the payload
+     * @param impactedSystemsString Impacted Systems semicolon separated String for the Domain
+     * @param involvementTable      Involvement HTML table for the Domain
+     * @param allInvolvementTable   Involvement HTML table for all the Domains
+     * @return JSON Payload
      */
-    private JSONObject setJsonObjectUpdateFeatureRequestTypeImpactedSystemFields(ArrayList<ImpactedSystemValues> impactedSystemsObjArray, ArrayList<ImpactedSystemValues> allImpactedSystemsObjArray) throws JSONException {
+    private RequestFieldsPayload setJsonObjectUpdateFeatureRequestTypeImpactedSystemFields(String impactedSystemsString, InvolvementHtmlTable involvementTable, InvolvementHtmlTable allInvolvementTable) {
         // Get the current date and time in "yyyy-MM-dd'T'HH:mm:ss" format" No need to
         // include include the micro seconds and timezone
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
         // Date of processing
         Date date = new Date();
+        // Set the Field list for the IS PMO Feature Request dynamically depending on the data
+        RequestFieldsPayload payload = new RequestFieldsPayload();
         // Start with the required fields to create the IS POMO Feature
         // RT Token: LAST_UPDATE_DATE
-        JSONObject tokensLastUpdateDateObj = new JSONObject();
-        tokensLastUpdateDateObj.put("token", "REQ.LAST_UPDATE_DATE");
-        tokensLastUpdateDateObj.put("dateValue", formatter.format(date));
+        payload.addDateField("REQ.LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: ENTITY_LAST_UPDATE_DATE
-        JSONObject tokenEntityLastUpdateDateObj = new JSONObject();
-        tokenEntityLastUpdateDateObj.put("token", "REQ.ENTITY_LAST_UPDATE_DATE");
-        tokenEntityLastUpdateDateObj.put("dateValue", formatter.format(date));
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", formatter.format(date));
         // RT Token: ISPMO_IMPACTED_SYSTEMS
-        JSONObject tokenImpactedSystemsObj = new JSONObject();
-        tokenImpactedSystemsObj.put("token", "REQD.ISPMO_IMPACTED_SYSTEMS");
-        // Set the stringValue Array for the Impacted Systems
-        JSONArray stringValueImpactedSystemsArray = new JSONArray();
-        String impactedSystemsString = setImpactedSystemString(impactedSystemsObjArray);
-        stringValueImpactedSystemsArray.put(impactedSystemsString);
-        tokenImpactedSystemsObj.put("stringValue", stringValueImpactedSystemsArray);
+        payload.addStringField("REQD.ISPMO_IMPACTED_SYSTEMS", impactedSystemsString);
         // RT Token: ISPMO_INVOLVEMENTS
-        JSONObject tokenInvolvementObj = new JSONObject();
-        tokenInvolvementObj.put("token", "REQD.ISPMO_INVOLVEMENTS");
-        // Set the stringValue Array for the Involvement
-        JSONArray stringValueInvolvementArray = new JSONArray();
-        String involvementString = setDomainInvolvementHtml(impactedSystemsObjArray);
-        stringValueInvolvementArray.put(involvementString);
-        tokenInvolvementObj.put("stringValue", stringValueInvolvementArray);
+        payload.addStringField("REQD.ISPMO_INVOLVEMENTS", involvementTable.getHtml());
         // RT Token: IS_DOMAIN_INVOLVEMENTS
-        JSONObject tokenAllInvolvementObj = new JSONObject();
-        tokenAllInvolvementObj.put("token", "REQD.IS_DOMAIN_INVOLVEMENTS");
-        // Set the stringValue Array for the Involvement
-        JSONArray stringValueAllInvolvementArray = new JSONArray();
-        String allInvolvementString = setDomainInvolvementHtml(allImpactedSystemsObjArray);
-        stringValueAllInvolvementArray.put(allInvolvementString);
-        tokenAllInvolvementObj.put("stringValue", stringValueAllInvolvementArray);
-        // Set the Field Array for the IS PMO Feature Request dynamically depending on the data
-        JSONArray fieldArray = new JSONArray();
-        fieldArray.put(tokensLastUpdateDateObj);
-        fieldArray.put(tokenEntityLastUpdateDateObj);
-        fieldArray.put(tokenImpactedSystemsObj);
-        fieldArray.put(tokenInvolvementObj);
-        fieldArray.put(tokenAllInvolvementObj);
-        // Set the Field Object
-        JSONObject fieldObj = new JSONObject();
-        fieldObj.put("field", fieldArray);
-        // Full JSON Object - Top Level
-        JSONObject jsonObj = new JSONObject();
-        jsonObj.put("fields", fieldObj);
-        return jsonObj;
+        payload.addStringField("REQD.IS_DOMAIN_INVOLVEMENTS", allInvolvementTable.getHtml());
+        // RT Tokens of the spill fields, always set for the SPILL overflow policy so that the rows of a previous update are cleared
+        if (InvolvementHtmlTable.isSpillPolicy()) {
+            payload.addStringField(InvolvementHtmlTable.getSpillToken(), involvementTable.getSpillHtml());
+            payload.addStringField(InvolvementHtmlTable.getAllSpillToken(), allInvolvementTable.getSpillHtml());
+        }
+        return payload;
     }
 
     /**
@@ -1147,74 +1029,63 @@ public class ImpactAssessmentProcessor {
      * - Involvement Across All Delivery Areas (IS Domains)
      * - IT Project Milestones
      *
-     * @param ppmBaseUrl          PPM Base URL for identifying the PPM environment
-     * @param username            PPM User for access to the PPM entities.
-     * @param password            PPM User password
-     * @param restUrl             REST API URL for the method
-     * @param featureReqId        IS PMO Feature or IS PMO Testing Feature Request Id
-     * @param isValuesObjArray    Impacted System Table values for the Domain
-     * @param isAllValuesObjArray All Impacted System Table data
+     * The field values are rendered by the caller, so that the values shared by many Features are rendered once per run.
+     *
+     * @param restUrl               REST API URL for the method
+     * @param featureReqId          IS PMO Feature or IS PMO Testing Feature Request Id
+     * @param impactedSystemsString Impacted Systems semicolon separated String for the Domain
+     * @param involvementTable      Involvement HTML table for the Domain
+     * @param allInvolvementTable   Involvement HTML table for all the Domains
+     * @param fingerprintStore      Store with the fields last sent to the Features
+     * @param force                 True to send the PUT Request even if the fields did not change
+     * @return True if the PUT Request was sent, false if the fields did not change since the last update
      * @throws IOException   IO Exceptions are thrown up to the main class method
      * @throws JSONException JSON Exceptions are thrown up to the main class method
      */
-    protected void updateFeatureRequestTypeImpactedSystemFields(String ppmBaseUrl, String username, String password, String restUrl, String featureReqId, ArrayList<ImpactedSystemValues> isValuesObjArray, ArrayList<ImpactedSystemValues> isAllValuesObjArray) throws IOException, JSONException, ParseException {
-
-        // REST API URL
-        String requestUrl = ppmBaseUrl + restUrl + "/" + featureReqId;
-        log("<p stryle=\"margin-left:1px\">");
-        log("PUT Request Update RT URL: " + requestUrl);
-        log("</p><br>");
-        // Encode the Username and Password. Using Admin user to ensure
-        final String auth = username + ":" + password;
-        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
-        final String authHeader = "Basic " + encoding;
-        // Set the PUT Request with all the required parameters and timeouts
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .callTimeout(90, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
-        // JSON Payload
-        String jsonPayload = setJsonObjectUpdateFeatureRequestTypeImpactedSystemFields(isValuesObjArray, isAllValuesObjArray).toString();
-        log("<p stryle=\"margin-left:1px\">");
-        log("Create IS PMO Feature Pay Load: " + jsonPayload);
-        log("<hr></p><br>");
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(requestUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .addHeader("Ephemeral", "true")
-                .put(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
+    protected boolean updateFeatureRequestTypeImpactedSystemFields(String restUrl, String featureReqId, String impactedSystemsString, InvolvementHtmlTable involvementTable, InvolvementHtmlTable allInvolvementTable,
+                                                                   FeatureFingerprintStore fingerprintStore, boolean force) throws IOException, JSONException, ParseException {
+        // Skip the PUT Request if the same fields were sent with the last successful update
+        String fingerprint = InvolvementHtmlTable.isSpillPolicy()
+                ? FeatureFingerprintStore.fingerprint(impactedSystemsString, involvementTable.getHtml(), allInvolvementTable.getHtml(), involvementTable.getSpillHtml(), allInvolvementTable.getSpillHtml())
+                : FeatureFingerprintStore.fingerprint(impactedSystemsString, involvementTable.getHtml(), allInvolvementTable.getHtml());
+        if (!force && fingerprintStore.isUnchanged(featureReqId, fingerprint)) {
+            ExecutionLog.info("PUT Request Update RT skipped, no Impacted System changes since the last update of Feature: " + featureReqId);
+            return false;
         }
+        // REST API URL
+        String requestUrl = ppmGateway.getBaseUrl() + restUrl + "/" + featureReqId;
+        ExecutionLog.info("<p stryle=\"margin-left:1px\">");
+        ExecutionLog.info("PUT Request Update RT URL: " + requestUrl);
+        ExecutionLog.info("</p><br>");
+        // JSON Payload, written into the Request Body when the request is sent
+        RequestFieldsPayload jsonPayload = setJsonObjectUpdateFeatureRequestTypeImpactedSystemFields(impactedSystemsString, involvementTable, allInvolvementTable);
+        ExecutionLog.debug("<p stryle=\"margin-left:1px\">");
+        jsonPayload.log("Create IS PMO Feature Pay Load: ");
+        ExecutionLog.debug("<hr></p><br>");
+        // Execute the PUT Request through the shared PPM REST Gateway
+        Response response = ppmGateway.putJson("req.update", restUrl + "/" + featureReqId, jsonPayload);
 
         // JSONTokener - Set all the JSON keys as a token from the Json Return string.
         assert response.body() != null : "The PUT Return Body is Empty";
         // Set the JSONObject from the Response Body
         JSONObject json = new JSONObject(response.body().string());
-        log("<p stryle=\"margin-left:1px\">");
-        log("Successful PUT response output Updating RT: " + json);
-        log("<hr></p><br>");
+        ExecutionLog.debug("<p stryle=\"margin-left:1px\">");
+        ExecutionLog.debug(() -> "Successful PUT response output Updating RT: " + json);
+        ExecutionLog.debug("<hr></p><br>");
         // Disconnect the connection
         response.close();
+        // Record the fields sent with the successful update
+        fingerprintStore.record(featureReqId, fingerprint);
+        return true;
     }
 
     /**
      * Method to set the Impacted Systems String for the REST API PUT Request
      *
-     * @param impactedSystemObj ArrayList with ImpactedSystemsValue Object data
+     * @param impactedSystemObj List with ImpactedSystemsValue Object data
      * @return Impacted Systems semicolon separated String
      */
-    protected String setImpactedSystemString(ArrayList<ImpactedSystemValues> impactedSystemObj) {
+    protected String setImpactedSystemString(List<ImpactedSystemValues> impactedSystemObj) {
         // Set the Impacted Systems array for the IS Domain
         Set<String> stringSet = new HashSet<>();
         if (!impactedSystemObj.isEmpty()) {
@@ -1231,64 +1102,13 @@ public class ImpactAssessmentProcessor {
     }
 
     /**
-     * Method to set the HTML for the Involvement fields in Request Types: IS PMO Feature and IS PMO Testing Feature
+     * Method to get the HTML table for the Involvement fields in Request Types: IS PMO Feature and IS PMO Testing Feature.
+     * The HTML table of the same Impacted Systems values is only rendered once and then taken from the Involvement HTML cache.
      *
-     * @param domainInvolvementObj Impacted Systems value array list
-     * @return HTML String
+     * @param domainInvolvementObj Impacted Systems value list
+     * @return Rendered Involvement HTML table
      */
-    private String setDomainInvolvementHtml(ArrayList<ImpactedSystemValues> domainInvolvementObj) {
-        // Return String result
-        String result = null;
-        // Result String Length indicator
-        int stringLength = 0;
-        // Final Table string
-        final String endHtmlTable = "</table>";
-        // Build the string with HTML tags for a table
-        if (!domainInvolvementObj.isEmpty()) {
-            // Header Table string
-            String headerHtmlTable;
-            // Add header of the html table
-            headerHtmlTable = "<table style=\"border: 1px solid black; border-collapse: collapse; width: 98%;\">";
-            headerHtmlTable = headerHtmlTable.concat("<tr>");
-            headerHtmlTable = headerHtmlTable.concat("<td style=\"font-weight: bold; width: 39%;\">Systems Impacted</td>");
-            headerHtmlTable = headerHtmlTable.concat("<td style=\"font-weight: bold; width: 39%;\">Involvement</td>");
-            headerHtmlTable = headerHtmlTable.concat("<td style=\"font-weight: bold;\">Effort Estimation (Hours)</td>");
-            headerHtmlTable = headerHtmlTable.concat("</tr>");
-            // Assign the Header Table string to the Return Result string
-            result = headerHtmlTable;
-            // Set the Result String Length indicator after HTML Header was created
-            stringLength = stringLength + headerHtmlTable.length();
-            // Iterate through the Domain Involvement Object
-            for (ImpactedSystemValues impactedSystemValues : domainInvolvementObj) {
-                // Inner Table string
-                String innerHtmlTable;
-                // Create the Row in the table body
-                innerHtmlTable = "<tr>";
-                // Systems Impacted
-                innerHtmlTable = innerHtmlTable.concat("<td>").concat(impactedSystemValues.getImpactedSystem()).concat("</td>");
-                // Involvement
-                innerHtmlTable = innerHtmlTable.concat("<td>").concat(impactedSystemValues.getInvolvement()).concat("</td>");
-                // Effort Estimation (Hours)
-                innerHtmlTable = innerHtmlTable.concat("<td>").concat(impactedSystemValues.getEstimateHours()).concat("</td>");
-                innerHtmlTable = innerHtmlTable.concat("</tr>");
-                // Check if the Cumulative Result String Length indicator plus Inner Table string length is less than the HTML Text Area Maximum Character length
-                if ((stringLength + innerHtmlTable.length() + endHtmlTable.length()) <= TEXT_AREA_HTML_MAX) {
-                    // Assign the Inner Table string to the Return Result string
-                    result = result.concat(innerHtmlTable);
-                    // Set the Result String Length indicator after each iteration was created and less than HTML Text Area Maximum Character length
-                    stringLength = stringLength + innerHtmlTable.length();
-                } else {
-                    // Break out of the loop if greater or equal to HTML Text Area Maximum Character length
-                    break;
-                }
-            }
-
-            // Assign the Final Table string to the Return Result string
-            result = result.concat(endHtmlTable);
-            // Set the Result String Length indicator after Final Table string was added
-            stringLength = stringLength + endHtmlTable.length();
-            log("Domain Involvement HTML Table String length: " + stringLength);
-        }
-        return result;
+    protected InvolvementHtmlTable getDomainInvolvementTable(List<ImpactedSystemValues> domainInvolvementObj) {
+        return InvolvementHtmlCache.getShared().getTable(domainInvolvementObj, rows -> InvolvementHtmlTable.render(rows, TEXT_AREA_HTML_MAX));
     }
 }
@@ -0,0 +1,125 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class for the in-memory model of the Impacted Systems table component of the IS PMO Impact Assessment Request.
+ * The model is built once from the Impacted Systems table query result and answers the Domain questions locally:
+ * - Distinct IS Domains
+ * - Impacted Systems per IS Domain
+ * - Impacted Systems table rows per IS Domain
+ * The rows and the row list of every IS Domain cannot be changed after the model is built, so they are shared without copies.
+ */
+public class ImpactModel {
+    // Value used by the Impacted Systems table query when the lookup value is missing
+    private static final String NULL_VALUE = "null";
+    // Class Variables set by the constructor
+    private final List<ImpactedSystemValues> impactedSystems;
+    private final LinkedHashMap<String, String> domainNames = new LinkedHashMap<>();
+    private final LinkedHashMap<String, List<ImpactedSystemValues>> domainRows = new LinkedHashMap<>();
+
+    /**
+     * Constructor method that indexes the Impacted Systems table rows by IS Domain
+     *
+     * @param impactedSystems All Impacted System Table data
+     */
+    protected ImpactModel(ArrayList<ImpactedSystemValues> impactedSystems) {
+        this.impactedSystems = Collections.unmodifiableList(new ArrayList<>(impactedSystems));
+        for (ImpactedSystemValues impactedSystem : this.impactedSystems) {
+            String domainKey = getDomainKey(impactedSystem.getIsDomain());
+            List<ImpactedSystemValues> rows = domainRows.get(domainKey);
+            if (rows == null) {
+                rows = new ArrayList<>();
+                domainRows.put(domainKey, rows);
+                domainNames.put(domainKey, impactedSystem.getIsDomain());
+            }
+            rows.add(impactedSystem);
+        }
+        // Freeze the row list of every IS Domain
+        for (Map.Entry<String, List<ImpactedSystemValues>> domainEntry : domainRows.entrySet()) {
+            domainEntry.setValue(Collections.unmodifiableList(domainEntry.getValue()));
+        }
+    }
+
+    /**
+     * Method to get the IS Domain key, IS Domains are compared ignoring case
+     *
+     * @param isDomain IS Domain value
+     * @return IS Domain key
+     */
+    private static String getDomainKey(String isDomain) {
+        return isDomain == null ? NULL_VALUE : isDomain.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Get method for All Impacted System Table data
+     *
+     * @return Unmodifiable list with Impacted System Table data
+     */
+    protected List<ImpactedSystemValues> getImpactedSystems() {
+        return impactedSystems;
+    }
+
+    /**
+     * Method to check if any Impacted Systems were captured
+     *
+     * @return Boolean (True or False)
+     */
+    protected boolean isEmpty() {
+        return impactedSystems.isEmpty();
+    }
+
+    /**
+     * Method to get the distinct IS Domains that can have an IS PMO Feature.
+     * Only IS Domains with an Octane Workspace are returned, the same as the IS Domains List lookup join on user_data1.
+     *
+     * @return String Array list with the Impacted Domains
+     */
+    protected ArrayList<String> getFeatureDomains() {
+        ArrayList<String> result = new ArrayList<>();
+        for (String domainKey : domainRows.keySet()) {
+            if (domainKey.equals(getDomainKey(NULL_VALUE))) {
+                continue;
+            }
+            for (ImpactedSystemValues impactedSystem : domainRows.get(domainKey)) {
+                if (!NULL_VALUE.equalsIgnoreCase(impactedSystem.getOctaneWorkspace())) {
+                    result.add(domainNames.get(domainKey));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method to get the Impacted Systems table rows of an IS Domain
+     *
+     * @param isDomain IS Domain value, compared ignoring case
+     * @return Unmodifiable list with the Impacted System Table data of the IS Domain, empty for an unknown IS Domain
+     */
+    protected List<ImpactedSystemValues> getDomainRows(String isDomain) {
+        List<ImpactedSystemValues> rows = domainRows.get(getDomainKey(isDomain));
+        return rows == null ? Collections.<ImpactedSystemValues>emptyList() : rows;
+    }
+
+    /**
+     * Method to get the Impacted System names of an IS Domain
+     *
+     * @param isDomain IS Domain value, compared ignoring case
+     * @return String Array list with the Impacted Systems
+     */
+    protected ArrayList<String> getDomainSystems(String isDomain) {
+        ArrayList<String> result = new ArrayList<>();
+        for (ImpactedSystemValues impactedSystem : getDomainRows(isDomain)) {
+            if (!result.contains(impactedSystem.getImpactedSystem())) {
+                result.add(impactedSystem.getImpactedSystem());
+            }
+        }
+        return result;
+    }
+}
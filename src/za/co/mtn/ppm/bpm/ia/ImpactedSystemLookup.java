@@ -0,0 +1,62 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Class for storing the lookup values of an Impacted System from the 'MTN - IS Impacted Systems List' and 'MTN - IS Domains List' lookups
+ */
+public class ImpactedSystemLookup {
+    private final String systemCode;
+    private final String systemName;
+    private final String isDomain;
+    private final String octaneWorkspace;
+
+    /**
+     * Constructor method for the class storing the lookup values of an Impacted System
+     *
+     * @param systemCode      Impacted System lookup code
+     * @param systemName      Impacted System name (lookup meaning)
+     * @param isDomain        IS Domain name, "null" if the Impacted System has no IS Domain
+     * @param octaneWorkspace Octane Workspace of the IS Domain, "null" if the Impacted System has no IS Domain
+     */
+    protected ImpactedSystemLookup(String systemCode, String systemName, String isDomain, String octaneWorkspace) {
+        this.systemCode = systemCode;
+        this.systemName = systemName;
+        this.isDomain = isDomain;
+        this.octaneWorkspace = octaneWorkspace;
+    }
+
+    /**
+     * Get method for the Impacted System lookup code
+     *
+     * @return Lookup code string value
+     */
+    protected String getSystemCode() {
+        return systemCode;
+    }
+
+    /**
+     * Get method for the Impacted System name
+     *
+     * @return Impacted System string value
+     */
+    protected String getSystemName() {
+        return systemName;
+    }
+
+    /**
+     * Get method for the IS Domain
+     *
+     * @return IS Domain string value
+     */
+    protected String getIsDomain() {
+        return isDomain;
+    }
+
+    /**
+     * Get method for the Octane Workspace
+     *
+     * @return Octane Workspace string value
+     */
+    protected String getOctaneWorkspace() {
+        return octaneWorkspace;
+    }
+}
@@ -0,0 +1,36 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Class for mapping the Impacted System Table query rows into ImpactedSystemValues.
+ * The query returns the Impacted System lookup code, the IS Domain, Impacted System and Octane Workspace are set from the LookupCache.
+ */
+public class ImpactedSystemRowMapper implements SqlRowMapper<ImpactedSystemValues> {
+    // Column positions of the query result
+    private int systemCodeColumn;
+    private int involvementColumn;
+    private int estimateHoursColumn;
+
+    /**
+     * Method to resolve the column positions of the Impacted System Table query result
+     *
+     * @param cursor Cursor before the first row
+     */
+    @Override
+    public void resolveColumns(SqlRowCursor cursor) {
+        systemCodeColumn = cursor.getColumnIndex("SYSTEM_CODE", 0);
+        involvementColumn = cursor.getColumnIndex("INVOLVEMENT", 1);
+        estimateHoursColumn = cursor.getColumnIndex("ESTIMATE_HRS", 2);
+    }
+
+    /**
+     * Method to map an Impacted System Table row
+     *
+     * @param cursor Cursor on the row
+     * @return Impacted System Table values with the lookup code only
+     */
+    @Override
+    public ImpactedSystemValues mapRow(SqlRowCursor cursor) {
+        return new ImpactedSystemValues(cursor.getString(systemCodeColumn), null, null, null,
+                cursor.getString(involvementColumn), cursor.getString(estimateHoursColumn));
+    }
+}
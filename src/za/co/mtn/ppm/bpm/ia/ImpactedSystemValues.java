@@ -1,14 +1,20 @@
 package za.co.mtn.ppm.bpm.ia;
 
+import java.math.BigDecimal;
+
 /**
  * Class for storing the Impact Assessment Request Type, Impacted Systems table component values
  */
 public class ImpactedSystemValues {
+    // Impacted System lookup code, null when the values were not read by lookup code
+    private final String systemCode;
     private final String octaneWorkspace;
     private final String isDomain;
     private final String impactedSystem;
     private final String involvement;
+    // Estimated Hours as captured, and as number when it is a plain decimal number
     private final String estimateHours;
+    private final BigDecimal estimateHoursValue;
 
     /**
      * Constructor method for the class storing values from the Impact Assessment Request Type, Impacted Systems table component.
@@ -20,11 +26,74 @@ public class ImpactedSystemValues {
      * @param estimateHours   Estimated Hours value
      */
     protected ImpactedSystemValues(String octaneWorkspace, String isDomain, String impactedSystem, String involvement, String estimateHours) {
+        this(null, octaneWorkspace, isDomain, impactedSystem, involvement, estimateHours);
+    }
+
+    /**
+     * Constructor method for the class storing values from the Impact Assessment Request Type, Impacted Systems table component
+     * with the Impacted System lookup code.
+     *
+     * @param systemCode      Impacted System lookup code
+     * @param octaneWorkspace Octane Workspace value
+     * @param isDomain        IS Domain value
+     * @param impactedSystem  Impacted System value
+     * @param involvement     Involvement value
+     * @param estimateHours   Estimated Hours value
+     */
+    protected ImpactedSystemValues(String systemCode, String octaneWorkspace, String isDomain, String impactedSystem, String involvement, String estimateHours) {
+        this.systemCode = systemCode;
         this.octaneWorkspace = octaneWorkspace;
         this.isDomain = isDomain;
         this.impactedSystem = impactedSystem;
         this.involvement = involvement;
         this.estimateHours = estimateHours;
+        this.estimateHoursValue = parseDecimal(estimateHours);
+    }
+
+    /**
+     * Method to parse a plain decimal number, as captured in the Estimated Hours column
+     *
+     * @param value Value to parse
+     * @return Decimal number or null if the value is not a plain decimal number
+     */
+    private static BigDecimal parseDecimal(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        int dot = -1;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && dot < 0) {
+                dot = i;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        // Digits are required before and after the decimal point
+        if (dot == start || dot == value.length() - 1 || start == value.length()) {
+            return null;
+        }
+        return new BigDecimal(value);
+    }
+
+    /**
+     * Method to create the Impacted System Table values with the IS Domain, Impacted System and Octane Workspace of the lookup
+     *
+     * @param lookup Impacted System lookup values of the lookup code
+     * @return Impacted System Table values
+     */
+    protected ImpactedSystemValues withLookup(ImpactedSystemLookup lookup) {
+        return new ImpactedSystemValues(lookup.getSystemCode(), lookup.getOctaneWorkspace(), lookup.getIsDomain(), lookup.getSystemName(), involvement, getEstimateHours());
+    }
+
+    /**
+     * Get method for the Impacted System lookup code
+     *
+     * @return Lookup code string value
+     */
+    protected String getSystemCode() {
+        return systemCode;
     }
 
     /**
@@ -71,4 +140,13 @@ public class ImpactedSystemValues {
     protected String getEstimateHours() {
         return estimateHours;
     }
+
+    /**
+     * Get method for Estimated Hours as number
+     *
+     * @return Estimated Hours decimal value or null if no valid number was captured
+     */
+    protected BigDecimal getEstimateHoursValue() {
+        return estimateHoursValue;
+    }
 }
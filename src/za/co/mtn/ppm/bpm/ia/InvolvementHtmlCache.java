@@ -0,0 +1,130 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Class that keeps the Involvement HTML tables rendered for the IS PMO Feature and IS PMO Testing Feature fields,
+ * so that a table with the same Impacted Systems is only rendered once per JVM. The same tables are needed by every
+ * Test Automation Feature, by the all IS Domains field of every Feature and by the Impact Assessments of a batch that share Impacted Systems.
+ * A table is found by the content hash of the Impacted System, Involvement and Estimated Hours values of its rows,
+ * and the least recently used tables are removed when the cache is full.
+ * The cache can be tuned with the following System Property:
+ * - ia.html.cacheSize (default 256, 0 for no cache)
+ */
+public class InvolvementHtmlCache {
+    // Constant variables for the class
+    private static final int CACHE_SIZE = Integer.getInteger("ia.html.cacheSize", 256);
+    // Involvement HTML cache shared by all the runs of the JVM
+    private static final InvolvementHtmlCache SHARED = new InvolvementHtmlCache(CACHE_SIZE);
+    // Class Variables set by the constructor
+    private final int maxSize;
+    // Content hash as Key and the rendered HTML table as Value, in least recently used order
+    private final LinkedHashMap<String, InvolvementHtmlTable> renderedTables;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructor method for the Involvement HTML cache
+     *
+     * @param maxSize Maximum number of HTML tables kept
+     */
+    private InvolvementHtmlCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.renderedTables = new LinkedHashMap<String, InvolvementHtmlTable>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InvolvementHtmlTable> eldest) {
+                return size() > InvolvementHtmlCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Method to get the Involvement HTML cache
+     *
+     * @return Involvement HTML cache shared by all the runs of the JVM
+     */
+    protected static InvolvementHtmlCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Method to get the HTML table of the Impacted System rows, the table is only rendered when it is not in the cache
+     *
+     * @param impactedSystemRows Impacted Systems value list
+     * @param renderer           Method that renders the HTML table of the rows
+     * @return Rendered Involvement HTML table
+     */
+    protected InvolvementHtmlTable getTable(List<ImpactedSystemValues> impactedSystemRows, Function<List<ImpactedSystemValues>, InvolvementHtmlTable> renderer) {
+        if (impactedSystemRows.isEmpty() || maxSize <= 0) {
+            return renderer.apply(impactedSystemRows);
+        }
+        String contentHash = getContentHash(impactedSystemRows);
+        InvolvementHtmlTable table;
+        synchronized (renderedTables) {
+            table = renderedTables.get(contentHash);
+        }
+        if (table != null) {
+            hitCount.incrementAndGet();
+            return table;
+        }
+        missCount.incrementAndGet();
+        // Render outside the lock, two runs rendering the same table at the same time render the same HTML
+        table = renderer.apply(impactedSystemRows);
+        synchronized (renderedTables) {
+            renderedTables.put(contentHash, table);
+        }
+        return table;
+    }
+
+    /**
+     * Method to calculate the content hash of the values that are rendered in the HTML table
+     *
+     * @param impactedSystemRows Impacted Systems value list
+     * @return SHA-256 hash as hex string
+     */
+    private static String getContentHash(List<ImpactedSystemValues> impactedSystemRows) {
+        String[] values = new String[impactedSystemRows.size() * 3];
+        int i = 0;
+        for (ImpactedSystemValues impactedSystemRow : impactedSystemRows) {
+            values[i++] = impactedSystemRow.getImpactedSystem();
+            values[i++] = impactedSystemRow.getInvolvement();
+            values[i++] = impactedSystemRow.getEstimateHours();
+        }
+        return FeatureFingerprintStore.fingerprint(values);
+    }
+
+    /**
+     * Get method for the number of HTML tables found in the cache
+     *
+     * @return Hit count
+     */
+    protected long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get method for the number of HTML tables rendered because they were not in the cache
+     *
+     * @return Miss count
+     */
+    protected long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Method to get the cache statistics for the run summary
+     *
+     * @return Statistics string
+     */
+    protected String getStatistics() {
+        int size;
+        synchronized (renderedTables) {
+            size = renderedTables.size();
+        }
+        return "Involvement HTML Cache Hits: " + getHitCount() + ", Misses: " + getMissCount() + ", Tables Cached: " + size;
+    }
+}
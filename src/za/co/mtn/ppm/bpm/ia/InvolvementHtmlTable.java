@@ -0,0 +1,321 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Class for the Involvement HTML table of the IS PMO Feature and IS PMO Testing Feature fields.
+ * The table is written into one buffer sized from the row values, the row values are HTML escaped and every row is
+ * only kept when the table still fits the maximum HTML text area length.
+ * The Impacted Systems that do not fit are handled with the overflow policy of the System Property ia.html.overflow:
+ * - TRUNCATE (default): the table ends with a "+N more systems" row
+ * - COMPACT: the table is written without styles and a short header, and ends with a "+N more systems" row if it still does not fit
+ * - SPILL: the rows that do not fit are written to a second table for the spill field, with a "+N more systems" row if that does not fit either
+ * The SPILL policy requires the RT Tokens of the spill fields on the IS PMO Feature and IS PMO Testing Feature Request Types,
+ * there is no default field. Without valid tokens (REQD.<TOKEN>) the TRUNCATE policy is used:
+ * - ia.html.spillToken (spill field of the Involvement per Impacted System field REQD.ISPMO_INVOLVEMENTS)
+ * - ia.html.allSpillToken (spill field of the Involvement Across All Delivery Areas field REQD.IS_DOMAIN_INVOLVEMENTS)
+ */
+public class InvolvementHtmlTable {
+    /**
+     * Policy for the Impacted Systems that do not fit the HTML text area
+     */
+    protected enum Overflow {
+        TRUNCATE, COMPACT, SPILL
+    }
+
+    // Constant variables for the class
+    private static final String SPILL_TOKEN = getSpillToken("ia.html.spillToken");
+    private static final String ALL_SPILL_TOKEN = getSpillToken("ia.html.allSpillToken");
+    private static final Overflow OVERFLOW = getOverflow(System.getProperty("ia.html.overflow"));
+    private static final String HEADER_HTML = "<table style=\"border: 1px solid black; border-collapse: collapse; width: 98%;\">"
+            + "<tr>"
+            + "<td style=\"font-weight: bold; width: 39%;\">Systems Impacted</td>"
+            + "<td style=\"font-weight: bold; width: 39%;\">Involvement</td>"
+            + "<td style=\"font-weight: bold;\">Effort Estimation (Hours)</td>"
+            + "</tr>";
+    private static final String COMPACT_HEADER_HTML = "<table border=\"1\"><tr><th>Systems Impacted</th><th>Involvement</th><th>Hours</th></tr>";
+    private static final String END_HTML = "</table>";
+    // Length of the tags of a row: <tr><td></td><td></td><td></td></tr>
+    private static final int ROW_TAGS_LENGTH = 36;
+    // Class Variables set by the constructor
+    private final String html;
+    private final String spillHtml;
+    private final int omittedCount;
+
+    /**
+     * Constructor method for the rendered Involvement HTML table
+     *
+     * @param html         HTML String of the table, null for no rows
+     * @param spillHtml    HTML String of the spill table, empty if all the rows fit, null if the overflow policy is not SPILL
+     * @param omittedCount Number of Impacted Systems that are not in the tables
+     */
+    private InvolvementHtmlTable(String html, String spillHtml, int omittedCount) {
+        this.html = html;
+        this.spillHtml = spillHtml;
+        this.omittedCount = omittedCount;
+    }
+
+    /**
+     * Method to get the overflow policy of the System Property, an unknown policy is ignored.
+     * The SPILL policy is only used when the RT Tokens of both spill fields are set.
+     *
+     * @param policy Overflow policy name
+     * @return Overflow policy
+     */
+    private static Overflow getOverflow(String policy) {
+        if (policy != null) {
+            for (Overflow overflow : Overflow.values()) {
+                if (overflow.name().equals(policy.trim().toUpperCase(Locale.ROOT))) {
+                    if (overflow == Overflow.SPILL && (SPILL_TOKEN == null || ALL_SPILL_TOKEN == null)) {
+                        ExecutionLog.warn("Involvement overflow policy SPILL requires the spill field RT Tokens ia.html.spillToken and ia.html.allSpillToken"
+                                + " (REQD.<TOKEN>), the TRUNCATE policy is used");
+                        return Overflow.TRUNCATE;
+                    }
+                    return overflow;
+                }
+            }
+        }
+        return Overflow.TRUNCATE;
+    }
+
+    /**
+     * Method to get the RT Token of a spill field from a System Property, the token must be a Request Details token
+     *
+     * @param propertyName System Property name
+     * @return RT Token of the spill field, null if the System Property is not set or not a valid token
+     */
+    private static String getSpillToken(String propertyName) {
+        String token = System.getProperty(propertyName);
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        token = token.trim();
+        if (!token.matches("REQD\\.[A-Z][A-Z0-9_]*")) {
+            ExecutionLog.warn("System Property " + propertyName + " ignored, not a Request Details RT Token (REQD.<TOKEN>): " + token);
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * Method to check if the overflow policy of the run spills the Impacted Systems into a second field
+     *
+     * @return Boolean (True or False)
+     */
+    protected static boolean isSpillPolicy() {
+        return OVERFLOW == Overflow.SPILL;
+    }
+
+    /**
+     * Method to get the RT Token of the spill field of the Involvement per Impacted System field
+     *
+     * @return RT Token of the spill field, null if it is not set
+     */
+    protected static String getSpillToken() {
+        return SPILL_TOKEN;
+    }
+
+    /**
+     * Method to get the RT Token of the spill field of the Involvement Across All Delivery Areas field
+     *
+     * @return RT Token of the spill field, null if it is not set
+     */
+    protected static String getAllSpillToken() {
+        return ALL_SPILL_TOKEN;
+    }
+
+    /**
+     * Method to render the Involvement HTML table with the overflow policy of the System Property
+     *
+     * @param impactedSystemRows Impacted Systems value list
+     * @param maxLength          Maximum length of the HTML text area
+     * @return Rendered Involvement HTML table
+     */
+    protected static InvolvementHtmlTable render(List<ImpactedSystemValues> impactedSystemRows, int maxLength) {
+        return render(impactedSystemRows, maxLength, OVERFLOW);
+    }
+
+    /**
+     * Method to render the Involvement HTML table
+     *
+     * @param impactedSystemRows Impacted Systems value list
+     * @param maxLength          Maximum length of the HTML text area
+     * @param overflow           Policy for the Impacted Systems that do not fit
+     * @return Rendered Involvement HTML table
+     */
+    protected static InvolvementHtmlTable render(List<ImpactedSystemValues> impactedSystemRows, int maxLength, Overflow overflow) {
+        String emptySpillHtml = overflow == Overflow.SPILL ? "" : null;
+        if (impactedSystemRows.isEmpty()) {
+            return new InvolvementHtmlTable(null, emptySpillHtml, 0);
+        }
+        final int rowCount = impactedSystemRows.size();
+        StringBuilder html = new StringBuilder(getCapacity(impactedSystemRows, 0, maxLength));
+        // Only add the "+N more systems" row to the first table when the overflow policy does not continue the rows elsewhere
+        int nextRow = appendTable(html, HEADER_HTML, impactedSystemRows, 0, maxLength, overflow == Overflow.TRUNCATE);
+        String spillHtml = emptySpillHtml;
+        if (nextRow < rowCount && overflow == Overflow.COMPACT) {
+            html.setLength(0);
+            nextRow = appendTable(html, COMPACT_HEADER_HTML, impactedSystemRows, 0, maxLength, true);
+        } else if (nextRow < rowCount && overflow == Overflow.SPILL) {
+            StringBuilder spill = new StringBuilder(getCapacity(impactedSystemRows, nextRow, maxLength));
+            nextRow = appendTable(spill, HEADER_HTML, impactedSystemRows, nextRow, maxLength, true);
+            spillHtml = spill.toString();
+        }
+        InvolvementHtmlTable table = new InvolvementHtmlTable(html.toString(), spillHtml, rowCount - nextRow);
+        ExecutionLog.debug(() -> "Domain Involvement HTML Table String length: " + html.length()
+                + (table.spillHtml == null || table.spillHtml.isEmpty() ? "" : ", Spill Table String length: " + table.spillHtml.length())
+                + (table.omittedCount > 0 ? ", Impacted Systems not shown: " + table.omittedCount : ""));
+        return table;
+    }
+
+    /**
+     * Method to get the buffer capacity for the table from the row value lengths, limited to the maximum length
+     *
+     * @param impactedSystemRows Impacted Systems value list
+     * @param fromRow            Index of the first row of the table
+     * @param maxLength          Maximum length of the HTML text area
+     * @return Buffer capacity
+     */
+    private static int getCapacity(List<ImpactedSystemValues> impactedSystemRows, int fromRow, int maxLength) {
+        long capacity = HEADER_HTML.length() + END_HTML.length();
+        for (int row = fromRow; row < impactedSystemRows.size() && capacity < maxLength; row++) {
+            ImpactedSystemValues impactedSystemRow = impactedSystemRows.get(row);
+            capacity += ROW_TAGS_LENGTH + getLength(impactedSystemRow.getImpactedSystem()) + getLength(impactedSystemRow.getInvolvement())
+                    + getLength(impactedSystemRow.getEstimateHours());
+        }
+        // Leave room for the "+N more systems" row and some escaped characters
+        return (int) Math.min(capacity, maxLength) + 64;
+    }
+
+    /**
+     * Method to append a table with the rows that fit the maximum length
+     *
+     * @param html               Buffer for the table
+     * @param headerHtml         HTML String of the table header
+     * @param impactedSystemRows Impacted Systems value list
+     * @param fromRow            Index of the first row of the table
+     * @param maxLength          Maximum length of the HTML text area
+     * @param moreRow            True to end the table with a "+N more systems" row if not all the rows fit
+     * @return Index of the first row that is not in the table
+     */
+    private static int appendTable(StringBuilder html, String headerHtml, List<ImpactedSystemValues> impactedSystemRows, int fromRow, int maxLength, boolean moreRow) {
+        final int rowCount = impactedSystemRows.size();
+        // Buffer position of every row, to remove rows again for the "+N more systems" row
+        int[] rowStarts = new int[rowCount - fromRow];
+        html.append(headerHtml);
+        int row = fromRow;
+        while (row < rowCount) {
+            int rowStart = html.length();
+            appendRow(html, impactedSystemRows.get(row));
+            if (html.length() + END_HTML.length() > maxLength) {
+                html.setLength(rowStart);
+                break;
+            }
+            rowStarts[row - fromRow] = rowStart;
+            row++;
+        }
+        if (moreRow && row < rowCount) {
+            // Remove the last rows until the "+N more systems" row fits
+            while (true) {
+                int moreRowStart = html.length();
+                html.append("<tr><td colspan=\"3\">+").append(rowCount - row).append(" more systems</td></tr>");
+                if (html.length() + END_HTML.length() <= maxLength || row == fromRow) {
+                    break;
+                }
+                html.setLength(moreRowStart);
+                row--;
+                html.setLength(rowStarts[row - fromRow]);
+            }
+        }
+        html.append(END_HTML);
+        return row;
+    }
+
+    /**
+     * Method to append the row of an Impacted System
+     *
+     * @param html              Buffer for the table
+     * @param impactedSystemRow Impacted System values
+     */
+    private static void appendRow(StringBuilder html, ImpactedSystemValues impactedSystemRow) {
+        html.append("<tr><td>");
+        // Systems Impacted
+        appendEscaped(html, impactedSystemRow.getImpactedSystem());
+        html.append("</td><td>");
+        // Involvement
+        appendEscaped(html, impactedSystemRow.getInvolvement());
+        html.append("</td><td>");
+        // Effort Estimation (Hours)
+        appendEscaped(html, impactedSystemRow.getEstimateHours());
+        html.append("</td></tr>");
+    }
+
+    /**
+     * Method to append a value with the HTML special characters escaped
+     *
+     * @param html  Buffer for the table
+     * @param value Value to append, null is appended as empty
+     */
+    private static void appendEscaped(StringBuilder html, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    html.append("&amp;");
+                    break;
+                case '<':
+                    html.append("&lt;");
+                    break;
+                case '>':
+                    html.append("&gt;");
+                    break;
+                case '"':
+                    html.append("&quot;");
+                    break;
+                default:
+                    html.append(c);
+            }
+        }
+    }
+
+    /**
+     * Method to get the length of a value, null as empty
+     *
+     * @param value Value
+     * @return Length of the value
+     */
+    private static int getLength(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Get method for the HTML String of the table
+     *
+     * @return HTML String, null for no rows
+     */
+    protected String getHtml() {
+        return html;
+    }
+
+    /**
+     * Get method for the HTML String of the spill table
+     *
+     * @return HTML String, empty if all the rows fit the table, null if the overflow policy is not SPILL
+     */
+    protected String getSpillHtml() {
+        return spillHtml;
+    }
+
+    /**
+     * Get method for the number of Impacted Systems that are not in the tables
+     *
+     * @return Omitted Impacted System count
+     */
+    protected int getOmittedCount() {
+        return omittedCount;
+    }
+}
@@ -0,0 +1,86 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Class that routes the console output of a job on the IA Job Server to the log of that job.
+ * The job output is set for the job thread and inherited by the worker threads the job creates, all other output goes to the console.
+ */
+public class JobOutputRouter extends OutputStream {
+    // Job output of the current thread and the threads it creates
+    private static final InheritableThreadLocal<OutputStream> JOB_OUTPUT = new InheritableThreadLocal<>();
+    private static boolean installed = false;
+    // Console output when no job output is set
+    private final OutputStream consoleOutput;
+
+    /**
+     * Constructor method for the router
+     *
+     * @param consoleOutput Console output when no job output is set
+     */
+    private JobOutputRouter(OutputStream consoleOutput) {
+        this.consoleOutput = consoleOutput;
+    }
+
+    /**
+     * Method to replace System.out with the router, only the first call installs the router
+     */
+    protected static synchronized void install() {
+        if (!installed) {
+            System.setOut(new PrintStream(new JobOutputRouter(System.out), true));
+            installed = true;
+        }
+    }
+
+    /**
+     * Method to route the output of the current thread to the job output
+     *
+     * @param jobOutput Job output
+     */
+    protected static void route(OutputStream jobOutput) {
+        JOB_OUTPUT.set(jobOutput);
+    }
+
+    /**
+     * Method to route the output of the current thread back to the console
+     */
+    protected static void clear() {
+        JOB_OUTPUT.remove();
+    }
+
+    /**
+     * Method to get the job output of the current thread
+     *
+     * @return Job output, null if the output of the current thread goes to the console
+     */
+    protected static OutputStream getJobOutput() {
+        return JOB_OUTPUT.get();
+    }
+
+    /**
+     * Method to get the output of the current thread
+     *
+     * @return Job output or the console output
+     */
+    private OutputStream getOutput() {
+        OutputStream jobOutput = JOB_OUTPUT.get();
+        return jobOutput == null ? consoleOutput : jobOutput;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        getOutput().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        getOutput().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        getOutput().flush();
+    }
+}
@@ -0,0 +1,317 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that keeps the 'MTN - IS Domains List' and 'MTN - IS Impacted Systems List' lookups of a PPM environment,
+ * so the Impacted System Table query does not have to join knta_lookups on every call.
+ * Both lookups are read in one sqlRunner round trip and kept for a time to live. When the lookups are not within the time to live
+ * the lookup queries are added to the read batch of the run, so that they are read in the same round trip as the run data.
+ * Every load is also written to a snapshot file, so that a new JVM starts with the lookups of the previous run while the snapshot
+ * is within the time to live.
+ * Lookups within the time to live are checked against PPM with a small version query in the read batch of the run: the last
+ * update date and the row count of both lookups. When a lookup row was changed, added or removed in PPM, e.g. an Impacted System
+ * moved to another IS Domain or Octane Workspace, the lookups are read again before the Impacted Systems are resolved.
+ * Without a read batch (getLookups) a changed lookup row is only picked up after the time to live, and an unknown lookup code
+ * reloads the lookups at most once a minute. To force a reload set ia.lookup.ttlMinutes to 0 for a run, or delete the
+ * ia-lookups-*.json snapshot file and restart the IA Job Server.
+ * The cache can be tuned with the following System Properties:
+ * - ia.lookup.ttlMinutes (default 360, 0 to read the lookups on every run)
+ * - ia.lookup.snapshotDir (default java.io.tmpdir, empty for no snapshot file)
+ */
+public class LookupCache {
+    // Constant variables for the class
+    private static final String SQL_REST_URL = "rest2/sqlRunner/runSqlQuery";
+    private static final String QRY_IS_DOMAINS = "IS_DOMAINS";
+    private static final String QRY_IS_IMPACTED_SYSTEMS = "IS_IMPACTED_SYSTEMS";
+    private static final String QRY_LOOKUPS_VERSION = "IS_LOOKUPS_VERSION";
+    private static final long TTL_MILLIS = Long.getLong("ia.lookup.ttlMinutes", 360L) * 60_000L;
+    private static final String SNAPSHOT_DIR = System.getProperty("ia.lookup.snapshotDir", System.getProperty("java.io.tmpdir"));
+    // Minimum age of the lookups before an unknown lookup code reloads them
+    private static final long MIN_RELOAD_MILLIS = 60_000L;
+    // Lookup cache of every PPM environment
+    private static final ConcurrentHashMap<String, LookupCache> CACHES = new ConcurrentHashMap<>();
+    // Class Variables set by the constructor
+    private final String ppmBaseUrl;
+    private final File snapshotFile;
+    private volatile LookupSnapshot lookups;
+    private boolean snapshotFileRead = false;
+
+    /**
+     * Constructor method for the lookup cache of a PPM environment
+     *
+     * @param ppmBaseUrl PPM Base URL for identifying the PPM environment
+     */
+    private LookupCache(String ppmBaseUrl) {
+        this.ppmBaseUrl = ppmBaseUrl;
+        this.snapshotFile = SNAPSHOT_DIR == null || SNAPSHOT_DIR.trim().isEmpty() ? null
+                : new File(SNAPSHOT_DIR, "ia-lookups-" + Integer.toHexString(ppmBaseUrl.hashCode()) + ".json");
+    }
+
+    /**
+     * Method to get the lookup cache of a PPM environment
+     *
+     * @param ppmBaseUrl PPM Base URL for identifying the PPM environment
+     * @return Lookup cache shared by all the runs of the JVM
+     */
+    protected static LookupCache forEnvironment(String ppmBaseUrl) {
+        return CACHES.computeIfAbsent(ppmBaseUrl, LookupCache::new);
+    }
+
+    /**
+     * Method to get the lookups, the lookups are read from PPM when they are older than the time to live
+     *
+     * @param loader Processor with the PPM REST Gateway for reading the lookups
+     * @return Lookups within the time to live
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected LookupSnapshot getLookups(ImpactAssessmentProcessor loader) throws IOException, JSONException {
+        LookupSnapshot current = lookups;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            readSnapshotFileOnce();
+            if (!isFresh(lookups)) {
+                load(loader);
+            }
+            return lookups;
+        }
+    }
+
+    /**
+     * Method to add the lookup queries to the read batch of a run when the lookups are not within the time to live,
+     * otherwise only the lookups version query is added
+     *
+     * @param batch Read batch of the run
+     */
+    protected synchronized void addLookupQueries(SqlQueryBatch batch) {
+        readSnapshotFileOnce();
+        if (isFresh(lookups)) {
+            addVersionQuery(batch);
+        } else {
+            addQueries(batch);
+        }
+    }
+
+    /**
+     * Method to set the lookups from the results of a read batch with the lookup queries, or to read the lookups again
+     * when the lookups version of the read batch is not the version of the lookups
+     *
+     * @param loader       Processor with the PPM REST Gateway for reading the lookups
+     * @param batchResults Results of the read batch
+     * @param loadedMillis Point in time the read batch was sent
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected synchronized void setLookups(ImpactAssessmentProcessor loader, HashMap<String, SqlQueryResult> batchResults, long loadedMillis) throws IOException, JSONException {
+        if (batchResults.containsKey(QRY_IS_DOMAINS)) {
+            if (lookups == null || lookups.getLoadedMillis() < loadedMillis) {
+                setLookups(batchResults, loadedMillis, false);
+            }
+        } else if (batchResults.containsKey(QRY_LOOKUPS_VERSION) && lookups != null && lookups.getLoadedMillis() < loadedMillis
+                && !lookups.getVersion().equals(getVersion(batchResults))) {
+            ExecutionLog.info("IS lookups changed in PPM since " + new Date(lookups.getLoadedMillis()));
+            load(loader);
+        }
+    }
+
+    /**
+     * Method to read the lookups of a previous run from the snapshot file, once per JVM
+     */
+    private void readSnapshotFileOnce() {
+        if (!snapshotFileRead) {
+            snapshotFileRead = true;
+            LookupSnapshot fileLookups = readSnapshotFile();
+            if (fileLookups != null && (lookups == null || fileLookups.getLoadedMillis() > lookups.getLoadedMillis())) {
+                lookups = fileLookups;
+            }
+        }
+    }
+
+    /**
+     * Method to reload the lookups when a lookup code was not found, the lookups are only reloaded if no other
+     * run reloaded them in the meantime and they are older than a minute
+     *
+     * @param loader         Processor with the PPM REST Gateway for reading the lookups
+     * @param missingLookups Lookups that did not have the lookup code
+     * @return Current lookups
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    protected synchronized LookupSnapshot reload(ImpactAssessmentProcessor loader, LookupSnapshot missingLookups) throws IOException, JSONException {
+        if (lookups == missingLookups && System.currentTimeMillis() - missingLookups.getLoadedMillis() >= MIN_RELOAD_MILLIS) {
+            load(loader);
+        }
+        return lookups;
+    }
+
+    /**
+     * Method to check if the lookups are within the time to live
+     *
+     * @param current Lookups
+     * @return Boolean (True or False)
+     */
+    private static boolean isFresh(LookupSnapshot current) {
+        return current != null && System.currentTimeMillis() - current.getLoadedMillis() < TTL_MILLIS;
+    }
+
+    /**
+     * Method that use the sqlRunner to read both lookups in one query batch and write the snapshot file
+     *
+     * @param loader Processor with the PPM REST Gateway for reading the lookups
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private void load(ImpactAssessmentProcessor loader) throws IOException, JSONException {
+        ExecutionLog.info("Reading the IS Domains and IS Impacted Systems lookups");
+        long loadedMillis = System.currentTimeMillis();
+        SqlQueryBatch batch = new SqlQueryBatch();
+        addQueries(batch);
+        setLookups(loader.runSqlQueryBatch(SQL_REST_URL, batch), loadedMillis, true);
+    }
+
+    /**
+     * Method to add both lookup queries to a query batch
+     *
+     * @param batch Batch with the named queries
+     */
+    private static void addQueries(SqlQueryBatch batch) {
+        addVersionQuery(batch);
+        batch.addQuery(QRY_IS_DOMAINS, "SELECT kl.lookup_code AS domain_code, kl.meaning AS domain_name, nvl(kl.visible_user_data1, 'null') AS oct_workspace"
+                + " FROM knta_lookups kl WHERE kl.lookup_type = 'MTN - IS Domains List'");
+        batch.addQuery(QRY_IS_IMPACTED_SYSTEMS, "SELECT kl.lookup_code AS system_code, kl.meaning AS system_name, nvl(kl.user_data1, 'null') AS domain_code"
+                + " FROM knta_lookups kl WHERE kl.lookup_type = 'MTN - IS Impacted Systems List'");
+    }
+
+    /**
+     * Method to add the lookups version query to a query batch, the version is the last update date and the row count of both lookups
+     *
+     * @param batch Batch with the named queries
+     */
+    private static void addVersionQuery(SqlQueryBatch batch) {
+        batch.addQuery(QRY_LOOKUPS_VERSION, "SELECT TO_CHAR(MAX(kl.last_update_date), 'YYYYMMDDHH24MISS') || '/' || COUNT(*) AS lookups_version"
+                + " FROM knta_lookups kl WHERE kl.lookup_type IN ('MTN - IS Domains List', 'MTN - IS Impacted Systems List')");
+    }
+
+    /**
+     * Method to get the lookups version from the results of a query batch with the version query
+     *
+     * @param results Results of the query batch
+     * @return Lookups version, empty without a version row
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private static String getVersion(HashMap<String, SqlQueryResult> results) throws IOException, JSONException {
+        ArrayList<String[]> versionRows = getRows(results.get(QRY_LOOKUPS_VERSION), "LOOKUPS_VERSION");
+        return versionRows.isEmpty() || versionRows.get(0)[0] == null ? "" : versionRows.get(0)[0];
+    }
+
+    /**
+     * Method to set the lookups from the results of the lookup queries and write the snapshot file
+     *
+     * @param results      Results of a query batch with the lookup queries
+     * @param loadedMillis Point in time the query batch was sent
+     * @param readAlone    True if the lookups were read in their own round trip
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private void setLookups(HashMap<String, SqlQueryResult> results, long loadedMillis, boolean readAlone) throws IOException, JSONException {
+        lookups = new LookupSnapshot(ppmBaseUrl, loadedMillis, getVersion(results),
+                getRows(results.get(QRY_IS_DOMAINS), "DOMAIN_CODE", "DOMAIN_NAME", "OCT_WORKSPACE"),
+                getRows(results.get(QRY_IS_IMPACTED_SYSTEMS), "SYSTEM_CODE", "SYSTEM_NAME", "DOMAIN_CODE"));
+        ExecutionLog.info("IS Impacted Systems in lookup" + (readAlone ? "" : " (read batch)") + ": " + lookups.getImpactedSystemCount());
+        writeSnapshotFile(lookups);
+    }
+
+    /**
+     * Method to get the lookup rows of a query result in column order
+     *
+     * @param queryResult Lookup query result
+     * @param columns     Column headers in the order of the lookup row values
+     * @return Lookup rows
+     * @throws IOException   IO Exceptions are thrown up to the main class method
+     * @throws JSONException JSON Exceptions are thrown up to the main class method
+     */
+    private static ArrayList<String[]> getRows(SqlQueryResult queryResult, String... columns) throws IOException, JSONException {
+        SqlRowCursor cursor = new SqlRowCursor(queryResult);
+        int[] columnIndexes = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            columnIndexes[c] = cursor.getColumnIndex(columns[c], c);
+        }
+        ArrayList<String[]> rows = new ArrayList<>();
+        while (cursor.next()) {
+            String[] row = new String[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                row[c] = cursor.getString(columnIndexes[c]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Method to read the lookups of a previous run from the snapshot file, a missing or unreadable file is ignored
+     *
+     * @return Lookups of the snapshot file or null
+     */
+    private LookupSnapshot readSnapshotFile() {
+        if (snapshotFile == null || !snapshotFile.isFile()) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(snapshotFile), StandardCharsets.UTF_8)) {
+            LookupSnapshot fileLookups = LookupSnapshot.fromJson(new JSONObject(new JSONTokener(reader)));
+            if (!ppmBaseUrl.equals(fileLookups.getPpmBaseUrl())) {
+                return null;
+            }
+            ExecutionLog.info("IS lookups snapshot read from " + snapshotFile + ": " + fileLookups.getImpactedSystemCount() + " IS Impacted System(s)");
+            return fileLookups;
+        } catch (IOException | JSONException e) {
+            ExecutionLog.warn("IS lookups snapshot " + snapshotFile + " ignored: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Method to write the lookups to the snapshot file, the file is replaced in one move so other JVMs never read half a file
+     *
+     * @param snapshot Lookups read from PPM
+     */
+    private void writeSnapshotFile(LookupSnapshot snapshot) {
+        if (snapshotFile == null) {
+            return;
+        }
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", snapshotFile.getAbsoluteFile().getParentFile());
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                writer.write(snapshot.toJson().toString());
+            }
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | JSONException e) {
+            ExecutionLog.warn("IS lookups snapshot " + snapshotFile + " not written: " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class for an immutable copy of the 'MTN - IS Domains List' and 'MTN - IS Impacted Systems List' lookups.
+ * The Impacted Systems are resolved to their IS Domain and Octane Workspace when the copy is created,
+ * the same way the knta_lookups joins of the Impacted System Table query resolved them.
+ */
+public class LookupSnapshot {
+    // Value used by the SQL queries for a missing IS Domain
+    private static final String NULL_VALUE = "null";
+    // Class Variables set by the constructor
+    private final String ppmBaseUrl;
+    private final long loadedMillis;
+    private final String version;
+    private final ArrayList<String[]> domainRows;
+    private final ArrayList<String[]> systemRows;
+    private final Map<String, ImpactedSystemLookup> impactedSystems;
+
+    /**
+     * Constructor method for the lookup copy
+     *
+     * @param ppmBaseUrl   PPM Base URL the lookups were read from
+     * @param loadedMillis Point in time the lookups were read from PPM
+     * @param version      Version of the lookups in PPM: last update date and row count of the lookups
+     * @param domainRows   IS Domain rows: lookup code, meaning, Octane Workspace
+     * @param systemRows   Impacted System rows: lookup code, meaning, IS Domain lookup code
+     */
+    protected LookupSnapshot(String ppmBaseUrl, long loadedMillis, String version, ArrayList<String[]> domainRows, ArrayList<String[]> systemRows) {
+        this.ppmBaseUrl = ppmBaseUrl;
+        this.loadedMillis = loadedMillis;
+        this.version = version;
+        this.domainRows = domainRows;
+        this.systemRows = systemRows;
+        // Resolve the IS Domain of every Impacted System
+        HashMap<String, String[]> domainsByCode = new HashMap<>();
+        for (String[] domainRow : domainRows) {
+            domainsByCode.put(domainRow[0], domainRow);
+        }
+        HashMap<String, ImpactedSystemLookup> systems = new HashMap<>();
+        for (String[] systemRow : systemRows) {
+            String[] domainRow = domainsByCode.get(systemRow[2]);
+            systems.put(systemRow[0], new ImpactedSystemLookup(systemRow[0], systemRow[1],
+                    domainRow == null ? NULL_VALUE : domainRow[1], domainRow == null ? NULL_VALUE : domainRow[2]));
+        }
+        this.impactedSystems = Collections.unmodifiableMap(systems);
+    }
+
+    /**
+     * Method to create the lookup copy from the JSON Object of a snapshot file
+     *
+     * @param json JSON Object written by toJson
+     * @return Lookup copy
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    protected static LookupSnapshot fromJson(JSONObject json) throws JSONException {
+        return new LookupSnapshot(json.getString("ppmBaseUrl"), json.getLong("loadedMillis"), json.optString("version", ""),
+                toRows(json.getJSONArray("domains")), toRows(json.getJSONArray("systems")));
+    }
+
+    /**
+     * Method to set the JSON Object for the snapshot file
+     *
+     * @return JSON Object with the lookup rows
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    protected JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("ppmBaseUrl", ppmBaseUrl);
+        json.put("loadedMillis", loadedMillis);
+        json.put("version", version);
+        json.put("domains", toJsonArray(domainRows));
+        json.put("systems", toJsonArray(systemRows));
+        return json;
+    }
+
+    /**
+     * Method to convert lookup rows to a JSON Array of JSON Arrays
+     *
+     * @param rows Lookup rows
+     * @return JSON Array
+     */
+    private static JSONArray toJsonArray(ArrayList<String[]> rows) {
+        JSONArray jsonRows = new JSONArray();
+        for (String[] row : rows) {
+            JSONArray jsonRow = new JSONArray();
+            for (String value : row) {
+                jsonRow.put(value);
+            }
+            jsonRows.put(jsonRow);
+        }
+        return jsonRows;
+    }
+
+    /**
+     * Method to convert a JSON Array of JSON Arrays to lookup rows
+     *
+     * @param jsonRows JSON Array
+     * @return Lookup rows
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    private static ArrayList<String[]> toRows(JSONArray jsonRows) throws JSONException {
+        ArrayList<String[]> rows = new ArrayList<>(jsonRows.length());
+        for (int i = 0; i < jsonRows.length(); i++) {
+            JSONArray jsonRow = jsonRows.getJSONArray(i);
+            String[] row = new String[jsonRow.length()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = jsonRow.getString(c);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Method to get the lookup values of an Impacted System
+     *
+     * @param systemCode Impacted System lookup code (Impacted Systems table parameter2)
+     * @return Impacted System lookup values or null if the code is not in the lookup
+     */
+    protected ImpactedSystemLookup getImpactedSystem(String systemCode) {
+        return impactedSystems.get(systemCode);
+    }
+
+    /**
+     * Get method for the PPM Base URL the lookups were read from
+     *
+     * @return PPM Base URL string value
+     */
+    protected String getPpmBaseUrl() {
+        return ppmBaseUrl;
+    }
+
+    /**
+     * Get method for the point in time the lookups were read from PPM
+     *
+     * @return Milliseconds since the epoch
+     */
+    protected long getLoadedMillis() {
+        return loadedMillis;
+    }
+
+    /**
+     * Get method for the version of the lookups in PPM
+     *
+     * @return Last update date and row count of the lookups, empty for a snapshot file without a version
+     */
+    protected String getVersion() {
+        return version;
+    }
+
+    /**
+     * Method to get the number of Impacted Systems in the lookup
+     *
+     * @return Impacted System count
+     */
+    protected int getImpactedSystemCount() {
+        return impactedSystems.size();
+    }
+}
@@ -0,0 +1,230 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class for the read phase of a run: all the independent PPM reads are started at the same time and a read that depends on
+ * the result of another read starts as soon as that result is available.
+ * If a required read fails the reads that did not complete yet are cancelled and the failure is thrown by awaitAll().
+ * The failure of an optional read, a read that is only used on some paths of the run, is thrown when its result is used.
+ */
+public class ReadPrefetch {
+    // Class Variables set by the constructor
+    private final ExecutorService readPool;
+    private final LinkedHashMap<String, Future<?>> reads = new LinkedHashMap<>();
+    private final long startMillis = System.currentTimeMillis();
+    // First required read failure, the other reads are cancelled
+    private String failedReadName;
+    private Exception failure;
+
+    /**
+     * Interface for a read that needs the result of another read
+     *
+     * @param <D> Type of the result the read depends on
+     * @param <T> Type of the read result
+     */
+    public interface DependentRead<D, T> {
+        /**
+         * Method to run the read
+         *
+         * @param dependencyResult Result of the read this read depends on
+         * @return Read result
+         * @throws Exception Exceptions fail the read phase
+         */
+        T read(D dependencyResult) throws Exception;
+    }
+
+    /**
+     * Constructor method for the read phase
+     *
+     * @param poolName Name prefix for the read threads
+     * @param maxReads Maximum number of reads in the read phase, every read gets its own thread
+     */
+    protected ReadPrefetch(String poolName, int maxReads) {
+        this.readPool = WorkerPools.newFixedPool(poolName, maxReads);
+    }
+
+    /**
+     * Method to start a required read that does not depend on other reads
+     *
+     * @param readName Name of the read for logging
+     * @param read     Read to run
+     * @param <T>      Type of the read result
+     * @return Future for the read result
+     */
+    protected <T> Future<T> submit(String readName, Callable<T> read) {
+        return submit(readName, read, true);
+    }
+
+    /**
+     * Method to start a read that does not depend on other reads
+     *
+     * @param readName Name of the read for logging
+     * @param read     Read to run
+     * @param required True if a failure of the read fails the read phase
+     * @param <T>      Type of the read result
+     * @return Future for the read result
+     */
+    protected <T> Future<T> submit(final String readName, final Callable<T> read, final boolean required) {
+        Future<T> future;
+        try {
+            future = readPool.submit(() -> runRead(readName, read, required));
+        } catch (RejectedExecutionException e) {
+            // The read phase already failed, do not start the read
+            FutureTask<T> cancelledRead = new FutureTask<>(read);
+            cancelledRead.cancel(false);
+            future = cancelledRead;
+        }
+        reads.put(readName, future);
+        return future;
+    }
+
+    /**
+     * Method to start a read that runs as soon as the result of another read is available
+     *
+     * @param readName   Name of the read for logging
+     * @param dependency Future of the read this read depends on
+     * @param read       Read to run with the result of the dependency
+     * @param required   True if a failure of the read fails the read phase
+     * @param <D>        Type of the result the read depends on
+     * @param <T>        Type of the read result
+     * @return Future for the read result
+     */
+    protected <D, T> Future<T> submit(String readName, final Future<D> dependency, final DependentRead<D, T> read, boolean required) {
+        return submit(readName, () -> read.read(getDependencyResult(dependency)), required);
+    }
+
+    /**
+     * Method to wait for the result of the read a dependent read depends on
+     *
+     * @param dependency Future of the read
+     * @param <D>        Type of the read result
+     * @return Read result
+     * @throws Exception Exception of the failed dependency read
+     */
+    private static <D> D getDependencyResult(Future<D> dependency) throws Exception {
+        try {
+            return dependency.get();
+        } catch (ExecutionException e) {
+            // Fail with the exception of the dependency read
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Method to run a read and record the first failure
+     *
+     * @param readName Name of the read for logging
+     * @param read     Read to run
+     * @param required True if a failure of the read fails the read phase
+     * @param <T>      Type of the read result
+     * @return Read result
+     * @throws Exception Exceptions of the read
+     */
+    private <T> T runRead(String readName, Callable<T> read, boolean required) throws Exception {
+        long readStartMillis = System.currentTimeMillis();
+        try {
+            T result = read.call();
+            ExecutionLog.info("Read " + readName + " completed in " + (System.currentTimeMillis() - readStartMillis) + " ms");
+            return result;
+        } catch (Exception e) {
+            if (required) {
+                fail(readName, e);
+            } else {
+                ExecutionLog.warn("Optional read " + readName + " failed: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Method to record the first read failure and cancel the reads that did not complete yet
+     *
+     * @param readName Name of the failed read
+     * @param e        Exception of the failed read
+     */
+    private synchronized void fail(String readName, Exception e) {
+        if (failure == null) {
+            failure = e;
+            failedReadName = readName;
+            ExecutionLog.error("Read " + readName + " failed, cancelling the other reads: " + e.getMessage());
+            readPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Method to wait until all the reads completed
+     *
+     * @throws IOException IO Exceptions of the first failed read are thrown up to the main class method
+     */
+    protected void awaitAll() throws IOException {
+        try {
+            for (Future<?> read : reads.values()) {
+                try {
+                    read.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // The first failure is recorded by the failing read
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            readPool.shutdownNow();
+            throw new InterruptedIOException("Interrupted while waiting for the reads");
+        } finally {
+            readPool.shutdown();
+        }
+        Exception readFailure = getFailure();
+        if (readFailure instanceof IOException) {
+            throw (IOException) readFailure;
+        }
+        if (readFailure instanceof RuntimeException) {
+            throw (RuntimeException) readFailure;
+        }
+        if (readFailure != null) {
+            throw new RuntimeException("Read " + failedReadName + " failed", readFailure);
+        }
+        ExecutionLog.info("Read phase completed in " + (System.currentTimeMillis() - startMillis) + " ms: " + reads.keySet());
+    }
+
+    /**
+     * Get method for the first read failure
+     *
+     * @return Exception of the first failed read or null
+     */
+    private synchronized Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Method to get the result of a completed read, only after awaitAll() returned
+     *
+     * @param read Future of the read
+     * @param <T>  Type of the read result
+     * @return Read result
+     * @throws IOException IO Exceptions of a failed optional read are thrown up to the main class method
+     */
+    protected <T> T getResult(Future<T> read) throws IOException {
+        try {
+            return read.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Read failed", e.getCause());
+        } catch (InterruptedException | CancellationException e) {
+            throw new IllegalStateException("Read result is not available", e);
+        }
+    }
+}
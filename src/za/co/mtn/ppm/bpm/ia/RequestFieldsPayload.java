@@ -0,0 +1,242 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Class for the JSON Payload of the PPM Request create and update REST calls, with the "fields.field" token list.
+ * The token values are written straight into the Request Body sink when the request is sent, without a JSON Object tree
+ * or a Payload string. The JSON text is the same as the org.json text of the JSON Object Payload:
+ * {"requestType":"...","sourceType":"...","fields":{"field":[{"dateValue":"...","token":"..."},{"stringValue":["..."],"token":"..."}]}}
+ */
+public class RequestFieldsPayload extends RequestBody {
+    // Constant variables for the class
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+    // Class Variables set by the constructor
+    private final String sourceType;
+    private final String requestType;
+    // Token and value of every field in Payload order, a date field value is kept with the dateValue marker
+    private final ArrayList<String[]> fields = new ArrayList<>();
+    private long contentLength = -1;
+
+    /**
+     * Constructor method for the Payload of a Request update
+     */
+    protected RequestFieldsPayload() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor method for the Payload of a Request creation
+     *
+     * @param sourceType  Source Type of the new Request
+     * @param requestType Request Type name of the new Request
+     */
+    protected RequestFieldsPayload(String sourceType, String requestType) {
+        this.sourceType = sourceType;
+        this.requestType = requestType;
+    }
+
+    /**
+     * Method to add a date field
+     *
+     * @param token     Token of the Request Field
+     * @param dateValue Date value in "yyyy-MM-dd'T'HH:mm:ss" format
+     */
+    protected synchronized void addDateField(String token, String dateValue) {
+        fields.add(new String[]{token, dateValue, "dateValue"});
+        contentLength = -1;
+    }
+
+    /**
+     * Method to add a string field with a single value
+     *
+     * @param token       Token of the Request Field
+     * @param stringValue String value, null is written as a JSON null
+     */
+    protected synchronized void addStringField(String token, String stringValue) {
+        fields.add(new String[]{token, stringValue, "stringValue"});
+        contentLength = -1;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON_MEDIA_TYPE;
+    }
+
+    /**
+     * Method to get the length of the Payload in bytes, counted once without keeping the Payload
+     *
+     * @return Payload length in UTF-8 bytes
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    @Override
+    public synchronized long contentLength() throws IOException {
+        if (contentLength < 0) {
+            CountingOutputStream counter = new CountingOutputStream();
+            writePayload(counter);
+            contentLength = counter.count;
+        }
+        return contentLength;
+    }
+
+    /**
+     * Method to write the Payload into the Request Body sink
+     *
+     * @param sink Request Body sink
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        writePayload(sink.outputStream());
+    }
+
+    /**
+     * Method to write out the Payload at DEBUG level after the label, only the Payload text up to the log message cap is kept
+     *
+     * @param label Label written before the Payload
+     */
+    protected synchronized void log(String label) {
+        ExecutionLog.debugPayload(label, this::writeJson);
+    }
+
+    /**
+     * Method to write the Payload as UTF-8 bytes, the output stream is flushed and left open
+     *
+     * @param out Output stream
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private synchronized void writePayload(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeJson(writer);
+        writer.flush();
+    }
+
+    /**
+     * Method to write the JSON text in the key order of the org.json JSON Object Payload
+     *
+     * @param writer Writer for the JSON text
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private void writeJson(Writer writer) throws IOException {
+        writer.write('{');
+        if (requestType != null) {
+            writer.write("\"requestType\":");
+            writeQuoted(writer, requestType);
+            writer.write(',');
+        }
+        if (sourceType != null) {
+            writer.write("\"sourceType\":");
+            writeQuoted(writer, sourceType);
+            writer.write(',');
+        }
+        writer.write("\"fields\":{\"field\":[");
+        for (int i = 0; i < fields.size(); i++) {
+            String[] field = fields.get(i);
+            if (i > 0) {
+                writer.write(',');
+            }
+            if ("dateValue".equals(field[2])) {
+                writer.write("{\"dateValue\":");
+                writeQuoted(writer, field[1]);
+            } else {
+                writer.write("{\"stringValue\":[");
+                if (field[1] == null) {
+                    writer.write("null");
+                } else {
+                    writeQuoted(writer, field[1]);
+                }
+                writer.write(']');
+            }
+            writer.write(",\"token\":");
+            writeQuoted(writer, field[0]);
+            writer.write('}');
+        }
+        writer.write("]}}");
+    }
+
+    /**
+     * Method to write a JSON string value with the escaping of org.json JSONObject.quote
+     *
+     * @param writer Writer for the JSON text
+     * @param value  String value
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private static void writeQuoted(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            writer.write("\"\"");
+            return;
+        }
+        char previous;
+        char c = 0;
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            previous = c;
+            c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    writer.write('\\');
+                    writer.write(c);
+                    break;
+                case '/':
+                    // Escape "</" so that the JSON text can be placed in an HTML script tag
+                    if (previous == '<') {
+                        writer.write('\\');
+                    }
+                    writer.write(c);
+                    break;
+                case '\b':
+                    writer.write("\\b");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\f':
+                    writer.write("\\f");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                default:
+                    if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                        String hex = Integer.toHexString(c);
+                        writer.write("\\u");
+                        writer.write("0000", 0, 4 - hex.length());
+                        writer.write(hex);
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Class for counting the Payload bytes without keeping them
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.HashMap;
+
+/**
+ * Class for the optional Command Line Options that follow the required Command Line Arguments.
+ * Options are set as "--name=value" or as a flag "--name".
+ */
+public class RunOptions {
+    private static final String OPTION_PREFIX = "--";
+    private final HashMap<String, String> options = new HashMap<>();
+
+    /**
+     * Constructor method that reads the Command Line Options from the first option index onwards
+     *
+     * @param args             Command Line Arguments of the main method
+     * @param firstOptionIndex Index of the first optional argument
+     */
+    protected RunOptions(String[] args, int firstOptionIndex) {
+        for (int i = firstOptionIndex; i < args.length; i++) {
+            String arg = args[i];
+            if (arg != null && arg.startsWith(OPTION_PREFIX)) {
+                int valueIndex = arg.indexOf('=');
+                if (valueIndex < 0) {
+                    options.put(arg.substring(OPTION_PREFIX.length()), "true");
+                } else {
+                    options.put(arg.substring(OPTION_PREFIX.length(), valueIndex), arg.substring(valueIndex + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to check if an option was set
+     *
+     * @param name Option name without the "--" prefix
+     * @return Boolean (True or False)
+     */
+    protected boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    /**
+     * Get method for a String option
+     *
+     * @param name         Option name without the "--" prefix
+     * @param defaultValue Value if the option was not set
+     * @return Option string value
+     */
+    protected String getString(String name, String defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get method for an Integer option
+     *
+     * @param name         Option name without the "--" prefix
+     * @param defaultValue Value if the option was not set or is not a number
+     * @return Option int value
+     */
+    protected int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return options.toString();
+    }
+}
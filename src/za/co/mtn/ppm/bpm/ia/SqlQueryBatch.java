@@ -0,0 +1,189 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class that combines several named sqlRunner queries into one "rest2/sqlRunner/runSqlQuery" round trip.
+ * Every query is wrapped as an inline view and the views are joined with UNION ALL. Each row gets the query name as
+ * discriminator column and its row number, and all the columns are converted to VARCHAR2 and padded with NULL to the widest query.
+ * The batch result is split back into one SqlQueryResult per named query with the original column headers and row order.
+ */
+public class SqlQueryBatch {
+    // Column headers of the batch discriminator columns
+    private static final String BATCH_INDEX_COLUMN = "BATCH_IDX";
+    private static final String BATCH_QUERY_COLUMN = "BATCH_QRY";
+    private static final String BATCH_ROW_COLUMN = "BATCH_ROW";
+    private static final int BATCH_COLUMN_COUNT = 3;
+    // Named queries in the order they were added
+    private final LinkedHashMap<String, String> namedQueries = new LinkedHashMap<>();
+
+    /**
+     * Method to add a named query to the batch
+     *
+     * @param queryName Unique name of the query in the batch
+     * @param querySql  SQL statement of the query
+     * @return This batch for chaining
+     */
+    protected SqlQueryBatch addQuery(String queryName, String querySql) {
+        if (namedQueries.containsKey(queryName)) {
+            throw new IllegalArgumentException("Duplicate query name in batch: " + queryName);
+        }
+        namedQueries.put(queryName, querySql);
+        return this;
+    }
+
+    /**
+     * Method to get the number of named queries in the batch
+     *
+     * @return Number of queries
+     */
+    protected int size() {
+        return namedQueries.size();
+    }
+
+    /**
+     * Method to get the query names in the order they were added
+     *
+     * @return Query names list
+     */
+    protected ArrayList<String> getQueryNames() {
+        return new ArrayList<>(namedQueries.keySet());
+    }
+
+    /**
+     * Method to get the SQL statement of a single named query
+     *
+     * @param queryName Name of the query
+     * @return SQL statement string
+     */
+    protected String getQuerySql(String queryName) {
+        return namedQueries.get(queryName);
+    }
+
+    /**
+     * Method to set the SQL string that runs all the named queries in one statement
+     *
+     * @return SQL String with the created UNION ALL statement
+     */
+    protected String getBatchSql() {
+        // Get the column aliases of every query and the widest column count
+        LinkedHashMap<String, ArrayList<String>> queryColumns = new LinkedHashMap<>();
+        int maxColumns = 0;
+        for (Map.Entry<String, String> namedQuery : namedQueries.entrySet()) {
+            ArrayList<String> columns = getColumnAliases(namedQuery.getValue());
+            queryColumns.put(namedQuery.getKey(), columns);
+            maxColumns = Math.max(maxColumns, columns.size());
+        }
+        // Create the sql string
+        String sql = "SELECT " + BATCH_INDEX_COLUMN + ", " + BATCH_QUERY_COLUMN + ", " + BATCH_ROW_COLUMN;
+        for (int c = 1; c <= maxColumns; c++) {
+            sql = sql.concat(", c" + c);
+        }
+        sql = sql.concat(" FROM (");
+        int queryIndex = 0;
+        for (Map.Entry<String, ArrayList<String>> namedColumns : queryColumns.entrySet()) {
+            if (queryIndex > 0) {
+                sql = sql.concat(" UNION ALL ");
+            }
+            ArrayList<String> columns = namedColumns.getValue();
+            StringBuilder select = new StringBuilder("SELECT ")
+                    .append(queryIndex).append(" AS ").append(BATCH_INDEX_COLUMN)
+                    .append(", '").append(namedColumns.getKey()).append("' AS ").append(BATCH_QUERY_COLUMN)
+                    .append(", ROWNUM AS ").append(BATCH_ROW_COLUMN);
+            for (int c = 0; c < maxColumns; c++) {
+                if (c < columns.size()) {
+                    select.append(", TO_CHAR(q.").append(columns.get(c)).append(") AS c").append(c + 1);
+                } else {
+                    select.append(", CAST(NULL AS VARCHAR2(1)) AS c").append(c + 1);
+                }
+            }
+            select.append(" FROM (").append(namedQueries.get(namedColumns.getKey())).append(") q");
+            sql = sql.concat(select.toString());
+            queryIndex++;
+        }
+        sql = sql.concat(") ORDER BY " + BATCH_INDEX_COLUMN + ", " + BATCH_ROW_COLUMN);
+        return sql;
+    }
+
+    /**
+     * Method to split the result of the batch SQL statement into the result of every named query
+     *
+     * @param batchResult sqlRunner result of the batch SQL statement
+     * @return Map with the Query Name as Key and the query result as Value
+     */
+    protected HashMap<String, SqlQueryResult> splitBatchResult(SqlQueryResult batchResult) {
+        HashMap<String, SqlQueryResult> results = new HashMap<>();
+        HashMap<String, Integer> columnCounts = new HashMap<>();
+        // Set an empty result for every named query with the original column headers
+        for (Map.Entry<String, String> namedQuery : namedQueries.entrySet()) {
+            ArrayList<String> columns = getColumnAliases(namedQuery.getValue());
+            results.put(namedQuery.getKey(), new SqlQueryResult(columns, new ArrayList<>()));
+            columnCounts.put(namedQuery.getKey(), columns.size());
+        }
+        // Assign every row to the query named in the discriminator column
+        for (String[] batchRow : batchResult.getRows()) {
+            String queryName = batchRow[1];
+            SqlQueryResult queryResult = results.get(queryName);
+            if (queryResult == null) {
+                throw new IllegalStateException("Unknown query name in batch result: " + queryName);
+            }
+            int columnCount = columnCounts.get(queryName);
+            queryResult.getRows().add(Arrays.copyOfRange(batchRow, BATCH_COLUMN_COUNT, BATCH_COLUMN_COUNT + columnCount));
+        }
+        return results;
+    }
+
+    /**
+     * Method to get the column aliases of the select list in a SQL statement.
+     * The alias is the last word of each select list item, or the column name without the table alias.
+     *
+     * @param querySql SQL statement
+     * @return Upper case column aliases in select list order
+     */
+    protected static ArrayList<String> getColumnAliases(String querySql) {
+        ArrayList<String> aliases = new ArrayList<>();
+        String upperSql = querySql.toUpperCase();
+        int selectStart = upperSql.indexOf("SELECT ") + "SELECT ".length();
+        if (upperSql.startsWith("DISTINCT ", selectStart)) {
+            selectStart = selectStart + "DISTINCT ".length();
+        }
+        int depth = 0;
+        boolean inQuote = false;
+        int itemStart = selectStart;
+        for (int i = selectStart; i < querySql.length(); i++) {
+            char c = querySql.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+            } else if (!inQuote) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && c == ',') {
+                    aliases.add(getItemAlias(querySql.substring(itemStart, i)));
+                    itemStart = i + 1;
+                } else if (depth == 0 && upperSql.startsWith(" FROM ", i)) {
+                    aliases.add(getItemAlias(querySql.substring(itemStart, i)));
+                    break;
+                }
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * Method to get the alias of a single select list item
+     *
+     * @param selectItem Select list item
+     * @return Upper case column alias
+     */
+    private static String getItemAlias(String selectItem) {
+        String item = selectItem.trim();
+        String alias = item.substring(item.lastIndexOf(' ') + 1);
+        return alias.substring(alias.lastIndexOf('.') + 1).toUpperCase();
+    }
+}
@@ -0,0 +1,49 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.ArrayList;
+
+/**
+ * Class for storing a sqlRunner query result (column headers and the row values)
+ */
+public class SqlQueryResult {
+    private final ArrayList<String> columnHeaders;
+    private final ArrayList<String[]> rows;
+
+    /**
+     * Constructor method for the class storing the sqlRunner query result
+     *
+     * @param columnHeaders Column headers of the query
+     * @param rows          Row values in the same order as the column headers
+     */
+    protected SqlQueryResult(ArrayList<String> columnHeaders, ArrayList<String[]> rows) {
+        this.columnHeaders = columnHeaders;
+        this.rows = rows;
+    }
+
+    /**
+     * Get method for the column headers
+     *
+     * @return Column headers string list
+     */
+    protected ArrayList<String> getColumnHeaders() {
+        return columnHeaders;
+    }
+
+    /**
+     * Get method for the row values
+     *
+     * @return Row values list
+     */
+    protected ArrayList<String[]> getRows() {
+        return rows;
+    }
+
+    /**
+     * Method to check if the query returned any rows
+     *
+     * @return Boolean (True or False)
+     */
+    protected boolean isEmpty() {
+        return rows.isEmpty();
+    }
+}
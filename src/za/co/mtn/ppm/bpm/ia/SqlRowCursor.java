@@ -0,0 +1,173 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Class for reading the rows of a sqlRunner query result one at a time.
+ * The cursor reads either a decoded SqlQueryResult or the rows straight from the sqlRunner response while it is decoded.
+ * Column header positions are resolved once per result, the row values are read by column position.
+ */
+public class SqlRowCursor implements Closeable {
+    // Class Variables set by the constructor
+    private final ArrayList<String> columnHeaders;
+    private final Iterator<String[]> resultRows;
+    private final SqlRunnerDecoder decoder;
+    private final Closeable response;
+    // Column header positions, resolved on the first lookup
+    private HashMap<String, Integer> columnIndexes;
+    private String[] row;
+    private int rowCount = 0;
+
+    /**
+     * Constructor method for a cursor on a decoded query result
+     *
+     * @param queryResult SQL query result
+     */
+    protected SqlRowCursor(SqlQueryResult queryResult) {
+        this.columnHeaders = queryResult.getColumnHeaders();
+        this.resultRows = queryResult.getRows().iterator();
+        this.decoder = null;
+        this.response = null;
+    }
+
+    /**
+     * Constructor method for a cursor on the rows of a sqlRunner response while it is decoded
+     *
+     * @param decoder  Decoder positioned before the first row
+     * @param response Response to close with the cursor
+     */
+    protected SqlRowCursor(SqlRunnerDecoder decoder, Closeable response) {
+        this.columnHeaders = decoder.getColumnHeaders();
+        this.resultRows = null;
+        this.decoder = decoder;
+        this.response = response;
+    }
+
+    /**
+     * Get method for the column headers
+     *
+     * @return Column headers string list
+     */
+    protected ArrayList<String> getColumnHeaders() {
+        return columnHeaders;
+    }
+
+    /**
+     * Method to get the position of a column
+     *
+     * @param columnHeader Column header, compared ignoring case
+     * @return Column position
+     */
+    protected int getColumnIndex(String columnHeader) {
+        Integer index = findColumnIndex(columnHeader);
+        if (index == null) {
+            throw new IllegalStateException("Column " + columnHeader + " not returned by the SQL Query");
+        }
+        return index;
+    }
+
+    /**
+     * Method to get the position of a column, with the column position of the SQL statement when the result has no column headers
+     *
+     * @param columnHeader   Column header, compared ignoring case
+     * @param sqlColumnIndex Column position in the SQL statement select list
+     * @return Column position
+     */
+    protected int getColumnIndex(String columnHeader, int sqlColumnIndex) {
+        return columnHeaders.isEmpty() ? sqlColumnIndex : getColumnIndex(columnHeader);
+    }
+
+    /**
+     * Method to look up the position of a column, the positions of all the columns are resolved on the first lookup
+     *
+     * @param columnHeader Column header, compared ignoring case
+     * @return Column position or null if the column was not returned
+     */
+    private Integer findColumnIndex(String columnHeader) {
+        if (columnIndexes == null) {
+            columnIndexes = new HashMap<>();
+            for (int i = 0; i < columnHeaders.size(); i++) {
+                columnIndexes.put(columnHeaders.get(i).toUpperCase(Locale.ROOT), i);
+            }
+        }
+        return columnIndexes.get(columnHeader.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Method to move the cursor to the next row
+     *
+     * @return True if the cursor is on a row, false after the last row
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    protected boolean next() throws IOException, JSONException {
+        if (decoder != null) {
+            row = decoder.nextRow();
+        } else {
+            row = resultRows.hasNext() ? resultRows.next() : null;
+        }
+        if (row != null) {
+            rowCount++;
+        }
+        return row != null;
+    }
+
+    /**
+     * Method to get the number of rows read so far
+     *
+     * @return Row count
+     */
+    protected int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Method to get the value of the current row as string
+     *
+     * @param columnIndex Column position
+     * @return Column value, "null" for SQL NULL values
+     */
+    protected String getString(int columnIndex) {
+        if (row == null) {
+            throw new IllegalStateException("The cursor is not on a row");
+        }
+        return row[columnIndex];
+    }
+
+    /**
+     * Method to map all the remaining rows with a row mapper
+     *
+     * @param rowMapper Row mapper for the query
+     * @param <T>       Type of the mapped rows
+     * @return List with the mapped rows
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    protected <T> ArrayList<T> mapRows(SqlRowMapper<T> rowMapper) throws IOException, JSONException {
+        ArrayList<T> result = new ArrayList<>();
+        rowMapper.resolveColumns(this);
+        while (next()) {
+            result.add(rowMapper.mapRow(this));
+        }
+        return result;
+    }
+
+    /**
+     * Method to close the sqlRunner response of a streaming cursor
+     *
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    @Override
+    public void close() throws IOException {
+        if (response != null) {
+            response.close();
+        }
+    }
+}
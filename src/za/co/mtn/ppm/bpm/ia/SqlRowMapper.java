@@ -0,0 +1,24 @@
+package za.co.mtn.ppm.bpm.ia;
+
+/**
+ * Interface for mapping the rows of a sqlRunner query result into typed values.
+ * A row mapper resolves the column positions once per result before the first row is mapped.
+ *
+ * @param <T> Type of the mapped rows
+ */
+public interface SqlRowMapper<T> {
+    /**
+     * Method to resolve the column positions of the query result
+     *
+     * @param cursor Cursor before the first row
+     */
+    void resolveColumns(SqlRowCursor cursor);
+
+    /**
+     * Method to map the current row of the cursor
+     *
+     * @param cursor Cursor on the row
+     * @return Mapped row
+     */
+    T mapRow(SqlRowCursor cursor);
+}
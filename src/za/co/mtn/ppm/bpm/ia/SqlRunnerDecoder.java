@@ -0,0 +1,451 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import okio.BufferedSource;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Class that decodes the "rest2/sqlRunner/runSqlQuery" JSON response in a single pass straight from the response body source.
+ * Only the "columnHeaders" token Array and the "values" token Array of every "results" row are kept, all other tokens are skipped.
+ * Row values are returned as strings: JSON strings as is, numbers and booleans as written and JSON null as "null".
+ * The rows are decoded one at a time with nextRow(), so a result can be consumed without holding all the rows.
+ * If the "results" token comes before the "columnHeaders" token the rows are held until the column headers were read.
+ */
+public class SqlRunnerDecoder {
+    // Value returned for JSON null, the same as the org.json JSONObject.NULL string value
+    private static final String NULL_VALUE = "null";
+    // Class Variables
+    private final BufferedSource source;
+    private final ArrayList<String> columnHeaders = new ArrayList<>();
+    private boolean columnHeadersRead = false;
+    private boolean streamingRows = false;
+    private ArrayList<String[]> heldRows;
+    private int heldRowIndex = 0;
+    private int pushedBack = -1;
+    private byte[] stringBytes = new byte[256];
+
+    /**
+     * Constructor method for the decoder of a single response body
+     *
+     * @param source Response body source
+     */
+    private SqlRunnerDecoder(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Method to decode the complete sqlRunner response into the column headers and row values
+     *
+     * @param source Response body source
+     * @return SQL query result with the column headers and row values
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions when the response is not valid sqlRunner JSON
+     */
+    protected static SqlQueryResult decode(BufferedSource source) throws IOException, JSONException {
+        SqlRunnerDecoder decoder = open(source);
+        ArrayList<String[]> rows = new ArrayList<>();
+        String[] row;
+        while ((row = decoder.nextRow()) != null) {
+            rows.add(row);
+        }
+        return new SqlQueryResult(decoder.getColumnHeaders(), rows);
+    }
+
+    /**
+     * Method to start decoding the sqlRunner response up to the first row
+     *
+     * @param source Response body source
+     * @return Decoder positioned before the first row
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions when the response is not valid sqlRunner JSON
+     */
+    protected static SqlRunnerDecoder open(BufferedSource source) throws IOException, JSONException {
+        SqlRunnerDecoder decoder = new SqlRunnerDecoder(source);
+        decoder.expect('{');
+        if (!decoder.endOfContainer('}')) {
+            decoder.readMembers();
+        }
+        return decoder;
+    }
+
+    /**
+     * Get method for the column headers
+     *
+     * @return Column headers string list, empty if the response has no "columnHeaders" token
+     */
+    protected ArrayList<String> getColumnHeaders() {
+        return columnHeaders;
+    }
+
+    /**
+     * Method to decode the next row of the "results" token Array
+     *
+     * @return Row values or null after the last row
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions when the response is not valid sqlRunner JSON
+     */
+    protected String[] nextRow() throws IOException, JSONException {
+        if (heldRows != null) {
+            return heldRowIndex < heldRows.size() ? heldRows.get(heldRowIndex++) : null;
+        }
+        if (!streamingRows) {
+            return null;
+        }
+        String[] row = readResultRow();
+        if (!nextSeparator(']')) {
+            // Last row, read the remaining tokens of the response
+            streamingRows = false;
+            if (nextSeparator('}')) {
+                readMembers();
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Method to read the top level response members until the first row or the end of the response
+     *
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private void readMembers() throws IOException {
+        do {
+            String key = readKey();
+            if (key.equals("columnHeaders")) {
+                expect('[');
+                if (!endOfContainer(']')) {
+                    do {
+                        columnHeaders.add(readValue());
+                    } while (nextSeparator(']'));
+                }
+                columnHeadersRead = true;
+            } else if (key.equals("results")) {
+                expect('[');
+                if (!endOfContainer(']')) {
+                    if (columnHeadersRead) {
+                        // Stop before the first row, the rows are decoded by nextRow()
+                        streamingRows = true;
+                        return;
+                    }
+                    // Hold the rows until the column headers were read
+                    heldRows = new ArrayList<>();
+                    do {
+                        heldRows.add(readResultRow());
+                    } while (nextSeparator(']'));
+                }
+            } else {
+                skipValue();
+            }
+        } while (nextSeparator('}'));
+    }
+
+    /**
+     * Method to read a single "results" row object and return its "values" token Array
+     *
+     * @return Row values
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private String[] readResultRow() throws IOException {
+        ArrayList<String> values = new ArrayList<>();
+        expect('{');
+        if (!endOfContainer('}')) {
+            do {
+                String key = readKey();
+                if (key.equals("values")) {
+                    expect('[');
+                    if (!endOfContainer(']')) {
+                        do {
+                            values.add(readValue());
+                        } while (nextSeparator(']'));
+                    }
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+        return values.toArray(new String[0]);
+    }
+
+    /**
+     * Method to read an object key and the following colon
+     *
+     * @return Key string
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private String readKey() throws IOException {
+        expect('"');
+        String key = readString();
+        expect(':');
+        return key;
+    }
+
+    /**
+     * Method to read a scalar value as a string. Nested objects and arrays are returned as their JSON text.
+     *
+     * @return Value string
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private String readValue() throws IOException {
+        int c = nextClean();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            StringBuilder raw = new StringBuilder();
+            raw.append((char) c);
+            skipContainer(c == '{' ? '}' : ']', raw);
+            return raw.toString();
+        }
+        String literal = readLiteral(c);
+        return literal.equals(NULL_VALUE) ? NULL_VALUE : literal;
+    }
+
+    /**
+     * Method to skip a value of any type
+     *
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private void skipValue() throws IOException {
+        int c = nextClean();
+        if (c == '"') {
+            readString();
+        } else if (c == '{') {
+            skipContainer('}', null);
+        } else if (c == '[') {
+            skipContainer(']', null);
+        } else {
+            readLiteral(c);
+        }
+    }
+
+    /**
+     * Method to skip the rest of an object or array, optionally keeping the raw JSON text
+     *
+     * @param close Closing character of the container
+     * @param raw   Builder for the raw JSON text or null
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private void skipContainer(char close, StringBuilder raw) throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c < 0) {
+                throw new JSONException("Unterminated JSON container in sqlRunner response");
+            }
+            if (c == '"') {
+                String value = readString();
+                if (raw != null) {
+                    raw.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+            if (raw != null) {
+                raw.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Method to read a JSON string after the opening quote, decoding the UTF-8 bytes and escape sequences
+     *
+     * @return Decoded string
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private String readString() throws IOException {
+        StringBuilder escaped = null;
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new JSONException("Unterminated JSON string in sqlRunner response");
+            }
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                // Flush the UTF-8 bytes before the escape sequence
+                if (escaped == null) {
+                    escaped = new StringBuilder();
+                }
+                escaped.append(new String(stringBytes, 0, length, StandardCharsets.UTF_8));
+                length = 0;
+                escaped.append(readEscape());
+                continue;
+            }
+            if (length == stringBytes.length) {
+                byte[] grown = new byte[stringBytes.length * 2];
+                System.arraycopy(stringBytes, 0, grown, 0, length);
+                stringBytes = grown;
+            }
+            stringBytes[length++] = (byte) c;
+        }
+        String tail = new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+        return escaped == null ? tail : escaped.append(tail).toString();
+    }
+
+    /**
+     * Method to read the character of an escape sequence after the backslash
+     *
+     * @return Escaped character
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw new JSONException("Invalid unicode escape in sqlRunner response");
+                    }
+                    code = (code << 4) + digit;
+                }
+                return (char) code;
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw new JSONException("Invalid escape sequence in sqlRunner response");
+        }
+    }
+
+    /**
+     * Method to read a number, boolean or null literal
+     *
+     * @param first First character of the literal
+     * @return Literal text
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private String readLiteral(int first) throws IOException {
+        StringBuilder literal = new StringBuilder();
+        int c = first;
+        while (c >= 0 && c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+            literal.append((char) c);
+            c = read();
+        }
+        pushBack(c);
+        if (literal.length() == 0) {
+            throw new JSONException("Missing value in sqlRunner response");
+        }
+        return literal.toString();
+    }
+
+    /**
+     * Method to check for the end of an empty container after the opening character
+     *
+     * @param close Closing character of the container
+     * @return True if the container is empty
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private boolean endOfContainer(char close) throws IOException {
+        int c = nextClean();
+        if (c == close) {
+            return true;
+        }
+        pushBack(c);
+        return false;
+    }
+
+    /**
+     * Method to read the separator after a container element
+     *
+     * @param close Closing character of the container
+     * @return True if another element follows, false at the end of the container
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private boolean nextSeparator(char close) throws IOException {
+        int c = nextClean();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw new JSONException("Expected ',' or '" + close + "' in sqlRunner response");
+    }
+
+    /**
+     * Method to read the expected structural character
+     *
+     * @param expected Expected character
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private void expect(char expected) throws IOException {
+        int c = nextClean();
+        if (c != expected) {
+            throw new JSONException("Expected '" + expected + "' in sqlRunner response");
+        }
+    }
+
+    /**
+     * Method to read the next character that is not whitespace
+     *
+     * @return Character or -1 at the end of the source
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private int nextClean() throws IOException {
+        int c = read();
+        while (isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Method to read the next byte from the source
+     *
+     * @return Byte value or -1 at the end of the source
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private int read() throws IOException {
+        if (pushedBack >= 0) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        if (source.exhausted()) {
+            return -1;
+        }
+        return source.readByte() & 0xff;
+    }
+
+    /**
+     * Method to push back one byte to be read again
+     *
+     * @param c Byte value
+     */
+    private void pushBack(int c) {
+        if (c >= 0) {
+            pushedBack = c;
+        }
+    }
+
+    /**
+     * Method to check for JSON whitespace
+     *
+     * @param c Byte value
+     * @return Boolean (True or False)
+     */
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
@@ -1,11 +1,13 @@
 package za.co.mtn.ppm.bpm.ia;
 
 import org.json.JSONException;
-import za.co.mtn.ppm.bpm.octane.OctaneFeatureOoProcessor;
+import za.co.mtn.ppm.bpm.rest.CallMetrics;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+import za.co.mtn.ppm.bpm.rest.RunDeadline;
 
 import java.io.IOException;
-import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Class that updates IS PMO Feature and IS PMO Testing Feature Requests from the Impacted System table and IT Project Milestones.
@@ -14,6 +16,8 @@ public class UpdateFeatures {
     // Variable to set the REST API URL
     private static final String REQ_REST_URL = "rest2/dm/requests";
     private static final String SQL_REST_URL = "rest2/sqlRunner/runSqlQuery";
+    // Number of required Command Line Arguments
+    protected static final int REQUIRED_ARGUMENTS = 7;
 
     /**
      * Main method for the class
@@ -26,28 +30,55 @@ public class UpdateFeatures {
      *             PROJECT_ID: args[4] (IT Project ID linked to the IS PMO Impact Assessment Request)
      *             OO_BASE_URL: args[5] (OpenText OO application URL)
      *             OO_AUTH_KEY: args[6] (OpenText OO application Authentication Key)
+     *             Optional: --parallel=N (Maximum number of Features updated at the same time, default 1)
+     *             Optional: --force (Send the Feature PUT Requests and start the OO flows even if the Impacted Systems did not change)
+     *             Optional: --oo-wait=N (Seconds to wait for the OO flows to finish, failed OO flows fail the run, default 0 to report without waiting)
+     *             Optional: --oo-batch=N (Maximum number of Octane Features in one OO batch flow, requires ia.oo.batchFlowUuid, default 1 for one OO flow per Octane Feature)
+     *             Optional: --deadline=N (Seconds the run may take, default the System Property ia.run.deadlineSeconds or 0 for no deadline)
+     *             The job runs on the IA Job Server when the System Property ia.jobServer is set to the IA Job Server URL
      */
     public static void main(String[] args) {
         // Verify that all Command Line Arguments has been submitted
 //		log("Arguments length: " + args.length);
-        if (args.length < 5) {
-            log("The Class Command Line Arguments is incorrect!");
+        if (args.length < REQUIRED_ARGUMENTS) {
+            ExecutionLog.info("The Class Command Line Arguments is incorrect!");
             printCommandLineArguments();
             System.exit(1);
         }
+        // Hand the job to the IA Job Server when one is configured
+        String jobServerUrl = IaJobClient.getJobServerUrl();
+        if (jobServerUrl != null) {
+            IaJobClient.runJob(jobServerUrl, IaJobServer.UPDATE_FEATURES_JOB, args);
+            return;
+        }
+        try {
+            run(args).throwIfFailed();
+        } finally {
+            // Write the queued log messages before a failed run ends the JVM
+            ExecutionLog.flush();
+        }
+    }
+
+    /**
+     * Method to run the job with the Command Line Arguments, in this JVM or on the IA Job Server
+     *
+     * @param args Command Line Arguments as for the main method
+     * @return Run result with the updated Features and the number of Features that failed
+     */
+    protected static IaRunResult run(String[] args) {
         // Assign parameters to variables for usage in methods
-        log("**** Class Command Line Arguments****");
+        ExecutionLog.info("**** Class Command Line Arguments****");
         // Base URL for PPM
-        log("ENV_BASE_URL: " + args[0]);
+        ExecutionLog.info("ENV_BASE_URL: " + args[0]);
         // REST API Username
-        log("REST_USERNAME: " + args[1]);
+        ExecutionLog.info("REST_USERNAME: " + args[1]);
         // IS PMO Impact Assessment Request ID
-        log("IA_REQUEST_ID: " + args[3]);
+        ExecutionLog.info("IA_REQUEST_ID: " + args[3]);
         // IT Project ID
-        log("IT_PROJECT_ID: " + args[4]);
+        ExecutionLog.info("IT_PROJECT_ID: " + args[4]);
         // Base URL for OO
-        log("OO_BASE_URL: " + args[5]);
-        log("**** End of Class Command Line Arguments****");
+        ExecutionLog.info("OO_BASE_URL: " + args[5]);
+        ExecutionLog.info("**** End of Class Command Line Arguments****");
 
         final String ppmBaseUrl = args[0];
         final String username = args[1];
@@ -56,108 +87,107 @@ public class UpdateFeatures {
         final String projectId = args[4];
         final String ooBaseUrl = args[5];
         final String ooAuthKey = args[6];
+        // Optional Command Line Options
+        final RunOptions runOptions = new RunOptions(args, 7);
+        final int maxParallelFeatures = runOptions.getInt("parallel", 1);
+        final boolean force = runOptions.has("force");
+        final int ooWaitSeconds = runOptions.getInt("oo-wait", 0);
+        final int ooBatchSize = runOptions.getInt("oo-batch", 1);
+        final RunDeadline deadline = RunDeadline.ofSeconds(runOptions.getInt("deadline", Integer.getInteger("ia.run.deadlineSeconds", 0)));
+        ExecutionLog.info("MAX_PARALLEL_FEATURES: " + maxParallelFeatures);
+        ExecutionLog.info("FORCE: " + force);
+        ExecutionLog.info("OO_WAIT_SECONDS: " + ooWaitSeconds);
+        ExecutionLog.info("OO_BATCH_SIZE: " + ooBatchSize);
+        ExecutionLog.info("RUN_DEADLINE: " + deadline);
+        // Create the shared REST Gateways for all the PPM and OO calls of this run, the calls are recorded in the call metrics of the run
+        // and the call timeouts are limited to the time left until the run deadline
+        final CallMetrics runMetrics = new CallMetrics();
+        final RestGateway ppmGateway = RestGateway.ppmGateway(ppmBaseUrl, username, password).withCallMetrics(runMetrics).withDeadline(deadline);
+        final RestGateway ooGateway = RestGateway.ooGateway(ooBaseUrl, ooAuthKey).withCallMetrics(runMetrics).withDeadline(deadline);
         // Create new instances of ImpactAssessmentProcessor objects to be used in this class
-        ImpactAssessmentProcessor iaProcessor = new ImpactAssessmentProcessor();
+        ImpactAssessmentProcessor iaProcessor = new ImpactAssessmentProcessor(ppmGateway);
+        // Updated Features and the number of Features that failed to update
+        IaRunResult runResult = new IaRunResult(requestId);
         try {
-            log("<<-- Update PPM Feature Fields from IS PMO Impact Assessment -->>");
-            log("<<- Get Impacted System  REST SQL Query ->>");
-            // Assign Impacted Systems table data to the ArrayList Object with the Impacted Systems table data
-            ArrayList<ImpactedSystemValues> impactedSystemsData = iaProcessor.getIaImpactedSystemsTableData(ppmBaseUrl, username, password, SQL_REST_URL, requestId);
+            ExecutionLog.info("<<-- Update PPM Feature Fields from IS PMO Impact Assessment -->>");
+            ExecutionLog.info("<<- Get Impacted System and PPM Features in one REST SQL Query batch ->>");
+            // Combine the Impacted Systems and linked PPM Features SQL Queries into one sqlRunner round trip
+            SqlQueryBatch readBatch = new SqlQueryBatch();
+            iaProcessor.addIaImpactedSystemsTableQuery(readBatch, requestId);
+            iaProcessor.addFeaturesLinkedToIaQuery(readBatch, projectId);
+            // The IS lookups are read in the same round trip when the LookupCache has no lookups within the time to live
+            iaProcessor.addLookupQueries(readBatch);
+            final long readMillis = System.currentTimeMillis();
+            HashMap<String, SqlQueryResult> readResults = iaProcessor.runSqlQueryBatch(SQL_REST_URL, readBatch);
+            iaProcessor.setLookups(readResults, readMillis);
+            // Index the Impacted Systems table data by IS Domain once for all the Features
+            ImpactModel impactModel = new ImpactModel(iaProcessor.getIaImpactedSystemsTableData(readResults.get(ImpactAssessmentProcessor.QRY_IA_IMPACTED_SYSTEMS)));
             // Check if Impacted Systems table is empty
-            if (impactedSystemsData.isEmpty()) {
-                log("No Impacted Systems captured in the IS PMO Impact Assessment table component.");
+            if (impactModel.isEmpty()) {
+                ExecutionLog.info("No Impacted Systems captured in the IS PMO Impact Assessment table component.");
             } else {
-                log("<<- Get PPM Features REST SQL Query ->>");
                 // Assign PPM Features data to the ArrayList Object with the linked PPM Features
-                ArrayList<FeatureValues> featuresLinkedToIaData = iaProcessor.getFeaturesLinkedToIaData(ppmBaseUrl, username, password, SQL_REST_URL, projectId);
-                log("<<-- Start Update PUT Request (IS PMO Feature(s) or IS PMO Testing Feature) -->>");
+                ArrayList<FeatureValues> featuresLinkedToIaData = iaProcessor.getFeaturesLinkedToIaData(readResults.get(ImpactAssessmentProcessor.QRY_FEATURES_LINKED_TO_IA));
+                ExecutionLog.info("<<-- Start Update PUT Request (IS PMO Feature(s) or IS PMO Testing Feature) -->>");
                 // Check if the ArrayList Object with the linked PPM Features is empty
                 if (!featuresLinkedToIaData.isEmpty()) {
-                    // Iterate through the IS PMO Feature/IS PMO Testing Feature requests
-                    for (FeatureValues featuresLinkedToIa : featuresLinkedToIaData) {
-                        // Assign the PPM Feature, IS Domain to string variable
-                        String featureDomain = featuresLinkedToIa.getFeatureIsDomain();
-                        log("<strong>Feature Number: " + featuresLinkedToIa.getFeatureRequestId() + " and IS Domain: " + featureDomain + "</strong>");
-                        // Check Feature Domain equal to "Test Automation"
-                        if (featureDomain.equalsIgnoreCase("Test Automation")) {
-                            // Update the IS PMO Testing Feature Request Type
-                            // Variable to store All the Impacted System Values
-                            ArrayList<ImpactedSystemValues> allImpactedSystemValues = new ArrayList<>();
-                            // Iterate through All the Impacted Systems
-                            for (ImpactedSystemValues impactedSystems : impactedSystemsData) {
-                                allImpactedSystemValues.add(new ImpactedSystemValues(impactedSystems.getOctaneWorkspace(), impactedSystems.getIsDomain(), impactedSystems.getImpactedSystem(), impactedSystems.getInvolvement(), impactedSystems.getEstimateHours()));
-                            }
-                            // Update the IS PMO Feature Request Type
-                            iaProcessor.updateFeatureRequestTypeImpactedSystemFields(ppmBaseUrl, username, password, REQ_REST_URL, featuresLinkedToIa.getFeatureRequestId(), allImpactedSystemValues, impactedSystemsData);
-                            // Update Octane Feature Impacted Systems through OpenText OO application if Octane Feature URL exists
-                            String octFeatureUrl = featuresLinkedToIa.getOctaneFeatureUrl();
-                            if (isNotBlankString(octFeatureUrl)) {
-                                final String testingFeatureSystemsImpacted = iaProcessor.setImpactedSystemString(allImpactedSystemValues);
-                                OctaneFeatureOoProcessor ooProcessor = new OctaneFeatureOoProcessor(ooBaseUrl, ooAuthKey, octFeatureUrl, testingFeatureSystemsImpacted);
-                                ooProcessor.updateOctaneFeatureImpactedSystems();
-                            }
-                        } else {
-                            // IS Domains no equal to "Test Automation"
-                            // Variable to store the Impacted System Values for the domain
-                            ArrayList<ImpactedSystemValues> domainImpactedSystemValues = new ArrayList<>();
-                            // Iterate through the Impacted Systems for a domain
-                            for (ImpactedSystemValues impactedSystems : impactedSystemsData) {
-                                // Compare the Domain values and add to the variable
-                                if (impactedSystems.getIsDomain().equalsIgnoreCase(featureDomain)) {
-                                    domainImpactedSystemValues.add(new ImpactedSystemValues(impactedSystems.getOctaneWorkspace(), impactedSystems.getIsDomain(), impactedSystems.getImpactedSystem(), impactedSystems.getInvolvement(), impactedSystems.getEstimateHours()));
-                                }
-                            }
-                            // Update the IS PMO Feature Request Type
-                            iaProcessor.updateFeatureRequestTypeImpactedSystemFields(ppmBaseUrl, username, password, REQ_REST_URL, featuresLinkedToIa.getFeatureRequestId(), domainImpactedSystemValues, impactedSystemsData);
-                            // Update Octane Feature Impacted Systems through OpenText OO application if Octane Feature URL exists
-                            String octFeatureUrl = featuresLinkedToIa.getOctaneFeatureUrl();
-                            if (isNotBlankString(octFeatureUrl)) {
-                                final String featureSystemsImpacted = iaProcessor.setImpactedSystemString(domainImpactedSystemValues);
-                                OctaneFeatureOoProcessor ooProcessor = new OctaneFeatureOoProcessor(ooBaseUrl, ooAuthKey, octFeatureUrl, featureSystemsImpacted);
-                                ooProcessor.updateOctaneFeatureImpactedSystems();
-                            }
-
-                        }
+                    // Update the IS PMO Feature/IS PMO Testing Feature requests and collect the outcome per Feature
+                    // Only send the PUT Requests and start the OO flows of Features with changed Impacted Systems, unless --force is set
+                    FeatureFingerprintStore fingerprintStore = FeatureFingerprintStore.forEnvironment(ppmBaseUrl);
+                    FeatureUpdateRunner updateRunner = new FeatureUpdateRunner(iaProcessor, ooGateway, REQ_REST_URL, impactModel, maxParallelFeatures, fingerprintStore, force, ooBatchSize, deadline);
+                    ArrayList<FeatureUpdateResult> updateResults;
+                    int failedOoFlowCount;
+                    try {
+                        updateResults = updateRunner.updateFeatures(featuresLinkedToIaData);
+                        // Start the OO batch flows, the Features of an OO batch flow that could not be started fail
+                        updateRunner.flushOoBatch(updateResults);
+                        // Report the OO flow executions, after waiting for them with --oo-wait
+                        failedOoFlowCount = updateRunner.awaitOoExecutions(ooWaitSeconds * 1000L);
+                    } finally {
+                        updateRunner.saveFingerprints();
+                    }
+                    int failedFeatureCount = FeatureUpdateRunner.logSummary(updateResults);
+                    runResult.addFeatureRequestIds(FeatureUpdateRunner.getUpdatedRequestIds(updateResults));
+                    ArrayList<String> notProcessedRequestIds = FeatureUpdateRunner.getNotProcessedRequestIds(updateResults);
+                    // Fail the run if any of the Features could not be updated, or any OO flow failed when waiting for the OO flows
+                    if (ooWaitSeconds <= 0) {
+                        failedOoFlowCount = 0;
+                    }
+                    // Fail the run if any of the Features was not processed before the run deadline, the run can be resumed for these Features
+                    if (failedFeatureCount + failedOoFlowCount + notProcessedRequestIds.size() > 0) {
+                        runResult.setFailed(failedFeatureCount + failedOoFlowCount + notProcessedRequestIds.size(), "Failed to update " + failedFeatureCount + " IS PMO Feature(s)"
+                                + (failedOoFlowCount > 0 ? " and " + failedOoFlowCount + " Octane Feature OO flow(s) failed" : "")
+                                + (notProcessedRequestIds.isEmpty() ? "" : ", IS PMO Feature(s) not processed before the run deadline: " + String.join(",", notProcessedRequestIds)));
                     }
                 }
-                log("<<-- End Update PUT Request (IS PMO Feature(s) or IS PMO Testing Feature) -->>");
+                ExecutionLog.info("<<-- End Update PUT Request (IS PMO Feature(s) or IS PMO Testing Feature) -->>");
 
             }
-        } catch (IOException | ParseException | JSONException e) {
+            ExecutionLog.info(RestGateway.getConnectionStatistics());
+            runMetrics.logSummary();
+            CallMetrics.global().writePrometheusTextfile();
+        } catch (IOException | JSONException e) {
             throw new RuntimeException(e);
         }
-    }
-
-    /**
-     * Method to check if a String is Blank or Null
-     *
-     * @param string String for verification
-     * @return Boolean (True or False)
-     */
-    private static boolean isNotBlankString(String string) {
-        return string != null && !string.isEmpty() && !string.trim().isEmpty() && !string.equalsIgnoreCase("null");
+        return runResult;
     }
 
     /**
      * Method to write out the Command Line Arguments for this class
      */
     private static void printCommandLineArguments() {
-        log("Command Line Arguments Layout: sc_ia_update_is_features <ENV_BASE_URL> <REST_USERNAME> <REST_USER_PASSWORD> <IA_REQUEST_ID> <IT_PROJECT_ID> <OO_BASE_URL> <OO_AUTH_KEY>");
-        log("ENV_BASE_URL: args[0] (PPM Base URL)");
-        log("REST_USERNAME: args[1] (PPM System User - ppmsysuser)");
-        log("REST_USER_PASSWORD: args[2] (PPM System User Password)");
-        log("IA_REQUEST_ID: args[3] (IS PMO Impact Assessment No)");
-        log("IT_PROJECT_ID: args[4] (IS PMO Impact Assessment Linked IT Project Id)");
-        log("OO_BASE_URL: args[5] (OO Environment Base URL)");
-        log("OO_AUTH_KEY: args[6] (OO Authentication Key)");
-    }
-
-    /**
-     * Method to write out to the console or log file
-     *
-     * @param str String to print to console
-     */
-    private static void log(final String str) {
-        System.out.println(str);
+        ExecutionLog.info("Command Line Arguments Layout: sc_ia_update_is_features <ENV_BASE_URL> <REST_USERNAME> <REST_USER_PASSWORD> <IA_REQUEST_ID> <IT_PROJECT_ID> <OO_BASE_URL> <OO_AUTH_KEY>");
+        ExecutionLog.info("ENV_BASE_URL: args[0] (PPM Base URL)");
+        ExecutionLog.info("REST_USERNAME: args[1] (PPM System User - ppmsysuser)");
+        ExecutionLog.info("REST_USER_PASSWORD: args[2] (PPM System User Password)");
+        ExecutionLog.info("IA_REQUEST_ID: args[3] (IS PMO Impact Assessment No)");
+        ExecutionLog.info("IT_PROJECT_ID: args[4] (IS PMO Impact Assessment Linked IT Project Id)");
+        ExecutionLog.info("OO_BASE_URL: args[5] (OO Environment Base URL)");
+        ExecutionLog.info("OO_AUTH_KEY: args[6] (OO Authentication Key)");
+        ExecutionLog.info("Optional: --parallel=N (Maximum number of Features updated at the same time, default 1)");
+        ExecutionLog.info("Optional: --force (Send the Feature PUT Requests and start the OO flows even if the Impacted Systems did not change)");
+        ExecutionLog.info("Optional: --oo-wait=N (Seconds to wait for the OO flows to finish, failed OO flows fail the run, default 0 to report without waiting)");
+        ExecutionLog.info("Optional: --oo-batch=N (Maximum number of Octane Features in one OO batch flow, requires ia.oo.batchFlowUuid, default 1 for one OO flow per Octane Feature)");
+        ExecutionLog.info("Optional: --deadline=N (Seconds the run may take, default the System Property ia.run.deadlineSeconds or 0 for no deadline)");
     }
 }
@@ -0,0 +1,33 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that creates the bounded worker thread pools used for running PPM and OO REST calls in parallel
+ */
+public class WorkerPools {
+
+    /**
+     * Private constructor, the class only has static methods
+     */
+    private WorkerPools() {
+    }
+
+    /**
+     * Method to create a fixed size pool of daemon worker threads
+     *
+     * @param poolName       Name prefix for the worker threads
+     * @param maxParallelism Maximum number of worker threads
+     * @return ExecutorService for the worker threads
+     */
+    protected static ExecutorService newFixedPool(final String poolName, int maxParallelism) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, maxParallelism), runnable -> {
+            Thread thread = new Thread(runnable, poolName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
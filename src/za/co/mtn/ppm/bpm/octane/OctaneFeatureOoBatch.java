@@ -0,0 +1,159 @@
+package za.co.mtn.ppm.bpm.octane;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Class for updating the Impacted Systems of many Octane Features with one OpenText OO flow execution.
+ * The Octane Features are collected and sent in chunks of the batch size to the batch flow, as a JSON list input
+ * with the Feature_URL and Impacted_Applications of every Octane Feature.
+ * The chunks are sent by flush after the Feature updates, so the worker thread that fills a chunk does not wait for OO.
+ * The batch flow is set with the following System Properties:
+ * - ia.oo.batchFlowUuid (required for the batch mode)
+ * - ia.oo.batchRunName (default PPM_Octane_Move_Features)
+ * - ia.oo.batchInputName (default Features)
+ */
+public class OctaneFeatureOoBatch {
+    // OO flow that updates the Impacted Systems of a list of Octane Features
+    private static final String BATCH_FLOW_UUID = System.getProperty("ia.oo.batchFlowUuid");
+    private static final String BATCH_RUN_NAME = System.getProperty("ia.oo.batchRunName", "PPM_Octane_Move_Features");
+    private static final String BATCH_INPUT_NAME = System.getProperty("ia.oo.batchInputName", "Features");
+    // Class Variables set by the constructor
+    private final RestGateway ooGateway;
+    private final int batchSize;
+    private final OoExecutionTracker ooExecutionTracker;
+    private final BiConsumer<String, String> sentListener;
+    // Octane Features waiting for the next chunk: Feature Request ID, Octane Feature URL, Impacted Systems, fingerprint
+    private final ArrayList<String[]> pendingFeatures = new ArrayList<>();
+    // Full chunks waiting for flush
+    private final ArrayList<ArrayList<String[]>> fullChunks = new ArrayList<>();
+    // Feature Request ID as Key and the error of the chunk that could not be sent as Value
+    private final LinkedHashMap<String, String> failedFeatures = new LinkedHashMap<>();
+
+    /**
+     * Constructor method for the OO batch of a run
+     *
+     * @param ooGateway          OO REST Gateway with the OO Base URL and Authentication Key
+     * @param batchSize          Maximum number of Octane Features in one OO flow execution
+     * @param ooExecutionTracker Tracker for the started OO flow executions
+     * @param sentListener       Called with the Octane Feature URL and fingerprint of every Octane Feature of a started OO flow
+     */
+    public OctaneFeatureOoBatch(RestGateway ooGateway, int batchSize, OoExecutionTracker ooExecutionTracker, BiConsumer<String, String> sentListener) {
+        this.ooGateway = ooGateway;
+        this.batchSize = Math.max(1, batchSize);
+        this.ooExecutionTracker = ooExecutionTracker;
+        this.sentListener = sentListener;
+    }
+
+    /**
+     * Method to check if the batch flow is set
+     *
+     * @return Boolean (True or False)
+     */
+    public static boolean isBatchFlowSet() {
+        return BATCH_FLOW_UUID != null && !BATCH_FLOW_UUID.trim().isEmpty();
+    }
+
+    /**
+     * Method to add an Octane Feature to the batch, a full chunk waits for flush
+     *
+     * @param featureRequestId          IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param octFeatureUrl             Octane Feature URL
+     * @param featureImpactedSystemList PPM Feature Impacted System list string
+     * @param ooFingerprint             Fingerprint of the Impacted Systems, passed to the sent listener when the OO flow started
+     */
+    public synchronized void add(String featureRequestId, String octFeatureUrl, String featureImpactedSystemList, String ooFingerprint) {
+        pendingFeatures.add(new String[]{featureRequestId, octFeatureUrl, featureImpactedSystemList, ooFingerprint});
+        if (pendingFeatures.size() >= batchSize) {
+            fullChunks.add(new ArrayList<>(pendingFeatures));
+            pendingFeatures.clear();
+        }
+    }
+
+    /**
+     * Method to send the full chunks and the Octane Features that are waiting for a chunk
+     */
+    public void flush() {
+        ArrayList<ArrayList<String[]>> chunks;
+        synchronized (this) {
+            chunks = new ArrayList<>(fullChunks);
+            fullChunks.clear();
+            if (!pendingFeatures.isEmpty()) {
+                chunks.add(new ArrayList<>(pendingFeatures));
+                pendingFeatures.clear();
+            }
+        }
+        for (ArrayList<String[]> chunk : chunks) {
+            sendChunk(chunk);
+        }
+    }
+
+    /**
+     * Method to get the Octane Features of the chunks that could not be sent
+     *
+     * @return Feature Request ID as Key and the error of the chunk as Value
+     */
+    public synchronized LinkedHashMap<String, String> getFailedFeatures() {
+        return new LinkedHashMap<>(failedFeatures);
+    }
+
+    /**
+     * Method to start one OO flow execution for a chunk of Octane Features and track it for every Octane Feature.
+     * A chunk that cannot be sent is kept as failed, so that the other chunks are still sent.
+     *
+     * @param chunk Octane Features of the chunk
+     */
+    private void sendChunk(ArrayList<String[]> chunk) {
+        ExecutionLog.info("<<- Update OO Impacted Systems of " + chunk.size() + " Octane Feature(s) with one OO flow ->>");
+        try {
+            String executionId = OctaneFeatureOoProcessor.startExecution(ooGateway, setJsonObjectOOBatchRequest(chunk));
+            for (String[] feature : chunk) {
+                // The fingerprint is only kept for the Octane Features of an OO flow that started
+                sentListener.accept(feature[1], feature[3]);
+                if (!executionId.isEmpty()) {
+                    ooExecutionTracker.track(executionId, feature[0], feature[1]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            ExecutionLog.error("OO batch flow for " + chunk.size() + " Octane Feature(s) failed: " + e);
+            synchronized (this) {
+                for (String[] feature : chunk) {
+                    failedFeatures.put(feature[0], "OO batch flow failed: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set JSON Object with the Json Payload for the OO batch Post Request
+     *
+     * @param chunk Octane Features of the chunk
+     * @return JSON Object with the Payload
+     */
+    private JSONObject setJsonObjectOOBatchRequest(ArrayList<String[]> chunk) throws JSONException {
+        JSONArray jsonFeatures = new JSONArray();
+        for (String[] feature : chunk) {
+            JSONObject jsonFeature = new JSONObject();
+            jsonFeature.put("Feature_URL", feature[1]);
+            jsonFeature.put("Impacted_Applications", feature[2]);
+            jsonFeatures.put(jsonFeature);
+        }
+        // OO flow inputs are strings, the list is passed as JSON text
+        JSONObject jsonInputs = new JSONObject();
+        jsonInputs.put(BATCH_INPUT_NAME, jsonFeatures.toString());
+        JSONObject jsonObj = new JSONObject();
+        jsonObj.put("flowUuid", BATCH_FLOW_UUID);
+        jsonObj.put("runName", BATCH_RUN_NAME);
+        jsonObj.put("logLevel", "STANDARD");
+        jsonObj.put("inputs", jsonInputs);
+        return jsonObj;
+    }
+}
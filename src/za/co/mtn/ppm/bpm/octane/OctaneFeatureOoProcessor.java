@@ -1,36 +1,41 @@
 package za.co.mtn.ppm.bpm.octane;
 
-import okhttp3.*;
+import okhttp3.Response;
 import org.json.JSONException;
 import org.json.JSONObject;
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.TreeSet;
 
 
 /**
  * Class for using OpenText OO application to Update Octane Features
+ * The OO flow can be set with the following System Properties:
+ * - ia.oo.flowUuid (default 538549a6-6ddb-42fd-bf39-c46fd5040eab)
+ * - ia.oo.runName (default PPM_Octane_Move_Feature)
  */
 public class OctaneFeatureOoProcessor {
     // Class Constant for OO REST URL
     private static final String OO_URL = "oo/rest/v2/executions";
+    // OO flow that updates the Impacted Systems of one Octane Feature
+    private static final String FLOW_UUID = System.getProperty("ia.oo.flowUuid", "538549a6-6ddb-42fd-bf39-c46fd5040eab");
+    private static final String RUN_NAME = System.getProperty("ia.oo.runName", "PPM_Octane_Move_Feature");
     // Class Variables set by the constructor
-    private final String ooBaseUrl;
-    private final String ooAuthKey;
+    private final RestGateway ooGateway;
     private final String octFeatureUrl;
     private final String featureImpactedSystemList;
 
     /**
      * Constructor to set OO POST variables for the Updating of Impacted Systems
      *
-     * @param ooBaseUrl                 OO Base URL
-     * @param ooAuthKey                 OO Authentication Key
+     * @param ooGateway                 OO REST Gateway with the OO Base URL and Authentication Key
      * @param octFeatureUrl             PPM Feature Request ID
      * @param featureImpactedSystemList PPM Feature Impacted System list string
      */
-    public OctaneFeatureOoProcessor(String ooBaseUrl, String ooAuthKey, String octFeatureUrl, String featureImpactedSystemList) {
-        this.ooBaseUrl = ooBaseUrl;
-        this.ooAuthKey = ooAuthKey;
+    public OctaneFeatureOoProcessor(RestGateway ooGateway, String octFeatureUrl, String featureImpactedSystemList) {
+        this.ooGateway = ooGateway;
         this.octFeatureUrl = octFeatureUrl;
         this.featureImpactedSystemList = featureImpactedSystemList;
     }
@@ -39,46 +44,60 @@ public class OctaneFeatureOoProcessor {
      * Method to update the Octane Feature Impacted Systems with OpenText OO Application
      * OO REST Request - POST with Json Payload
      *
+     * @return OO Execution ID of the started flow
      * @throws IOException Java IO Exceptions
      */
-    public void updateOctaneFeatureImpactedSystems() throws IOException, JSONException {
-        // REST API URL
-        String ooUrl = getOoBaseUrl() + OO_URL;
-        log("<<- Update OO Impacted Systems with OO ->>");
-        log("POST Request OO URL: " + ooUrl);
-        // OO Authentication Key for Basic Authentication
-        final String authHeader = "Basic " + getOoAuthKey();
-        // Set the POST Request and all the parameters
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(20, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .callTimeout(30, TimeUnit.SECONDS).build();
-        MediaType mediaType = MediaType.parse("application/json");
+    public String updateOctaneFeatureImpactedSystems() throws IOException, JSONException {
+        ExecutionLog.info("<<- Update OO Impacted Systems with OO ->>");
         // Set the Json Payload for the POST Request
-        String jsonPayload = setJsonObjectOORequest(featureImpactedSystemList, getOctFeatureUrl()).toString();
-        log("Create OO Pay Load: " + jsonPayload);
-        // POST Request Body
-        RequestBody body = RequestBody.create(mediaType, jsonPayload);
-        // POST Request
-        Request request = new Request.Builder()
-                .url(ooUrl).addHeader("Authorization", authHeader)
-                .addHeader("accept", "application/json")
-                .post(body)
-                .build();
-        Call call = client.newCall(request);
-        // Execute the POST Request
-        Response response = call.execute();
-        // Get the Response from server for the GET REST Request done.
-        if (!response.isSuccessful()) {
-            throw new RuntimeException("Failed : HTTP error code : " + response.code());
-        }
+        JSONObject jsonPayload = setJsonObjectOORequest(featureImpactedSystemList, getOctFeatureUrl());
+        return startExecution(getOoGateway(), jsonPayload);
+    }
+
+    /**
+     * Method to start an OO flow execution
+     * OO REST Request - POST with Json Payload
+     *
+     * @param ooGateway   OO REST Gateway with the OO Base URL and Authentication Key
+     * @param jsonPayload JSON Object with the flow UUID, run name and inputs
+     * @return OO Execution ID of the started flow
+     * @throws IOException Java IO Exceptions
+     */
+    protected static String startExecution(RestGateway ooGateway, JSONObject jsonPayload) throws IOException {
+        // REST API URL
+        String ooUrl = ooGateway.getBaseUrl() + OO_URL;
+        ExecutionLog.debug(() -> "POST Request OO URL: " + ooUrl);
+        ExecutionLog.debugPayload("Create OO Pay Load: ", jsonPayload::write);
+        // Execute the POST Request through the shared OO REST Gateway
+        Response response = ooGateway.postJson("oo.execute", OO_URL, jsonPayload.toString());
 
         // JSONTokener - Set all the JSON keys as a token from the Json Return string.
         assert response.body() != null : "The POST Return Body is Empty";
-        log("Successful POST OO Response code: " + response.code() + " and OO Response Message: " + response.body().string());
+        // The Response Body is the Execution ID of the started flow
+        String executionId = response.body().string().trim().replace("\"", "");
+        ExecutionLog.debug(() -> "Successful POST OO Response code: " + response.code() + " and OO Response Message: " + executionId);
         // Disconnect the connection
         response.close();
+        return executionId;
+    }
+
+    /**
+     * Method to set the canonical form of an Impacted Systems list, the same set of Impacted Systems in any order
+     * gives the same canonical form
+     *
+     * @param featureImpactedSystemList Semicolon separated Impacted Systems, can be null
+     * @return Sorted and semicolon separated Impacted Systems without duplicates, empty string for no Impacted Systems
+     */
+    public static String getCanonicalImpactedSystems(String featureImpactedSystemList) {
+        TreeSet<String> impactedSystems = new TreeSet<>();
+        if (featureImpactedSystemList != null) {
+            for (String impactedSystem : featureImpactedSystemList.split(";")) {
+                if (!impactedSystem.trim().isEmpty()) {
+                    impactedSystems.add(impactedSystem.trim());
+                }
+            }
+        }
+        return String.join(";", impactedSystems);
     }
 
     /**
@@ -93,29 +112,20 @@ public class OctaneFeatureOoProcessor {
         jsonInputs.put("Impacted_Applications", impactedApplications);
         jsonInputs.put("Feature_URL", featureUrl);
         JSONObject jsonObj = new JSONObject();
-        jsonObj.put("flowUuid", "538549a6-6ddb-42fd-bf39-c46fd5040eab");
-        jsonObj.put("runName", "PPM_Octane_Move_Feature");
+        jsonObj.put("flowUuid", FLOW_UUID);
+        jsonObj.put("runName", RUN_NAME);
         jsonObj.put("logLevel", "STANDARD");
         jsonObj.put("inputs", jsonInputs);
         return jsonObj;
     }
 
     /**
-     * Getter for the Octane Base URL
+     * Getter for the OO REST Gateway
      *
-     * @return Octane Base URL string
+     * @return OO REST Gateway
      */
-    private String getOoBaseUrl() {
-        return ooBaseUrl;
-    }
-
-    /**
-     * Getter for the OO Authentication Key
-     *
-     * @return OO Authentication Key string
-     */
-    private String getOoAuthKey() {
-        return ooAuthKey;
+    private RestGateway getOoGateway() {
+        return ooGateway;
     }
 
     private String getOctFeatureUrl() {
@@ -125,13 +135,4 @@ public class OctaneFeatureOoProcessor {
     private String getFeatureImpactedSystemList() {
         return featureImpactedSystemList;
     }
-
-    /**
-     * Method to write out to the consul
-     *
-     * @param str String to write out
-     */
-    private static void log(final String str) {
-        System.out.println(str);
-    }
 }
@@ -0,0 +1,130 @@
+package za.co.mtn.ppm.bpm.octane;
+
+/**
+ * Class for storing the status of an OpenText OO flow execution started for an Octane Feature
+ */
+public class OoExecution {
+    // OO execution states of a finished execution
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_SYSTEM_FAILURE = "SYSTEM_FAILURE";
+    private static final String STATUS_CANCELED = "CANCELED";
+    // OO result type of a flow that ended in an error step
+    private static final String RESULT_ERROR = "ERROR";
+    // Class Variables set by the constructor
+    private final String executionId;
+    private final String featureRequestId;
+    private final String octFeatureUrl;
+    private final long startedMillis = System.currentTimeMillis();
+    // Execution progress, updated by the poll thread
+    private volatile String status = "RUNNING";
+    private volatile String resultStatusType;
+    private volatile long finishedMillis;
+
+    /**
+     * Constructor method for the class storing the OO flow execution status
+     *
+     * @param executionId      OO Execution ID returned by the POST Request
+     * @param featureRequestId IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param octFeatureUrl    Octane Feature URL
+     */
+    public OoExecution(String executionId, String featureRequestId, String octFeatureUrl) {
+        this.executionId = executionId;
+        this.featureRequestId = featureRequestId;
+        this.octFeatureUrl = octFeatureUrl;
+    }
+
+    /**
+     * Method to set the status of the execution from the OO execution summary
+     *
+     * @param status           OO execution status (RUNNING, COMPLETED, SYSTEM_FAILURE, CANCELED etc.)
+     * @param resultStatusType OO flow result type (RESOLVED, ERROR etc.), can be null while the execution runs
+     */
+    protected void setStatus(String status, String resultStatusType) {
+        this.resultStatusType = resultStatusType;
+        this.status = status;
+        if (isFinished() && finishedMillis == 0) {
+            finishedMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Method to check if the execution finished
+     *
+     * @return Boolean (True or False)
+     */
+    public boolean isFinished() {
+        return STATUS_COMPLETED.equals(status) || STATUS_SYSTEM_FAILURE.equals(status) || STATUS_CANCELED.equals(status);
+    }
+
+    /**
+     * Method to check if the execution completed without an error result
+     *
+     * @return Boolean (True or False)
+     */
+    public boolean isSuccessful() {
+        return STATUS_COMPLETED.equals(status) && !RESULT_ERROR.equals(resultStatusType);
+    }
+
+    /**
+     * Method to check if the execution finished with a failure
+     *
+     * @return Boolean (True or False)
+     */
+    public boolean isFailed() {
+        return isFinished() && !isSuccessful();
+    }
+
+    /**
+     * Get method for the OO Execution ID
+     *
+     * @return Execution ID string value
+     */
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    /**
+     * Get method for the IS PMO Feature or IS PMO Testing Feature Request ID
+     *
+     * @return Request ID string value
+     */
+    public String getFeatureRequestId() {
+        return featureRequestId;
+    }
+
+    /**
+     * Get method for the Octane Feature URL
+     *
+     * @return Octane Feature URL string value
+     */
+    public String getOctFeatureUrl() {
+        return octFeatureUrl;
+    }
+
+    /**
+     * Get method for the OO execution status
+     *
+     * @return Status string value
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Get method for the OO flow result type
+     *
+     * @return Result type string value or null
+     */
+    public String getResultStatusType() {
+        return resultStatusType;
+    }
+
+    /**
+     * Method to get the time the execution ran, up to now for a running execution
+     *
+     * @return Elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return (finishedMillis == 0 ? System.currentTimeMillis() : finishedMillis) - startedMillis;
+    }
+}
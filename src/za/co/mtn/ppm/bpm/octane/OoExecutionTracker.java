@@ -0,0 +1,277 @@
+package za.co.mtn.ppm.bpm.octane;
+
+import okhttp3.Response;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+import za.co.mtn.ppm.bpm.rest.RestGateway;
+import za.co.mtn.ppm.bpm.rest.RunDeadline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that follows the OpenText OO flow executions started for the Octane Features of a run.
+ * The Execution IDs are registered as the flows are started, and the status of all the running executions is polled
+ * together with the OO execution summary REST call on a scheduler thread shared by all the runs of the JVM.
+ * The poll interval starts short and backs off while the executions are still running, so the update of the Features never waits for OO.
+ * The poll thread does not write to the console, as it is shared by the jobs of the IA Job Server; the outcome is written by logReport.
+ * The executions are polled without the run deadline, as they run on in OO after the run; the poll stops when the tracker is closed.
+ * The poll can be tuned with the following System Properties:
+ * - ia.oo.pollInitialMillis (default 2000)
+ * - ia.oo.pollMaxMillis (default 30000)
+ * - ia.oo.pollMaxMinutes (default 60, executions running longer are no longer polled)
+ */
+public class OoExecutionTracker {
+    // Constant variables for the class
+    private static final String OO_SUMMARY_URL = "oo/rest/v2/executions/";
+    private static final long POLL_INITIAL_MILLIS = Long.getLong("ia.oo.pollInitialMillis", 2_000L);
+    private static final long POLL_MAX_MILLIS = Long.getLong("ia.oo.pollMaxMillis", 30_000L);
+    private static final long POLL_GIVE_UP_MILLIS = Long.getLong("ia.oo.pollMaxMinutes", 60L) * 60_000L;
+    // Maximum number of Execution IDs in one summary REST call
+    private static final int POLL_BATCH_SIZE = 50;
+    // Scheduler thread shared by all the trackers
+    private static final ScheduledThreadPoolExecutor POLL_SCHEDULER = newPollScheduler();
+    // Class Variables set by the constructor
+    private final RestGateway ooGateway;
+    // Executions in the order they were started
+    private final ArrayList<OoExecution> executions = new ArrayList<>();
+    private ScheduledFuture<?> pollFuture;
+    private boolean closed = false;
+    private long pollDelayMillis = POLL_INITIAL_MILLIS;
+    private volatile String lastPollError;
+
+    /**
+     * Constructor method for the tracker of the OO executions of a run
+     *
+     * @param ooGateway OO REST Gateway with the OO Base URL and Authentication Key
+     */
+    public OoExecutionTracker(RestGateway ooGateway) {
+        this.ooGateway = ooGateway.withDeadline(RunDeadline.none());
+    }
+
+    /**
+     * Method to create the scheduler thread shared by all the trackers, the poll of a closed tracker is removed from the queue
+     *
+     * @return Scheduler with one daemon thread
+     */
+    private static ScheduledThreadPoolExecutor newPollScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "oo-execution-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Method to register a started OO flow execution, the status is polled in the background
+     *
+     * @param executionId      OO Execution ID returned by the POST Request
+     * @param featureRequestId IS PMO Feature or IS PMO Testing Feature Request ID
+     * @param octFeatureUrl    Octane Feature URL
+     */
+    public synchronized void track(String executionId, String featureRequestId, String octFeatureUrl) {
+        executions.add(new OoExecution(executionId, featureRequestId, octFeatureUrl));
+        if (pollFuture == null && !closed) {
+            pollDelayMillis = POLL_INITIAL_MILLIS;
+            pollFuture = POLL_SCHEDULER.schedule(this::poll, pollDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Method to stop the poll of the executions after the run, the executions keep the last polled status
+     */
+    public synchronized void close() {
+        closed = true;
+        if (pollFuture != null) {
+            pollFuture.cancel(false);
+            pollFuture = null;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Method to get the status of executions at once, e.g. the executions of a previous run that were still running
+     *
+     * @param pollExecutions Executions to poll
+     * @return Execution IDs with a status in OO, an Execution ID that OO does not return is unknown to OO
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    public HashSet<String> pollNow(List<OoExecution> pollExecutions) throws IOException, JSONException {
+        HashSet<String> summarizedExecutionIds = new HashSet<>();
+        for (int start = 0; start < pollExecutions.size(); start += POLL_BATCH_SIZE) {
+            pollBatch(pollExecutions.subList(start, Math.min(start + POLL_BATCH_SIZE, pollExecutions.size())), summarizedExecutionIds);
+        }
+        return summarizedExecutionIds;
+    }
+
+    /**
+     * Method to wait until all the registered executions finished
+     *
+     * @param timeoutMillis Maximum time to wait in milliseconds
+     * @return True if all the executions finished, false if some are still running after the timeout
+     * @throws InterruptedException When the waiting thread is interrupted
+     */
+    public synchronized boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (getRunningCount() > 0 && !closed) {
+            long waitMillis = deadline - System.currentTimeMillis();
+            if (waitMillis <= 0) {
+                return false;
+            }
+            wait(waitMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Method to get the registered executions
+     *
+     * @return Copy of the executions in the order they were started
+     */
+    public synchronized ArrayList<OoExecution> getExecutions() {
+        return new ArrayList<>(executions);
+    }
+
+    /**
+     * Method to poll the status of all the running executions and schedule the next poll while executions are running
+     */
+    private void poll() {
+        ArrayList<OoExecution> running = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (OoExecution execution : executions) {
+                if (!execution.isFinished() && execution.getElapsedMillis() < POLL_GIVE_UP_MILLIS) {
+                    running.add(execution);
+                }
+            }
+        }
+        boolean statusChanged = false;
+        for (int start = 0; start < running.size(); start += POLL_BATCH_SIZE) {
+            try {
+                statusChanged |= pollBatch(running.subList(start, Math.min(start + POLL_BATCH_SIZE, running.size())), new HashSet<>());
+            } catch (IOException | RuntimeException e) {
+                lastPollError = e.toString();
+            }
+        }
+        synchronized (this) {
+            // Poll again soon when executions finished, otherwise back off
+            pollDelayMillis = statusChanged ? POLL_INITIAL_MILLIS : Math.min(POLL_MAX_MILLIS, pollDelayMillis * 2);
+            if (getPollableCount() > 0 && !closed) {
+                pollFuture = POLL_SCHEDULER.schedule(this::poll, pollDelayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                pollFuture = null;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Method to get the status of a batch of executions with one OO execution summary REST call
+     * OO REST Request - GET "oo/rest/v2/executions/{executionIds}/summary"
+     *
+     * @param batch                  Running executions
+     * @param summarizedExecutionIds Set for the Execution IDs returned by OO
+     * @return True if any of the executions finished
+     * @throws IOException   IO Exceptions are thrown up to the calling method
+     * @throws JSONException JSON Exceptions are thrown up to the calling method
+     */
+    private boolean pollBatch(List<OoExecution> batch, HashSet<String> summarizedExecutionIds) throws IOException, JSONException {
+        // A batch OO flow execution is tracked for every Octane Feature of the batch
+        HashMap<String, ArrayList<OoExecution>> batchExecutions = new HashMap<>();
+        for (OoExecution execution : batch) {
+            batchExecutions.computeIfAbsent(execution.getExecutionId(), executionId -> new ArrayList<>()).add(execution);
+        }
+        JSONArray summaries;
+        try (Response response = ooGateway.getJson("oo.summary", OO_SUMMARY_URL + String.join(",", batchExecutions.keySet()) + "/summary")) {
+            assert response.body() != null : "The GET Return Body is Empty";
+            summaries = new JSONArray(response.body().string());
+        }
+        boolean finished = false;
+        for (int i = 0; i < summaries.length(); i++) {
+            JSONObject summary = summaries.getJSONObject(i);
+            ArrayList<OoExecution> summaryExecutions = batchExecutions.get(summary.optString("executionId"));
+            if (summaryExecutions != null) {
+                summarizedExecutionIds.add(summary.optString("executionId"));
+                for (OoExecution execution : summaryExecutions) {
+                    execution.setStatus(summary.optString("status"), summary.isNull("resultStatusType") ? null : summary.optString("resultStatusType"));
+                    finished |= execution.isFinished();
+                }
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * Method to get the number of executions that did not finish
+     *
+     * @return Running execution count
+     */
+    private synchronized int getRunningCount() {
+        int runningCount = 0;
+        for (OoExecution execution : executions) {
+            if (!execution.isFinished()) {
+                runningCount++;
+            }
+        }
+        return runningCount;
+    }
+
+    /**
+     * Method to get the number of executions that did not finish and are still polled
+     *
+     * @return Polled execution count
+     */
+    private synchronized int getPollableCount() {
+        int pollableCount = 0;
+        for (OoExecution execution : executions) {
+            if (!execution.isFinished() && execution.getElapsedMillis() < POLL_GIVE_UP_MILLIS) {
+                pollableCount++;
+            }
+        }
+        return pollableCount;
+    }
+
+    /**
+     * Method to write out the status of every execution in start order
+     *
+     * @return Number of executions that finished with a failure
+     */
+    public int logReport() {
+        int successCount = 0;
+        int failedCount = 0;
+        ExecutionLog.info("<<-- OO Flow Execution Report -->>");
+        for (OoExecution execution : getExecutions()) {
+            String outcome;
+            if (execution.isSuccessful()) {
+                successCount++;
+                outcome = "SUCCEEDED";
+            } else if (execution.isFailed()) {
+                failedCount++;
+                outcome = "FAILED - " + execution.getStatus() + (execution.getResultStatusType() == null ? "" : " (" + execution.getResultStatusType() + ")");
+            } else {
+                outcome = "STILL RUNNING - " + execution.getStatus();
+            }
+            ExecutionLog.info("Feature Number: " + execution.getFeatureRequestId() + ", OO Execution " + execution.getExecutionId() + ": " + outcome
+                    + " after " + execution.getElapsedMillis() + " ms");
+        }
+        if (lastPollError != null) {
+            ExecutionLog.warn("Last OO execution status poll error: " + lastPollError);
+        }
+        ExecutionLog.info("OO Flows Succeeded: " + successCount + ", OO Flows Failed: " + failedCount
+                + ", OO Flows Still Running: " + (getExecutions().size() - successCount - failedCount));
+        return failedCount;
+    }
+}
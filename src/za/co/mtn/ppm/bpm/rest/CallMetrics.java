@@ -0,0 +1,241 @@
+package za.co.mtn.ppm.bpm.rest;
+
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that keeps the latency, HTTP status codes and payload sizes of the REST calls per operation name
+ * (sql.impactedSystems, req.create, req.update, oo.execute etc.).
+ * Every REST Gateway records its calls in the metrics of the JVM, and in the metrics of the run when the gateway has run metrics.
+ * The run metrics are written out as a summary table at the end of the run, the JVM metrics are written in the Prometheus text format
+ * to the Prometheus textfile after every run and to the /metrics request of the IA Job Server.
+ * The Prometheus textfile is set with the following System Property:
+ * - ia.metrics.textfile (default none, e.g. /var/lib/node_exporter/textfile/ia.prom)
+ */
+public class CallMetrics {
+    // Constant variables for the class
+    private static final String TEXTFILE = System.getProperty("ia.metrics.textfile", "");
+    // Upper bounds of the latency histogram buckets in seconds, the last bucket has no upper bound
+    private static final double[] BUCKET_SECONDS = {0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+    // Status code of a call that failed without an HTTP response
+    private static final int NO_RESPONSE_STATUS = 0;
+    // Metrics of all the REST calls of the JVM
+    private static final CallMetrics GLOBAL = new CallMetrics();
+    // Operation name as Key and the metrics of the operation as Value
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Method to get the metrics of all the REST calls of the JVM
+     *
+     * @return JVM call metrics
+     */
+    public static CallMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Method to record a finished REST call
+     *
+     * @param operation     Operation name
+     * @param status        HTTP status code, 0 if the call failed without a response
+     * @param latencyNanos  Time from the start of the call until the response body was read or the call failed
+     * @param bytesSent     Request body bytes
+     * @param bytesReceived Response body bytes
+     */
+    public void record(String operation, int status, long latencyNanos, long bytesSent, long bytesReceived) {
+        operations.computeIfAbsent(operation, name -> new OperationMetrics()).record(status, latencyNanos, bytesSent, bytesReceived);
+    }
+
+    /**
+     * Method to write out the summary table of the recorded calls, one line per operation
+     */
+    public void logSummary() {
+        TreeMap<String, OperationMetrics> sortedOperations = new TreeMap<>(operations);
+        if (sortedOperations.isEmpty()) {
+            return;
+        }
+        ExecutionLog.info("<<-- REST Call Summary -->>");
+        ExecutionLog.info(String.format(Locale.ROOT, "%-24s %6s %6s %9s %9s %9s %10s %10s  %s",
+                "Operation", "Calls", "Errors", "p50 ms", "p95 ms", "Max ms", "Sent KB", "Recv KB", "Status Codes"));
+        for (Map.Entry<String, OperationMetrics> operation : sortedOperations.entrySet()) {
+            OperationMetrics metrics = operation.getValue();
+            ExecutionLog.info(String.format(Locale.ROOT, "%-24s %6d %6d %9.0f %9.0f %9.0f %10.1f %10.1f  %s",
+                    operation.getKey(), metrics.count.sum(), metrics.getErrorCount(),
+                    metrics.getPercentileSeconds(0.50) * 1000, metrics.getPercentileSeconds(0.95) * 1000, metrics.getMaxNanos() / 1e6,
+                    metrics.bytesSent.sum() / 1024.0, metrics.bytesReceived.sum() / 1024.0, new TreeMap<>(metrics.statusCounts)));
+        }
+    }
+
+    /**
+     * Method to get the recorded calls in the Prometheus text format
+     *
+     * @return Prometheus text
+     */
+    public String toPrometheus() {
+        TreeMap<String, OperationMetrics> sortedOperations = new TreeMap<>(operations);
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP ia_rest_call_duration_seconds Latency of the REST calls per operation\n");
+        text.append("# TYPE ia_rest_call_duration_seconds histogram\n");
+        for (Map.Entry<String, OperationMetrics> operation : sortedOperations.entrySet()) {
+            OperationMetrics metrics = operation.getValue();
+            String label = "operation=\"" + operation.getKey() + "\"";
+            long cumulative = 0;
+            for (int b = 0; b <= BUCKET_SECONDS.length; b++) {
+                cumulative += metrics.buckets.get(b);
+                String upperBound = b < BUCKET_SECONDS.length ? String.valueOf(BUCKET_SECONDS[b]) : "+Inf";
+                text.append("ia_rest_call_duration_seconds_bucket{").append(label).append(",le=\"").append(upperBound).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append("ia_rest_call_duration_seconds_sum{").append(label).append("} ").append(metrics.sumNanos.sum() / 1e9).append('\n');
+            text.append("ia_rest_call_duration_seconds_count{").append(label).append("} ").append(metrics.count.sum()).append('\n');
+        }
+        text.append("# HELP ia_rest_call_status_total REST calls per operation and HTTP status code, code 0 for calls without a response\n");
+        text.append("# TYPE ia_rest_call_status_total counter\n");
+        for (Map.Entry<String, OperationMetrics> operation : sortedOperations.entrySet()) {
+            for (Map.Entry<Integer, LongAdder> statusCount : new TreeMap<>(operation.getValue().statusCounts).entrySet()) {
+                text.append("ia_rest_call_status_total{operation=\"").append(operation.getKey()).append("\",code=\"").append(statusCount.getKey())
+                        .append("\"} ").append(statusCount.getValue().sum()).append('\n');
+            }
+        }
+        appendCounter(text, sortedOperations, "ia_rest_call_request_bytes_total", "Request body bytes of the REST calls per operation", true);
+        appendCounter(text, sortedOperations, "ia_rest_call_response_bytes_total", "Response body bytes of the REST calls per operation", false);
+        return text.toString();
+    }
+
+    /**
+     * Method to append a byte counter per operation in the Prometheus text format
+     *
+     * @param text             Prometheus text
+     * @param sortedOperations Operation metrics sorted by operation name
+     * @param name             Counter name
+     * @param help             Counter description
+     * @param sent             True for the request bytes, false for the response bytes
+     */
+    private static void appendCounter(StringBuilder text, TreeMap<String, OperationMetrics> sortedOperations, String name, String help, boolean sent) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<String, OperationMetrics> operation : sortedOperations.entrySet()) {
+            OperationMetrics metrics = operation.getValue();
+            text.append(name).append("{operation=\"").append(operation.getKey()).append("\"} ")
+                    .append(sent ? metrics.bytesSent.sum() : metrics.bytesReceived.sum()).append('\n');
+        }
+    }
+
+    /**
+     * Method to write the recorded calls to the Prometheus textfile of the System Property ia.metrics.textfile.
+     * The file is replaced in one move so the node exporter never reads half a file, a failed write is only written out.
+     */
+    public void writePrometheusTextfile() {
+        if (TEXTFILE.trim().isEmpty()) {
+            return;
+        }
+        File textfile = new File(TEXTFILE.trim());
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(textfile.getName(), ".tmp", textfile.getAbsoluteFile().getParentFile());
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                writer.write(toPrometheus());
+            }
+            Files.move(tempFile.toPath(), textfile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ExecutionLog.warn("Prometheus textfile " + textfile + " not written: " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Class for the metrics of one operation
+     */
+    private static class OperationMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_SECONDS.length + 1);
+        private final ConcurrentHashMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private volatile long maxNanos;
+
+        /**
+         * Method to record a finished call of the operation
+         *
+         * @param status       HTTP status code
+         * @param latencyNanos Call latency in nanoseconds
+         * @param sent         Request body bytes
+         * @param received     Response body bytes
+         */
+        private void record(int status, long latencyNanos, long sent, long received) {
+            count.increment();
+            sumNanos.add(latencyNanos);
+            bytesSent.add(Math.max(0, sent));
+            bytesReceived.add(Math.max(0, received));
+            statusCounts.computeIfAbsent(status, code -> new LongAdder()).increment();
+            int bucket = 0;
+            while (bucket < BUCKET_SECONDS.length && latencyNanos > BUCKET_SECONDS[bucket] * 1e9) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            synchronized (this) {
+                if (latencyNanos > maxNanos) {
+                    maxNanos = latencyNanos;
+                }
+            }
+        }
+
+        /**
+         * Method to get the number of calls without a successful HTTP status code
+         *
+         * @return Error count
+         */
+        private long getErrorCount() {
+            long errorCount = 0;
+            for (Map.Entry<Integer, LongAdder> statusCount : statusCounts.entrySet()) {
+                if (statusCount.getKey() == NO_RESPONSE_STATUS || statusCount.getKey() >= 300) {
+                    errorCount += statusCount.getValue().sum();
+                }
+            }
+            return errorCount;
+        }
+
+        /**
+         * Method to get the upper bound of the histogram bucket with the percentile, the maximum for the last bucket
+         *
+         * @param percentile Percentile between 0 and 1
+         * @return Latency in seconds
+         */
+        private double getPercentileSeconds(double percentile) {
+            long total = count.sum();
+            long cumulative = 0;
+            for (int b = 0; b < BUCKET_SECONDS.length; b++) {
+                cumulative += buckets.get(b);
+                if (total > 0 && cumulative >= percentile * total) {
+                    return Math.min(BUCKET_SECONDS[b], getMaxNanos() / 1e9);
+                }
+            }
+            return getMaxNanos() / 1e9;
+        }
+
+        /**
+         * Get method for the slowest call
+         *
+         * @return Maximum latency in nanoseconds
+         */
+        private long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
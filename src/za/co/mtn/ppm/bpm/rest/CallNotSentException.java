@@ -0,0 +1,20 @@
+package za.co.mtn.ppm.bpm.rest;
+
+import java.io.IOException;
+
+/**
+ * Exception for a REST call that was not sent, because the run deadline passed, the circuit of the endpoint is open or
+ * no permit of the host rate limiter was available in time. The server did not receive the Request.
+ */
+public class CallNotSentException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor method for the exception of a REST call that was not sent
+     *
+     * @param message Reason the call was not sent
+     */
+    public CallNotSentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,106 @@
+package za.co.mtn.ppm.bpm.rest;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class for the circuit breaker of a REST endpoint (PPM requests, PPM sqlRunner, OO etc.), shared by all the runs of the JVM.
+ * The circuit opens after a number of consecutive failed calls without a response or with a server error, and the calls of the
+ * endpoint then fail at once instead of waiting for the call timeout. After the open time one trial call is let through,
+ * the circuit closes again when the trial call succeeds.
+ * The circuit breakers can be tuned with the following System Properties:
+ * - ia.http.breakerFailures (default 5, 0 for no circuit breaker)
+ * - ia.http.breakerOpenSeconds (default 30)
+ */
+public class CircuitBreaker {
+    // Constant variables for the class
+    private static final int FAILURE_THRESHOLD = Integer.getInteger("ia.http.breakerFailures", 5);
+    private static final long OPEN_MILLIS = Long.getLong("ia.http.breakerOpenSeconds", 30L) * 1000L;
+    // Endpoint name as Key and the circuit breaker of the endpoint as Value
+    private static final ConcurrentHashMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    // Class Variables set by the constructor
+    private final String endpoint;
+    // Circuit state
+    private int consecutiveFailures = 0;
+    private long openUntilMillis = 0;
+    private boolean trialCallRunning = false;
+
+    /**
+     * Constructor method for the circuit breaker of an endpoint
+     *
+     * @param endpoint Endpoint name
+     */
+    private CircuitBreaker(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Method to get the circuit breaker of an endpoint
+     *
+     * @param endpoint Endpoint name, e.g. the Base URL and the operation group
+     * @return Circuit breaker shared by all the runs of the JVM
+     */
+    protected static CircuitBreaker forEndpoint(String endpoint) {
+        return BREAKERS.computeIfAbsent(endpoint, CircuitBreaker::new);
+    }
+
+    /**
+     * Method to check if a call may be sent to the endpoint, only one trial call is let through after the open time
+     *
+     * @return Boolean (True or False)
+     */
+    protected synchronized boolean allowCall() {
+        if (FAILURE_THRESHOLD <= 0 || consecutiveFailures < FAILURE_THRESHOLD) {
+            return true;
+        }
+        if (System.currentTimeMillis() < openUntilMillis || trialCallRunning) {
+            return false;
+        }
+        trialCallRunning = true;
+        return true;
+    }
+
+    /**
+     * Method to record a call that reached the endpoint, the circuit is closed
+     */
+    protected synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialCallRunning = false;
+    }
+
+    /**
+     * Method to record a call without a response or with a server error, the circuit opens at the failure threshold
+     */
+    protected synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialCallRunning = false;
+        if (FAILURE_THRESHOLD > 0 && consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntilMillis = System.currentTimeMillis() + OPEN_MILLIS;
+        }
+    }
+
+    /**
+     * Method to release a call that ended without an outcome for the endpoint, e.g. a call stopped by the run deadline,
+     * the failure count is not changed and a trial call can be let through again
+     */
+    protected synchronized void releaseCall() {
+        trialCallRunning = false;
+    }
+
+    /**
+     * Method to get the time until the next trial call is let through
+     *
+     * @return Milliseconds until the circuit is half open, 0 if it is not open
+     */
+    protected synchronized long getOpenMillis() {
+        return Math.max(0, openUntilMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * Get method for the endpoint name
+     *
+     * @return Endpoint name
+     */
+    protected String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,347 @@
+package za.co.mtn.ppm.bpm.rest;
+
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class for the token bucket rate limiter shared by all the JVMs on the host, so that many runs started together do not
+ * overload the PPM sqlRunner, the PPM request API and OO. Every PPM and OO call takes a permit from the bucket of its budget:
+ * - READ: sqlRunner queries and GET Requests
+ * - WRITE: PPM Request creation, update and reference calls
+ * - OO: OO flow executions
+ * The buckets are kept in a small memory-mapped file, and every bucket is updated under a lock on its own region of the file.
+ * The region lock is taken without the interrupt flag of the thread, as an interrupted lock closes the file channel of the JVM.
+ * A closed file channel is opened again, and the calls are not rate limited when the bucket file cannot be opened.
+ * The limits are read from the System Properties, and from the limits file when it is set. The limits file is read again when it
+ * changes, so the limits can be changed without a redeploy or a restart of the IA Job Server:
+ * - ia.rate.file (default ia-rate-limiter.bin in java.io.tmpdir, the bucket file shared by the JVMs)
+ * - ia.rate.limitsFile (default none, a properties file with the keys below without the "ia.rate." prefix)
+ * - ia.rate.readPerSecond (default 20, 0 for no limit)
+ * - ia.rate.writePerSecond (default 10, 0 for no limit)
+ * - ia.rate.ooPerSecond (default 5, 0 for no limit)
+ * - ia.rate.burstSeconds (default 2, the number of seconds of permits a bucket can keep)
+ */
+public class HostRateLimiter {
+    /**
+     * Budgets of the host, every budget has its own bucket
+     */
+    public enum Budget {
+        READ, WRITE, OO
+    }
+
+    // Constant variables for the class
+    private static final String BUCKET_FILE = System.getProperty("ia.rate.file", new File(System.getProperty("java.io.tmpdir"), "ia-rate-limiter.bin").getPath());
+    private static final String LIMITS_FILE = System.getProperty("ia.rate.limitsFile", "");
+    private static final long LIMITS_CHECK_MILLIS = 5_000L;
+    // Bucket region: available permits in millionths of a permit and the last refill time in epoch milliseconds
+    private static final int BUCKET_BYTES = 16;
+    private static final long MICROS_PER_PERMIT = 1_000_000L;
+    // Rate limiter shared by all the gateways of the JVM
+    private static final HostRateLimiter SHARED = new HostRateLimiter();
+    // Bucket file, null if the file could not be opened and the calls are not limited
+    private volatile FileChannel channel;
+    private volatile MappedByteBuffer buckets;
+    // Locks of the buckets within the JVM, a file region can only be locked once per JVM
+    private final Object[] bucketLocks = new Object[Budget.values().length];
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong waitMillis = new AtomicLong();
+    // Limits of the budgets, read again when the limits file changes
+    private volatile Properties limits;
+    private long limitsCheckedMillis = 0;
+    private long limitsFileModified = -1;
+
+    /**
+     * Constructor method for the rate limiter of the JVM, the bucket file is created on the first use
+     */
+    private HostRateLimiter() {
+        for (int i = 0; i < bucketLocks.length; i++) {
+            bucketLocks[i] = new Object();
+        }
+        this.limits = readLimits();
+        openBucketFile();
+    }
+
+    /**
+     * Method to open and map the bucket file, the calls are not rate limited when the file cannot be opened
+     */
+    private synchronized void openBucketFile() {
+        FileChannel bucketChannel = null;
+        MappedByteBuffer bucketBuffer = null;
+        try {
+            bucketChannel = new RandomAccessFile(BUCKET_FILE, "rw").getChannel();
+            bucketBuffer = bucketChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) BUCKET_BYTES * Budget.values().length);
+        } catch (IOException e) {
+            ExecutionLog.warn("Host rate limiter file " + BUCKET_FILE + " not available, REST calls are not rate limited: " + e.getMessage());
+            if (bucketChannel != null) {
+                try {
+                    bucketChannel.close();
+                } catch (IOException ex) {
+                    // The calls are not rate limited either way
+                }
+            }
+            bucketChannel = null;
+            bucketBuffer = null;
+        }
+        this.buckets = bucketBuffer;
+        this.channel = bucketChannel;
+    }
+
+    /**
+     * Method to open the bucket file again after its file channel was closed, e.g. by an interrupt of another thread
+     *
+     * @param closedChannel File channel that was found closed
+     */
+    private synchronized void reopenBucketFile(FileChannel closedChannel) {
+        // Another thread may have opened the bucket file again already
+        if (channel == closedChannel) {
+            ExecutionLog.warn("Host rate limiter file " + BUCKET_FILE + " channel closed, the file is opened again");
+            openBucketFile();
+        }
+    }
+
+    /**
+     * Method to get the rate limiter of the host
+     *
+     * @return Rate limiter shared by all the gateways of the JVM
+     */
+    public static HostRateLimiter getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Method to take a permit from the bucket of a budget, the calling thread waits until a permit is available
+     *
+     * @param budget        Budget of the call
+     * @param maxWaitMillis Maximum time to wait for the permit, e.g. the time left until the run deadline
+     * @throws IOException When the permit is not available within the maximum time (CallNotSentException), or the bucket file cannot be locked
+     */
+    public void acquire(Budget budget, long maxWaitMillis) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        final long startMillis = System.currentTimeMillis();
+        while (true) {
+            double permitsPerSecond = getPermitsPerSecond(budget);
+            if (permitsPerSecond <= 0) {
+                return;
+            }
+            long sleepMillis = tryAcquire(budget, permitsPerSecond);
+            if (sleepMillis == 0) {
+                long waitedMillis = System.currentTimeMillis() - startMillis;
+                if (waitedMillis > 0) {
+                    waitCount.incrementAndGet();
+                    waitMillis.addAndGet(waitedMillis);
+                }
+                return;
+            }
+            if (System.currentTimeMillis() - startMillis + sleepMillis > maxWaitMillis) {
+                throw new CallNotSentException("No " + budget.name().toLowerCase(Locale.ROOT) + " permit of the host rate limiter within " + maxWaitMillis + " ms");
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Waiting for a permit of the host rate limiter interrupted");
+            }
+        }
+    }
+
+    /**
+     * Method to refill the bucket of a budget and take a permit if one is available, under the lock of the bucket region
+     *
+     * @param budget           Budget of the call
+     * @param permitsPerSecond Refill rate of the bucket
+     * @return 0 if a permit was taken, otherwise the time in milliseconds until the next permit is available
+     * @throws IOException When the bucket region cannot be locked
+     */
+    private long tryAcquire(Budget budget, double permitsPerSecond) throws IOException {
+        final int offset = budget.ordinal() * BUCKET_BYTES;
+        final long capacity = (long) (Math.max(1, permitsPerSecond * getBurstSeconds()) * MICROS_PER_PERMIT);
+        synchronized (bucketLocks[budget.ordinal()]) {
+            FileLock bucketLock = lockBucket(offset);
+            if (bucketLock == null) {
+                // The bucket file is not available any more, the calls are not rate limited
+                return 0;
+            }
+            final MappedByteBuffer buckets = this.buckets;
+            try {
+                final long nowMillis = System.currentTimeMillis();
+                long available = buckets.getLong(offset);
+                long refilledMillis = buckets.getLong(offset + 8);
+                if (refilledMillis <= 0 || refilledMillis > nowMillis) {
+                    // New bucket, or the clock of the host went back
+                    available = capacity;
+                } else {
+                    available += (long) ((nowMillis - refilledMillis) * permitsPerSecond * MICROS_PER_PERMIT / 1000.0);
+                }
+                available = Math.min(capacity, Math.max(0, available));
+                long sleepMillis = 0;
+                if (available >= MICROS_PER_PERMIT) {
+                    available -= MICROS_PER_PERMIT;
+                } else {
+                    sleepMillis = Math.max(1, (long) Math.ceil((MICROS_PER_PERMIT - available) * 1000.0 / (permitsPerSecond * MICROS_PER_PERMIT)));
+                }
+                buckets.putLong(offset, available);
+                buckets.putLong(offset + 8, nowMillis);
+                return sleepMillis;
+            } finally {
+                try {
+                    bucketLock.release();
+                } catch (ClosedChannelException e) {
+                    // The lock was released when the channel was closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to lock the region of a bucket. The interrupt flag of the thread is cleared while the lock is taken and set again
+     * afterwards, and a file channel closed by an interrupt is opened again once.
+     *
+     * @param offset Offset of the bucket region
+     * @return Lock of the bucket region, null if the bucket file is not available
+     * @throws IOException When the bucket region cannot be locked
+     */
+    private FileLock lockBucket(int offset) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                final FileChannel bucketChannel = channel;
+                if (bucketChannel == null) {
+                    return null;
+                }
+                try {
+                    return bucketChannel.lock(offset, BUCKET_BYTES, false);
+                } catch (ClosedChannelException e) {
+                    // An interrupt during the lock sets the interrupt flag again, it is kept for the end of the call
+                    interrupted |= Thread.interrupted();
+                    if (attempt > 0) {
+                        throw e;
+                    }
+                    reopenBucketFile(bucketChannel);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Method to get the permits per second of a budget
+     *
+     * @param budget Budget
+     * @return Permits per second, 0 for no limit
+     */
+    private double getPermitsPerSecond(Budget budget) {
+        String defaultRate;
+        switch (budget) {
+            case READ:
+                defaultRate = "20";
+                break;
+            case WRITE:
+                defaultRate = "10";
+                break;
+            default:
+                defaultRate = "5";
+        }
+        return getLimit(budget.name().toLowerCase(Locale.ROOT) + "PerSecond", defaultRate);
+    }
+
+    /**
+     * Method to get the number of seconds of permits a bucket can keep
+     *
+     * @return Burst seconds
+     */
+    private double getBurstSeconds() {
+        return getLimit("burstSeconds", "2");
+    }
+
+    /**
+     * Method to get a limit from the limits file, the System Property or the default value
+     *
+     * @param name         Limit name without the "ia.rate." prefix
+     * @param defaultValue Default value
+     * @return Limit value, the default value if the limit is not a number
+     */
+    private double getLimit(String name, String defaultValue) {
+        String value = getLimits().getProperty(name, System.getProperty("ia.rate." + name, defaultValue));
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.parseDouble(defaultValue);
+        }
+    }
+
+    /**
+     * Method to get the limits of the limits file, the file is checked for changes every few seconds
+     *
+     * @return Limits properties, empty without a limits file
+     */
+    private Properties getLimits() {
+        if (LIMITS_FILE.trim().isEmpty()) {
+            return limits;
+        }
+        synchronized (this) {
+            long nowMillis = System.currentTimeMillis();
+            if (nowMillis - limitsCheckedMillis >= LIMITS_CHECK_MILLIS) {
+                limitsCheckedMillis = nowMillis;
+                if (new File(LIMITS_FILE.trim()).lastModified() != limitsFileModified) {
+                    limits = readLimits();
+                }
+            }
+        }
+        return limits;
+    }
+
+    /**
+     * Method to read the limits file, a limits file that cannot be read is ignored
+     *
+     * @return Limits properties, empty without a limits file
+     */
+    private Properties readLimits() {
+        Properties fileLimits = new Properties();
+        if (LIMITS_FILE.trim().isEmpty()) {
+            return fileLimits;
+        }
+        File limitsFile = new File(LIMITS_FILE.trim());
+        limitsFileModified = limitsFile.lastModified();
+        if (!limitsFile.isFile()) {
+            return fileLimits;
+        }
+        try (InputStream in = new FileInputStream(limitsFile)) {
+            fileLimits.load(in);
+            ExecutionLog.info("Host rate limits read from " + limitsFile + ": " + fileLimits);
+        } catch (IOException e) {
+            ExecutionLog.warn("Host rate limits file " + limitsFile + " ignored: " + e.getMessage());
+        }
+        return fileLimits;
+    }
+
+    /**
+     * Method to get the rate limiter statistics of the JVM for the run summary
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        if (channel == null) {
+            return "Host rate limiter: not available";
+        }
+        return "Host rate limiter waits: " + waitCount.get() + ", wait time: " + waitMillis.get() + " ms, permits per second (read/write/oo): "
+                + getPermitsPerSecond(Budget.READ) + "/" + getPermitsPerSecond(Budget.WRITE) + "/" + getPermitsPerSecond(Budget.OO);
+    }
+}
@@ -0,0 +1,39 @@
+package za.co.mtn.ppm.bpm.rest;
+
+/**
+ * Exception for a REST call that got an unsuccessful HTTP response, after the retries of a retryable call.
+ * A 4xx response means the server did not carry out the Request, e.g. no PPM Request was created.
+ */
+public class HttpStatusException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    // HTTP response code
+    private final int code;
+
+    /**
+     * Constructor method for the exception of an unsuccessful HTTP response
+     *
+     * @param code HTTP response code
+     */
+    public HttpStatusException(int code) {
+        super("Failed : HTTP error code : " + code);
+        this.code = code;
+    }
+
+    /**
+     * Get method for the HTTP response code
+     *
+     * @return HTTP response code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Method to check if the server rejected the Request, so the Request was not carried out
+     *
+     * @return Boolean (True or False)
+     */
+    public boolean isClientError() {
+        return code >= 400 && code < 500;
+    }
+}
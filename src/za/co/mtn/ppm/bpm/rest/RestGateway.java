@@ -0,0 +1,605 @@
+package za.co.mtn.ppm.bpm.rest;
+
+import okhttp3.*;
+import za.co.mtn.ppm.bpm.ia.ExecutionLog;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that holds the shared HTTP client for all the PPM and OpenText OO REST calls of a run.
+ * One connection pool and dispatcher is shared by every gateway so that connections are kept alive and reused between calls.
+ * The pool and dispatcher can be tuned with the following System Properties:
+ * - ia.http.maxIdleConnections (default 10)
+ * - ia.http.keepAliveSeconds (default 300)
+ * - ia.http.maxRequests (default 64)
+ * - ia.http.maxRequestsPerHost (default 16)
+ * Every call is named with an operation name (sql.impactedSystems, req.update, oo.execute etc.), and the latency, HTTP status code
+ * and body sizes of the call are recorded per operation name in the call metrics of the JVM and of the run.
+ * Reads (GET and sqlRunner POST Requests) and PUT Requests are retried after a failure without a response, a 408, 429 or 5xx
+ * HTTP error code, with exponential backoff and jitter or after the Retry-After time of the response. POST Requests that create
+ * entities (PPM Requests, OO flow executions, jobs) are never retried, as a lost response does not mean that nothing was created.
+ * Every endpoint (Base URL and operation group, e.g. PPM req, PPM sql, OO oo) has a circuit breaker that fails the calls at once
+ * while the endpoint is down, see CircuitBreaker. The retries can be tuned with the following System Properties:
+ * - ia.http.maxRetries (default 3)
+ * - ia.http.retryBaseMillis (default 500)
+ * - ia.http.retryMaxMillis (default 30000, a longer Retry-After time fails the call)
+ * A gateway with the deadline of a run limits the timeout of every call to the time left until the deadline, does not send
+ * calls after the deadline and does not wait for a retry that would end after the deadline.
+ * Every PPM and OO call, and every retry, first takes a permit of its budget from the HostRateLimiter shared by all the JVMs on the host.
+ */
+public class RestGateway {
+    // Constant variables for the class
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+    private static final MediaType TEXT_MEDIA_TYPE = MediaType.parse("text/plain");
+    private static final int MAX_IDLE_CONNECTIONS = Integer.getInteger("ia.http.maxIdleConnections", 10);
+    private static final long KEEP_ALIVE_SECONDS = Long.getLong("ia.http.keepAliveSeconds", 300L);
+    private static final int MAX_REQUESTS = Integer.getInteger("ia.http.maxRequests", 64);
+    private static final int MAX_REQUESTS_PER_HOST = Integer.getInteger("ia.http.maxRequestsPerHost", 16);
+    private static final int MAX_RETRIES = Integer.getInteger("ia.http.maxRetries", 3);
+    private static final long RETRY_BASE_MILLIS = Long.getLong("ia.http.retryBaseMillis", 500L);
+    private static final long RETRY_MAX_MILLIS = Long.getLong("ia.http.retryMaxMillis", 30_000L);
+    // Connection reuse counters for all the gateways
+    private static final AtomicLong CALL_COUNT = new AtomicLong();
+    private static final AtomicLong CONNECT_COUNT = new AtomicLong();
+    // Shared HTTP client with the connection pool and dispatcher
+    private static OkHttpClient sharedClient;
+    // Class Variables set by the constructor
+    private final OkHttpClient client;
+    private final String baseUrl;
+    private final Headers headers;
+    private final long callTimeoutMillis;
+    // Call metrics of the run, null when only the JVM call metrics are recorded
+    private final CallMetrics runMetrics;
+    // Deadline of the run for the call timeouts
+    private final RunDeadline deadline;
+
+    /**
+     * Constructor for the gateway of a single REST environment
+     *
+     * @param baseUrl            Base URL of the REST environment
+     * @param headers            Headers added to every request (Authorization etc.)
+     * @param connectTimeoutSecs Connect timeout in seconds
+     * @param callTimeoutSecs    Read, write and call timeout in seconds
+     */
+    private RestGateway(String baseUrl, Headers headers, long connectTimeoutSecs, long callTimeoutSecs) {
+        this.baseUrl = baseUrl;
+        this.headers = headers;
+        this.callTimeoutMillis = callTimeoutSecs * 1000L;
+        this.runMetrics = null;
+        this.deadline = RunDeadline.none();
+        this.client = getSharedClient().newBuilder()
+                .connectTimeout(connectTimeoutSecs, TimeUnit.SECONDS)
+                .writeTimeout(callTimeoutSecs, TimeUnit.SECONDS)
+                .readTimeout(callTimeoutSecs, TimeUnit.SECONDS)
+                .callTimeout(callTimeoutSecs, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Constructor for a copy of a gateway for a run
+     *
+     * @param gateway    Gateway to copy
+     * @param runMetrics Call metrics of the run, can be null
+     * @param deadline   Deadline of the run
+     */
+    private RestGateway(RestGateway gateway, CallMetrics runMetrics, RunDeadline deadline) {
+        this.baseUrl = gateway.baseUrl;
+        this.headers = gateway.headers;
+        this.client = gateway.client;
+        this.callTimeoutMillis = gateway.callTimeoutMillis;
+        this.runMetrics = runMetrics;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Method to get a gateway with the same environment that also records the calls in the call metrics of a run
+     *
+     * @param runMetrics Call metrics of the run
+     * @return REST Gateway
+     */
+    public RestGateway withCallMetrics(CallMetrics runMetrics) {
+        return new RestGateway(this, runMetrics, deadline);
+    }
+
+    /**
+     * Method to get a gateway with the same environment that limits the call timeouts to the deadline of a run
+     *
+     * @param deadline Deadline of the run
+     * @return REST Gateway
+     */
+    public RestGateway withDeadline(RunDeadline deadline) {
+        return new RestGateway(this, runMetrics, deadline);
+    }
+
+    /**
+     * Method to create the gateway for the PPM REST API (rest2)
+     *
+     * @param ppmBaseUrl PPM Base URL for identifying the PPM environment
+     * @param username   PPM User for access to the PPM entities.
+     * @param password   PPM User password
+     * @return PPM REST Gateway
+     */
+    public static RestGateway ppmGateway(String ppmBaseUrl, String username, String password) {
+        // Encode the Username and Password once for all the calls
+        final String auth = username + ":" + password;
+        String encoding = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.ISO_8859_1));
+        Headers headers = new Headers.Builder()
+                .add("Authorization", "Basic " + encoding)
+                .add("Ephemeral", "true")
+                .build();
+        return new RestGateway(ppmBaseUrl, headers, 20, 90);
+    }
+
+    /**
+     * Method to create the gateway for the OpenText OO REST API
+     *
+     * @param ooBaseUrl OO Base URL
+     * @param ooAuthKey OO Authentication Key for Basic Authentication
+     * @return OO REST Gateway
+     */
+    public static RestGateway ooGateway(String ooBaseUrl, String ooAuthKey) {
+        Headers headers = new Headers.Builder()
+                .add("Authorization", "Basic " + ooAuthKey)
+                .build();
+        return new RestGateway(ooBaseUrl, headers, 20, 30);
+    }
+
+    /**
+     * Method to create the gateway for the local IA Job Server
+     *
+     * @param jobServerUrl IA Job Server Base URL
+     * @return IA Job Server REST Gateway, without a call timeout as the call waits for the job
+     */
+    public static RestGateway jobServerGateway(String jobServerUrl) {
+        return new RestGateway(jobServerUrl, new Headers.Builder().build(), 5, 0);
+    }
+
+    /**
+     * Method to execute a GET Request that returns JSON
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL relative to the Base URL
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response getJson(String operation, String restUrl) throws IOException {
+        Request request = newJsonRequest(operation, restUrl).get().build();
+        return execute(request, true);
+    }
+
+    /**
+     * Method to execute a POST Request with a JSON Payload
+     *
+     * @param operation   Operation name for the call metrics
+     * @param restUrl     REST API URL relative to the Base URL
+     * @param jsonPayload JSON Payload string
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response postJson(String operation, String restUrl, String jsonPayload) throws IOException {
+        return postJson(operation, restUrl, RequestBody.create(JSON_MEDIA_TYPE, jsonPayload));
+    }
+
+    /**
+     * Method to execute a POST Request with a JSON Request Body
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL relative to the Base URL
+     * @param body      JSON Request Body
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response postJson(String operation, String restUrl, RequestBody body) throws IOException {
+        Request request = newJsonRequest(operation, restUrl).post(body).build();
+        return execute(request, false);
+    }
+
+    /**
+     * Method to execute a POST Request with a JSON Payload that only reads, e.g. a sqlRunner query, the Request is retried like a GET Request
+     *
+     * @param operation   Operation name for the call metrics
+     * @param restUrl     REST API URL relative to the Base URL
+     * @param jsonPayload JSON Payload string
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response postQueryJson(String operation, String restUrl, String jsonPayload) throws IOException {
+        Request request = newJsonRequest(operation, restUrl).post(RequestBody.create(JSON_MEDIA_TYPE, jsonPayload)).build();
+        return execute(request, true);
+    }
+
+    /**
+     * Method to execute a PUT Request with a JSON Payload
+     *
+     * @param operation   Operation name for the call metrics
+     * @param restUrl     REST API URL relative to the Base URL
+     * @param jsonPayload JSON Payload string
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response putJson(String operation, String restUrl, String jsonPayload) throws IOException {
+        return putJson(operation, restUrl, RequestBody.create(JSON_MEDIA_TYPE, jsonPayload));
+    }
+
+    /**
+     * Method to execute a PUT Request with a JSON Request Body
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL relative to the Base URL
+     * @param body      JSON Request Body
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response putJson(String operation, String restUrl, RequestBody body) throws IOException {
+        Request request = newJsonRequest(operation, restUrl).put(body).build();
+        return execute(request, true);
+    }
+
+    /**
+     * Method to execute a PUT Request with an empty text Request Body
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL relative to the Base URL
+     * @param retryable True if the PUT Request can be sent again without side effects, false for actions such as addReference
+     * @return Successful Response, the caller must close it
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    public Response putEmpty(String operation, String restUrl, boolean retryable) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + restUrl)
+                .headers(headers)
+                .tag(new CallRecord(operation, runMetrics))
+                .put(RequestBody.create(TEXT_MEDIA_TYPE, ""))
+                .build();
+        return execute(request, retryable);
+    }
+
+    /**
+     * Method to set the Request Builder for JSON Requests
+     *
+     * @param operation Operation name for the call metrics
+     * @param restUrl   REST API URL relative to the Base URL
+     * @return Request Builder with the gateway headers
+     */
+    private Request.Builder newJsonRequest(String operation, String restUrl) {
+        return new Request.Builder()
+                .url(baseUrl + restUrl)
+                .headers(headers)
+                .tag(new CallRecord(operation, runMetrics))
+                .addHeader("accept", "application/json");
+    }
+
+    /**
+     * Method to execute the Request and check the Response code, a retryable Request is sent again after a transient failure
+     *
+     * @param request   Request to execute
+     * @param retryable True if the Request can be sent again without side effects (reads and PUT Requests)
+     * @return Successful Response
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private Response execute(Request request, boolean retryable) throws IOException {
+        final String operation = ((CallRecord) request.tag()).operation;
+        final CircuitBreaker circuitBreaker = CircuitBreaker.forEndpoint(getEndpoint(operation));
+        final int maxAttempts = retryable ? Math.max(0, MAX_RETRIES) + 1 : 1;
+        for (int attempt = 1; ; attempt++) {
+            final long remainingMillis = deadline.getRemainingMillis();
+            if (remainingMillis <= 0) {
+                throw new CallNotSentException("Run deadline reached, " + operation + " not sent");
+            }
+            if (!circuitBreaker.allowCall()) {
+                throw new CallNotSentException("REST endpoint " + circuitBreaker.getEndpoint() + " is unavailable, " + operation + " not sent for another "
+                        + circuitBreaker.getOpenMillis() / 1000 + " s");
+            }
+            // Only the calls that are sent take a permit of the host budget
+            final HostRateLimiter.Budget budget = getBudget(operation, request.method(), retryable);
+            if (budget != null) {
+                try {
+                    HostRateLimiter.getShared().acquire(budget, remainingMillis);
+                } catch (IOException e) {
+                    circuitBreaker.releaseCall();
+                    throw e;
+                }
+            }
+            Response response;
+            // Limit the call to the time left until the deadline of the run
+            final boolean deadlineLimited = deadline.isSet() && (callTimeoutMillis <= 0 || remainingMillis < callTimeoutMillis);
+            try {
+                Call call = client.newCall(request);
+                if (deadlineLimited) {
+                    call.timeout().timeout(remainingMillis, TimeUnit.MILLISECONDS);
+                }
+                response = call.execute();
+            } catch (IOException | RuntimeException e) {
+                if (deadlineLimited && e instanceof InterruptedIOException && deadline.getRemainingMillis() <= 0) {
+                    // The call was stopped by the run deadline, not by the endpoint
+                    circuitBreaker.releaseCall();
+                } else {
+                    circuitBreaker.recordFailure();
+                }
+                long waitMillis = getBackoffMillis(attempt);
+                if (attempt >= maxAttempts || !(e instanceof IOException) || !deadline.hasRemaining(waitMillis)) {
+                    throw e;
+                }
+                waitBeforeRetry(operation, e.toString(), waitMillis, attempt, maxAttempts);
+                continue;
+            }
+            // Get the Response from server for the REST Request done.
+            if (response.isSuccessful()) {
+                circuitBreaker.recordSuccess();
+                return response;
+            }
+            response.close();
+            final int code = response.code();
+            if (code >= 500) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            long retryAfterMillis = getRetryAfterMillis(response.header("Retry-After"));
+            long waitMillis = Math.max(retryAfterMillis, getBackoffMillis(attempt));
+            if (attempt >= maxAttempts || !isRetryableCode(code) || retryAfterMillis > RETRY_MAX_MILLIS || !deadline.hasRemaining(waitMillis)) {
+                throw new HttpStatusException(code);
+            }
+            waitBeforeRetry(operation, "HTTP error code " + code, waitMillis, attempt, maxAttempts);
+        }
+    }
+
+    /**
+     * Method to get the circuit breaker endpoint of an operation, the Base URL with the operation group (req, sql, oo etc.)
+     *
+     * @param operation Operation name
+     * @return Endpoint name
+     */
+    private String getEndpoint(String operation) {
+        int groupEnd = operation.indexOf('.');
+        return baseUrl + " " + (groupEnd < 0 ? operation : operation.substring(0, groupEnd));
+    }
+
+    /**
+     * Method to get the host rate limiter budget of a call
+     *
+     * @param operation Operation name
+     * @param method    HTTP method
+     * @param retryable True if the Request only reads or can be sent again without side effects
+     * @return Budget of the call, null for the calls to the local IA Job Server
+     */
+    private static HostRateLimiter.Budget getBudget(String operation, String method, boolean retryable) {
+        if (operation.startsWith("job.")) {
+            return null;
+        }
+        if ("GET".equals(method) || ("POST".equals(method) && retryable)) {
+            return HostRateLimiter.Budget.READ;
+        }
+        return operation.startsWith("oo.") ? HostRateLimiter.Budget.OO : HostRateLimiter.Budget.WRITE;
+    }
+
+    /**
+     * Method to check if an HTTP error code is transient
+     *
+     * @param code HTTP status code
+     * @return Boolean (True or False)
+     */
+    private static boolean isRetryableCode(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Method to get the exponential backoff time with full jitter for a retry
+     *
+     * @param attempt Number of the failed attempt, starting at 1
+     * @return Random backoff time in milliseconds up to the maximum retry time
+     */
+    private static long getBackoffMillis(int attempt) {
+        long backoffMillis = Math.min(RETRY_MAX_MILLIS, RETRY_BASE_MILLIS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, backoffMillis) + 1);
+    }
+
+    /**
+     * Method to get the Retry-After time of a Response, given in seconds or as an HTTP date
+     *
+     * @param retryAfter Retry-After header value, can be null
+     * @return Retry-After time in milliseconds, 0 if the Response has no valid Retry-After header
+     */
+    private static long getRetryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000L);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryDate = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, retryDate.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ex) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Method to write out the retry and wait before the next attempt
+     *
+     * @param operation   Operation name
+     * @param failure     Failure of the attempt
+     * @param waitMillis  Time to wait in milliseconds
+     * @param attempt     Number of the failed attempt
+     * @param maxAttempts Maximum number of attempts
+     * @throws InterruptedIOException When the waiting thread is interrupted
+     */
+    private static void waitBeforeRetry(String operation, String failure, long waitMillis, int attempt, int maxAttempts) throws InterruptedIOException {
+        ExecutionLog.warn("REST call " + operation + " failed with " + failure + ", retry " + attempt + " of " + (maxAttempts - 1) + " in " + waitMillis + " ms");
+        try {
+            Thread.sleep(waitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry of " + operation + " interrupted");
+        }
+    }
+
+    /**
+     * Getter for the Base URL
+     *
+     * @return Base URL string
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Method to get the connection reuse statistics of the shared client
+     *
+     * @return Connection statistics string
+     */
+    public static String getConnectionStatistics() {
+        final long calls = CALL_COUNT.get();
+        final long connects = CONNECT_COUNT.get();
+        OkHttpClient client = getSharedClient();
+        return "REST calls: " + calls + ", new connections: " + connects + ", reused connections: " + Math.max(0, calls - connects)
+                + ", pooled connections: " + client.connectionPool().connectionCount() + " (idle " + client.connectionPool().idleConnectionCount() + ")"
+                + "; " + HostRateLimiter.getShared().getStatistics();
+    }
+
+    /**
+     * Method to get the shared HTTP client with the connection pool and dispatcher
+     *
+     * @return Shared OkHttpClient
+     */
+    private static synchronized OkHttpClient getSharedClient() {
+        if (sharedClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+            sharedClient = new OkHttpClient().newBuilder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS))
+                    .dispatcher(dispatcher)
+                    .eventListener(new CallListener())
+                    .build();
+        }
+        return sharedClient;
+    }
+
+    /**
+     * Class for the progress of a call, set as the Request tag so that the call listener can record the call metrics
+     */
+    private static class CallRecord {
+        private final String operation;
+        private final CallMetrics runMetrics;
+        private volatile long startNanos;
+        private volatile int status;
+        private volatile long bytesSent;
+        private volatile long bytesReceived;
+
+        /**
+         * Constructor method for the progress of a call
+         *
+         * @param operation  Operation name for the call metrics
+         * @param runMetrics Call metrics of the run, can be null
+         */
+        private CallRecord(String operation, CallMetrics runMetrics) {
+            this.operation = operation;
+            this.runMetrics = runMetrics;
+        }
+
+        /**
+         * Method to start the progress of a new attempt of the call
+         */
+        private synchronized void reset() {
+            startNanos = System.nanoTime();
+            status = 0;
+            bytesSent = 0;
+            bytesReceived = 0;
+        }
+
+        /**
+         * Method to record the finished call in the call metrics of the JVM and the run
+         */
+        private synchronized void record() {
+            long latencyNanos = System.nanoTime() - startNanos;
+            CallMetrics.global().record(operation, status, latencyNanos, bytesSent, bytesReceived);
+            if (runMetrics != null) {
+                runMetrics.record(operation, status, latencyNanos, bytesSent, bytesReceived);
+            }
+        }
+    }
+
+    /**
+     * Class to count the calls and new connections of the shared client, and to record the call metrics of every call
+     */
+    private static class CallListener extends EventListener {
+        @Override
+        public void callStart(Call call) {
+            CALL_COUNT.incrementAndGet();
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                // The same Request is sent again for a retry, every attempt is recorded as a call
+                callRecord.reset();
+            }
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            CONNECT_COUNT.incrementAndGet();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                callRecord.bytesSent += byteCount;
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                callRecord.status = response.code();
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                callRecord.bytesReceived += byteCount;
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                callRecord.record();
+            }
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            CallRecord callRecord = getCallRecord(call);
+            if (callRecord != null) {
+                callRecord.record();
+            }
+        }
+
+        /**
+         * Method to get the progress of a call from the Request tag
+         *
+         * @param call Call of the event
+         * @return Call progress or null for a call without a progress tag
+         */
+        private static CallRecord getCallRecord(Call call) {
+            Object tag = call.request().tag();
+            return tag instanceof CallRecord ? (CallRecord) tag : null;
+        }
+    }
+}
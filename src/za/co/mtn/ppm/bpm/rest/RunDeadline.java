@@ -0,0 +1,84 @@
+package za.co.mtn.ppm.bpm.rest;
+
+/**
+ * Class for the deadline of a run, so that the run ends within the time the PPM workflow step allows.
+ * The REST Gateways of the run limit the timeout of every call to the time left until the deadline, and no call is sent
+ * after the deadline. The run does not start new work when too little time is left to finish it.
+ */
+public class RunDeadline {
+    // Run without a deadline
+    private static final RunDeadline NONE = new RunDeadline(0);
+    // Class Variables set by the constructor
+    private final long deadlineNanos;
+    private final long budgetMillis;
+
+    /**
+     * Constructor method for the deadline of a run that starts now
+     *
+     * @param budgetMillis Time budget of the run in milliseconds, 0 for no deadline
+     */
+    private RunDeadline(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+        this.deadlineNanos = System.nanoTime() + budgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Method to get the deadline of a run that starts now
+     *
+     * @param budgetSeconds Time budget of the run in seconds, 0 or less for no deadline
+     * @return Run deadline
+     */
+    public static RunDeadline ofSeconds(long budgetSeconds) {
+        return budgetSeconds > 0 ? new RunDeadline(budgetSeconds * 1000L) : NONE;
+    }
+
+    /**
+     * Method to get the deadline of a run without a deadline
+     *
+     * @return Run deadline that never passes
+     */
+    public static RunDeadline none() {
+        return NONE;
+    }
+
+    /**
+     * Method to check if the run has a deadline
+     *
+     * @return Boolean (True or False)
+     */
+    public boolean isSet() {
+        return budgetMillis > 0;
+    }
+
+    /**
+     * Method to get the time left until the deadline
+     *
+     * @return Remaining time in milliseconds, 0 after the deadline, Long.MAX_VALUE without a deadline
+     */
+    public long getRemainingMillis() {
+        if (!isSet()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    /**
+     * Method to check if a unit of work of a given length still ends before the deadline
+     *
+     * @param millis Time needed in milliseconds
+     * @return Boolean (True or False)
+     */
+    public boolean hasRemaining(long millis) {
+        return getRemainingMillis() > millis;
+    }
+
+    /**
+     * Method to describe the deadline for the run log
+     *
+     * @return Deadline string
+     */
+    @Override
+    public String toString() {
+        return isSet() ? budgetMillis / 1000 + " s (" + getRemainingMillis() / 1000 + " s left)" : "none";
+    }
+}
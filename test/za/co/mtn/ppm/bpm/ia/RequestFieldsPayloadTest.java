@@ -0,0 +1,153 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import okio.Buffer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Class that tests the streamed Request create and update Payload against the org.json JSON Object Payload it replaces.
+ * Every test adds the same fields to the streamed Payload and to a JSON Object built like the JSON Object Payload methods,
+ * and checks that the Request Body bytes are the bytes of JSONObject.toString().
+ */
+public class RequestFieldsPayloadTest {
+    // Constant variables for the class
+    private static final String UPDATE_DATE = "2024-03-01T10:15:30";
+    private static final String MILESTONE_HTML = "<table class=\"ms\"><tr><td>Go Live</td><td>2024-06-30</td></tr></table>";
+
+    @Test
+    public void createWithEpmoProject() throws IOException {
+        PayloadPair payload = PayloadPair.create();
+        payload.addDateField("REQ.LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addStringField("REQ.KNTA_MASTER_PROJ_REF", "IT Project: Network Upgrade");
+        payload.addStringField("REQD.IMPACT_ASSESSMENT_NUM", "123456");
+        payload.addStringField("REQ.IS_DOMAIN", "Digital & Channels");
+        payload.addStringField("REQD.ISPMO_EPMO_PRJ_URL", "https://ppm.example.com/itg/project/ViewProject.do?projectId=30001");
+        payload.addStringField("REQD.ISPMO_EPMO_PRJ_NUM", "98765");
+        payload.addStringField("REQD.ISPMO_EPMO_PM", "Jane Doe; John Smith");
+        payload.addStringField("REQD.ISPMO_EPMO_TYPE", "Strategic");
+        payload.addStringField("REQD.ISPMO_MILESTONES", MILESTONE_HTML);
+        payload.addStringField("REQ.DESCRIPTION", "IT Project 30001 - Network Upgrade (EPMO 98765)");
+        payload.addStringField("REQD.ISPMO_PRJ_URL", "https://ppm.example.com/itg/project/ViewProject.do?projectId=30002");
+        payload.addStringField("REQD.ISPMO_PRJ_PHASE", "Execute");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void createWithoutEpmoProject() throws IOException {
+        PayloadPair payload = PayloadPair.create();
+        payload.addDateField("REQ.LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addStringField("REQ.KNTA_MASTER_PROJ_REF", "IT Project: Reporting");
+        payload.addStringField("REQD.IMPACT_ASSESSMENT_NUM", "123457");
+        payload.addStringField("REQ.IS_DOMAIN", "Billing");
+        payload.addStringField("REQD.ISPMO_MILESTONES", MILESTONE_HTML);
+        payload.addStringField("REQ.DESCRIPTION", "IT Project 30003 - Reporting");
+        payload.addStringField("REQD.ISPMO_PRJ_URL", "https://ppm.example.com/itg/project/ViewProject.do?projectId=30003");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void updateImpactedSystemFields() throws IOException {
+        PayloadPair payload = PayloadPair.update();
+        payload.addDateField("REQ.LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addDateField("REQ.ENTITY_LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addStringField("REQD.ISPMO_IMPACTED_SYSTEMS", "SYS01#@#SYS02");
+        payload.addStringField("REQD.ISPMO_INVOLVEMENTS", "<table><tr><th>System</th><th>Hours</th></tr><tr><td>SYS01</td><td>007</td></tr></table>");
+        payload.addStringField("REQD.IS_DOMAIN_INVOLVEMENTS", "<table><tr><td>Billing</td><td>High</td></tr></table>");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void nullAndEmptyValues() throws IOException {
+        PayloadPair payload = PayloadPair.update();
+        payload.addDateField("REQ.LAST_UPDATE_DATE", UPDATE_DATE);
+        payload.addStringField("REQD.ISPMO_IMPACTED_SYSTEMS", null);
+        payload.addStringField("REQD.ISPMO_INVOLVEMENTS", "");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void htmlEndTagSlashIsEscaped() throws IOException {
+        PayloadPair payload = PayloadPair.create();
+        payload.addStringField("REQD.ISPMO_MILESTONES", "</script><p>a/b</p>/</");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void quotesBackslashesAndControlCharacters() throws IOException {
+        PayloadPair payload = PayloadPair.create();
+        payload.addStringField("REQ.DESCRIPTION", "\"quoted\" C:\\path\b\t\n\f\r\u0000\u0001\u001f\u007f\u0080\u009f\u00a0");
+        payload.assertSameBytes();
+    }
+
+    @Test
+    public void unicodeSeparatorsAndMultiByteCharacters() throws IOException {
+        PayloadPair payload = PayloadPair.create();
+        payload.addStringField("REQ.DESCRIPTION", "line\u2028paragraph\u2029dash\u2014euro\u20ac\u2100 caf\u00e9 \u4e2d\u6587 \ud83d\ude80");
+        payload.assertSameBytes();
+    }
+
+    /**
+     * Class that adds every field to the streamed Payload and to the JSON Object Payload
+     */
+    private static class PayloadPair {
+        private final RequestFieldsPayload payload;
+        private final boolean createPayload;
+        private final JSONArray fieldArray = new JSONArray();
+
+        private PayloadPair(RequestFieldsPayload payload, boolean createPayload) {
+            this.payload = payload;
+            this.createPayload = createPayload;
+        }
+
+        private static PayloadPair create() {
+            return new PayloadPair(new RequestFieldsPayload("INTERFACE_RI", "IS PMO Feature"), true);
+        }
+
+        private static PayloadPair update() {
+            return new PayloadPair(new RequestFieldsPayload(), false);
+        }
+
+        private void addDateField(String token, String dateValue) {
+            payload.addDateField(token, dateValue);
+            JSONObject dateFieldObj = new JSONObject();
+            dateFieldObj.put("token", token);
+            dateFieldObj.put("dateValue", dateValue);
+            fieldArray.put(dateFieldObj);
+        }
+
+        private void addStringField(String token, String stringValue) {
+            payload.addStringField(token, stringValue);
+            JSONObject requestFieldObj = new JSONObject();
+            requestFieldObj.put("token", token);
+            JSONArray stringValueArray = new JSONArray();
+            stringValueArray.put(stringValue);
+            requestFieldObj.put("stringValue", stringValueArray);
+            fieldArray.put(requestFieldObj);
+        }
+
+        private void assertSameBytes() throws IOException {
+            JSONObject fieldObj = new JSONObject();
+            fieldObj.put("field", fieldArray);
+            JSONObject jsonObj = new JSONObject();
+            jsonObj.put("fields", fieldObj);
+            if (createPayload) {
+                jsonObj.put("sourceType", "INTERFACE_RI");
+                jsonObj.put("requestType", "IS PMO Feature");
+            }
+            byte[] expected = jsonObj.toString().getBytes(StandardCharsets.UTF_8);
+            Buffer buffer = new Buffer();
+            payload.writeTo(buffer);
+            assertEquals(expected.length, payload.contentLength());
+            assertArrayEquals(expected, buffer.readByteArray());
+        }
+    }
+}
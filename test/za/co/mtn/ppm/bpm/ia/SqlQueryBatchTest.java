@@ -0,0 +1,103 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class that tests the select list alias parsing of the sqlRunner query batch and the split of the batch result
+ * back into the result of every named query.
+ */
+public class SqlQueryBatchTest {
+    // Constant variables for the class
+    private static final String FEATURES_SQL = "SELECT kr.request_id AS request_id, decode(krt.reference_code, 'IS_PMO_TESTING_FEATURE', krhd.visible_parameter1, krhd.visible_parameter2) AS is_domain, kfai.agile_entity_url"
+            + " FROM pm_projects pp INNER JOIN kcrt_requests kr ON pp.project_id = kr.request_id WHERE kr.status_code IN ( 'NEW', 'IN_PROGRESS' )";
+    private static final String SYSTEMS_SQL = "SELECT kte.parameter2 AS system_code, kte.visible_parameter3 involvement, kte.visible_parameter4 estimate_hrs"
+            + " FROM kcrt_table_entries kte WHERE kte.request_id = 123456";
+    private static final String REFERENCES_SQL = "SELECT DISTINCT krv.target_id FROM knta_references_v krv WHERE krv.source_id = 123456";
+
+    @Test
+    public void columnAliasesWithAsKeywordFunctionsAndTableAliases() {
+        assertEquals(Arrays.asList("REQUEST_ID", "IS_DOMAIN", "AGILE_ENTITY_URL"), SqlQueryBatch.getColumnAliases(FEATURES_SQL));
+    }
+
+    @Test
+    public void columnAliasesWithoutAsKeyword() {
+        assertEquals(Arrays.asList("SYSTEM_CODE", "INVOLVEMENT", "ESTIMATE_HRS"), SqlQueryBatch.getColumnAliases(SYSTEMS_SQL));
+    }
+
+    @Test
+    public void columnAliasesAfterDistinct() {
+        assertEquals(Arrays.asList("TARGET_ID"), SqlQueryBatch.getColumnAliases(REFERENCES_SQL));
+    }
+
+    @Test
+    public void columnAliasesIgnoreCommasAndFromInQuotesAndParentheses() {
+        String querySql = "select replace(kfpp.prj_project_manager_username, '#@#', '; ') as ispmo_pm, 'a, b FROM c' label,"
+                + " (SELECT max(x.id) FROM x WHERE x.a = kr.b) AS max_id from kcrt_requests kr";
+        assertEquals(Arrays.asList("ISPMO_PM", "LABEL", "MAX_ID"), SqlQueryBatch.getColumnAliases(querySql));
+    }
+
+    @Test
+    public void batchSqlPadsTheNarrowerQueries() {
+        SqlQueryBatch batch = new SqlQueryBatch()
+                .addQuery("FEATURES", FEATURES_SQL)
+                .addQuery("REFERENCES", REFERENCES_SQL);
+        String batchSql = batch.getBatchSql();
+        assertTrue(batchSql.startsWith("SELECT BATCH_IDX, BATCH_QRY, BATCH_ROW, c1, c2, c3 FROM ("));
+        assertTrue(batchSql.contains("SELECT 0 AS BATCH_IDX, 'FEATURES' AS BATCH_QRY, ROWNUM AS BATCH_ROW, TO_CHAR(q.REQUEST_ID) AS c1, TO_CHAR(q.IS_DOMAIN) AS c2, TO_CHAR(q.AGILE_ENTITY_URL) AS c3 FROM (" + FEATURES_SQL + ") q"));
+        assertTrue(batchSql.contains(" UNION ALL SELECT 1 AS BATCH_IDX, 'REFERENCES' AS BATCH_QRY, ROWNUM AS BATCH_ROW, TO_CHAR(q.TARGET_ID) AS c1, CAST(NULL AS VARCHAR2(1)) AS c2, CAST(NULL AS VARCHAR2(1)) AS c3 FROM (" + REFERENCES_SQL + ") q"));
+        assertTrue(batchSql.endsWith(") ORDER BY BATCH_IDX, BATCH_ROW"));
+    }
+
+    @Test
+    public void splitBatchResultRestoresTheQueryResults() {
+        SqlQueryBatch batch = new SqlQueryBatch()
+                .addQuery("FEATURES", FEATURES_SQL)
+                .addQuery("SYSTEMS", SYSTEMS_SQL)
+                .addQuery("REFERENCES", REFERENCES_SQL);
+        ArrayList<String[]> batchRows = new ArrayList<>();
+        batchRows.add(new String[]{"0", "FEATURES", "1", "2001", "Billing", "https://octane/1"});
+        batchRows.add(new String[]{"0", "FEATURES", "2", "2002", null, null});
+        batchRows.add(new String[]{"2", "REFERENCES", "1", "2001", null, null});
+        SqlQueryResult batchResult = new SqlQueryResult(new ArrayList<>(Arrays.asList("BATCH_IDX", "BATCH_QRY", "BATCH_ROW", "C1", "C2", "C3")), batchRows);
+
+        HashMap<String, SqlQueryResult> results = batch.splitBatchResult(batchResult);
+
+        assertEquals(3, results.size());
+        SqlQueryResult features = results.get("FEATURES");
+        assertEquals(Arrays.asList("REQUEST_ID", "IS_DOMAIN", "AGILE_ENTITY_URL"), features.getColumnHeaders());
+        assertEquals(2, features.getRows().size());
+        assertArrayEquals(new String[]{"2001", "Billing", "https://octane/1"}, features.getRows().get(0));
+        assertArrayEquals(new String[]{"2002", null, null}, features.getRows().get(1));
+        SqlQueryResult systems = results.get("SYSTEMS");
+        assertEquals(Arrays.asList("SYSTEM_CODE", "INVOLVEMENT", "ESTIMATE_HRS"), systems.getColumnHeaders());
+        assertTrue(systems.isEmpty());
+        SqlQueryResult references = results.get("REFERENCES");
+        assertEquals(Arrays.asList("TARGET_ID"), references.getColumnHeaders());
+        assertEquals(1, references.getRows().size());
+        assertArrayEquals(new String[]{"2001"}, references.getRows().get(0));
+    }
+
+    @Test
+    public void splitBatchResultRejectsAnUnknownQueryName() {
+        SqlQueryBatch batch = new SqlQueryBatch().addQuery("REFERENCES", REFERENCES_SQL);
+        ArrayList<String[]> batchRows = new ArrayList<>();
+        batchRows.add(new String[]{"0", "FEATURES", "1", "2001"});
+        SqlQueryResult batchResult = new SqlQueryResult(new ArrayList<>(Arrays.asList("BATCH_IDX", "BATCH_QRY", "BATCH_ROW", "C1")), batchRows);
+        assertThrows(IllegalStateException.class, () -> batch.splitBatchResult(batchResult));
+    }
+
+    @Test
+    public void duplicateQueryNameIsRejected() {
+        SqlQueryBatch batch = new SqlQueryBatch().addQuery("REFERENCES", REFERENCES_SQL);
+        assertThrows(IllegalArgumentException.class, () -> batch.addQuery("REFERENCES", REFERENCES_SQL));
+    }
+}
@@ -0,0 +1,134 @@
+package za.co.mtn.ppm.bpm.ia;
+
+import okio.Buffer;
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class that tests the single pass decoding of the "rest2/sqlRunner/runSqlQuery" JSON response
+ */
+public class SqlRunnerDecoderTest {
+
+    @Test
+    public void columnHeadersBeforeResults() throws IOException {
+        SqlQueryResult result = decode("{\"queryDetails\":{\"querySql\":\"SELECT 1 FROM dual\",\"limits\":[1,2]},"
+                + "\"columnHeaders\":[\"REQUEST_ID\",\"IS_DOMAIN\",\"ESTIMATE_HRS\"],"
+                + "\"results\":[{\"rowNumber\":1,\"values\":[\"2001\",\"Billing\",\"007\"]},{\"values\":[\"2002\",\"Digital\",12.5]}],"
+                + "\"totalCount\":2,\"hasMore\":false}");
+        assertEquals(Arrays.asList("REQUEST_ID", "IS_DOMAIN", "ESTIMATE_HRS"), result.getColumnHeaders());
+        assertEquals(2, result.getRows().size());
+        assertArrayEquals(new String[]{"2001", "Billing", "007"}, result.getRows().get(0));
+        assertArrayEquals(new String[]{"2002", "Digital", "12.5"}, result.getRows().get(1));
+    }
+
+    @Test
+    public void resultsBeforeColumnHeaders() throws IOException {
+        SqlQueryResult result = decode("{\"results\":[{\"values\":[\"2001\",\"Billing\"]},{\"values\":[\"2002\",\"Digital\"]}],"
+                + "\"totalCount\":2,\"columnHeaders\":[\"REQUEST_ID\",\"IS_DOMAIN\"]}");
+        assertEquals(Arrays.asList("REQUEST_ID", "IS_DOMAIN"), result.getColumnHeaders());
+        assertEquals(2, result.getRows().size());
+        assertArrayEquals(new String[]{"2001", "Billing"}, result.getRows().get(0));
+        assertArrayEquals(new String[]{"2002", "Digital"}, result.getRows().get(1));
+    }
+
+    @Test
+    public void nullBooleanAndNumberValues() throws IOException {
+        SqlQueryResult result = decode("{\"columnHeaders\":[\"A\",\"B\",\"C\",\"D\",\"E\"],"
+                + "\"results\":[{\"values\":[null,true,false,-1.5E3,\"\"]}]}");
+        assertArrayEquals(new String[]{"null", "true", "false", "-1.5E3", ""}, result.getRows().get(0));
+    }
+
+    @Test
+    public void emptyAndMissingResults() throws IOException {
+        SqlQueryResult emptyResults = decode("{\"columnHeaders\":[\"REQUEST_ID\"],\"results\":[]}");
+        assertEquals(Arrays.asList("REQUEST_ID"), emptyResults.getColumnHeaders());
+        assertTrue(emptyResults.isEmpty());
+        SqlQueryResult noResults = decode("{}");
+        assertTrue(noResults.getColumnHeaders().isEmpty());
+        assertTrue(noResults.isEmpty());
+    }
+
+    @Test
+    public void escapeSequences() throws IOException {
+        SqlQueryResult result = decode("{\"columnHeaders\":[\"VALUE\"],\"results\":[{\"values\":["
+                + "\"quote \\\" backslash \\\\ slash \\/ <\\/td>\\b\\f\\n\\r\\t caf\\u00e9 line\\u2028end \\ud83d\\ude80\"]}]}");
+        assertArrayEquals(new String[]{"quote \" backslash \\ slash / </td>\b\f\n\r\t caf\u00e9 line\u2028end \ud83d\ude80"}, result.getRows().get(0));
+    }
+
+    @Test
+    public void multiByteUtf8Values() throws IOException {
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longValue.append("\u00e9\u4e2d");
+        }
+        String value = "caf\u00e9 \u4e2d\u6587 \ud83d\ude80 " + longValue + " end";
+        SqlQueryResult result = decode("{\"columnHeaders\":[\"DOM\u00c4IN\",\"VALUE\"],\"results\":[{\"values\":[\"\u00c5land\\n\u20ac\",\"" + value + "\"]}]}");
+        assertEquals(Arrays.asList("DOM\u00c4IN", "VALUE"), result.getColumnHeaders());
+        assertArrayEquals(new String[]{"\u00c5land\n\u20ac", value}, result.getRows().get(0));
+    }
+
+    @Test
+    public void nestedValuesAsJsonText() throws IOException {
+        SqlQueryResult result = decode("{\"columnHeaders\":[\"A\",\"B\"],\"results\":[{\"values\":[{\"id\":1,\"name\":\"x\"},[1,\"y\"]]}]}");
+        assertArrayEquals(new String[]{"{\"id\":1,\"name\":\"x\"}", "[1,\"y\"]"}, result.getRows().get(0));
+    }
+
+    @Test
+    public void whitespaceBetweenTokens() throws IOException {
+        SqlQueryResult result = decode("{\n  \"columnHeaders\" : [ \"A\" , \"B\" ] ,\r\n  \"results\" : [\n    { \"values\" : [ \"1\" , 2 ] }\n  ]\n}\n");
+        assertEquals(Arrays.asList("A", "B"), result.getColumnHeaders());
+        assertArrayEquals(new String[]{"1", "2"}, result.getRows().get(0));
+    }
+
+    @Test
+    public void rowsAreDecodedOneAtATime() throws IOException {
+        Buffer source = utf8Source("{\"columnHeaders\":[\"REQUEST_ID\"],\"results\":[{\"values\":[\"2001\"]},{\"values\":[\"2002\"]}],\"totalCount\":2}");
+        SqlRunnerDecoder decoder = SqlRunnerDecoder.open(source);
+        assertEquals(Arrays.asList("REQUEST_ID"), decoder.getColumnHeaders());
+        assertArrayEquals(new String[]{"2001"}, decoder.nextRow());
+        assertArrayEquals(new String[]{"2002"}, decoder.nextRow());
+        assertNull(decoder.nextRow());
+        assertTrue(source.exhausted());
+    }
+
+    @Test
+    public void invalidResponsesAreRejected() {
+        assertThrows(JSONException.class, () -> decode("[]"));
+        assertThrows(JSONException.class, () -> decode("{\"columnHeaders\":[\"A\"],\"results\":[{\"values\":[\"2001]}]}"));
+        assertThrows(JSONException.class, () -> decode("{\"columnHeaders\":[\"A\"] \"results\":[]}"));
+        assertThrows(JSONException.class, () -> decode("{\"columnHeaders\":[\"A\\x\"]}"));
+    }
+
+    /**
+     * Method to decode a sqlRunner response from its UTF-8 bytes
+     *
+     * @param json Response JSON text
+     * @return SQL query result
+     * @throws IOException IO Exceptions are thrown up to the calling method
+     */
+    private static SqlQueryResult decode(String json) throws IOException {
+        return SqlRunnerDecoder.decode(utf8Source(json));
+    }
+
+    /**
+     * Method to set the response body source with the UTF-8 bytes of the JSON text
+     *
+     * @param json Response JSON text
+     * @return Response body source
+     */
+    private static Buffer utf8Source(String json) {
+        Buffer source = new Buffer();
+        source.write(json.getBytes(StandardCharsets.UTF_8));
+        return source;
+    }
+}